@@ -0,0 +1,55 @@
+package rockets.dataaccess;
+
+import rockets.model.Launch;
+
+import java.util.List;
+
+/**
+ * A DAO that can run the mining aggregations inside the database and return
+ * only the top-k keys, so that only k entities have to be loaded afterwards.
+ * <p>
+ * All methods return at most k results, highest score first, and results that
+ * score equally in ascending key order.
+ */
+public interface AggregatingDAO {
+    /**
+     * @return whether the aggregation queries can be used with this DAO.
+     */
+    boolean isAggregationSupported();
+
+    /**
+     * Ranks rocket ids by number of successful launches.
+     */
+    List<Score<Long>> mostLaunchedRocketIds(int k);
+
+    /**
+     * Ranks launch service provider ids by the share of their launches with the given outcome.
+     */
+    List<Score<Long>> launchServiceProviderIdsByOutcomeRate(int k, Launch.LaunchOutcome outcome);
+
+    /**
+     * Ranks launch service provider ids by the total price of their launches in a year.
+     * Revenue is ranked exactly; the scores are rounded to doubles.
+     */
+    List<Score<Long>> highestRevenueLaunchServiceProviderIds(int k, int year);
+
+    /**
+     * Ranks countries by number of successful launches to an orbit.
+     */
+    List<Score<String>> dominantCountries(String orbit, int k);
+
+    /**
+     * Returns the ids of the k most recent launches, optionally restricted to an outcome.
+     *
+     * @param outcome the outcome to match, or null for all launches
+     */
+    List<Long> mostRecentLaunchIds(int k, Launch.LaunchOutcome outcome);
+
+    /**
+     * Returns the ids of the k launches with the highest (or lowest) price,
+     * optionally restricted to an outcome. Prices are compared exactly.
+     *
+     * @param outcome the outcome to match, or null for all launches
+     */
+    List<Long> launchIdsByPrice(int k, Launch.LaunchOutcome outcome, boolean mostExpensiveFirst);
+}
@@ -0,0 +1,418 @@
+package rockets.dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rockets.model.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A DAO that keeps the entities loaded by id, and users loaded by email, in an
+ * {@link EntityCache} in front of another DAO, so that repeated lookups of the
+ * same entities do not reach the database. All other calls go straight to the
+ * other DAO.
+ * <p>
+ * Entities are cached by class, id and depth. A cached entity is dropped as
+ * soon as it, or an entity loaded with it at its depth, is saved or deleted
+ * through the other DAO, or an entity directly related to one of them is, since
+ * that may change their relationships. Writes that bypass the other DAO are
+ * only seen once the entry expires. Each entity is indexed to the entries
+ * holding it, so a write only touches the entries it drops.
+ * Lookups that find nothing are not cached. Cached entities are shared between
+ * callers, the way the entities of a session are.
+ */
+public class CachingDAO implements DAO, AggregatingDAO {
+    private static Logger logger = LoggerFactory.getLogger(CachingDAO.class);
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private static final String EMAIL = "email";
+
+    private static final int MINIMUM_INDEX_SIZE = 1024;
+
+    private final DAO dao;
+
+    private final EntityCache<List<Object>, Cached> cache;
+
+    // the keys of the cached entries holding each entity, guarded by this; keys of
+    // entries since evicted or expired stay until the index is rebuilt
+    private final Map<Long, Set<List<Object>>> keysById = new HashMap<>();
+
+    private int indexed;
+
+    private final DAOListener invalidator = new DAOListener() {
+        @Override
+        public void onSaved(Entity entity) {
+            invalidate(writtenIds(entity));
+        }
+
+        @Override
+        public void onDeleted(Entity entity) {
+            invalidate(writtenIds(entity));
+        }
+    };
+
+    private long invalidations;
+
+    public CachingDAO(DAO dao) {
+        this(dao, DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    public CachingDAO(DAO dao, int maximumSize, Duration timeToLive) {
+        this(dao, new SegmentedLruCache<>(maximumSize, timeToLive));
+    }
+
+    public CachingDAO(DAO dao, EntityCache<List<Object>, Cached> cache) {
+        notNull(dao, "DAO cannot be null");
+        notNull(cache, "Cache cannot be null");
+        this.dao = dao;
+        this.cache = cache;
+        dao.addListener(invalidator);
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id) {
+        return load(clazz, id, DEPTH_RELATED);
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id, int depth) {
+        if (null == id) {
+            return dao.load(clazz, id, depth);
+        }
+        return clazz.cast(cached(Arrays.asList(clazz, id, depth), depth, () -> dao.load(clazz, id, depth)));
+    }
+
+    @Override
+    public User getUserByEmail(String email) {
+        if (null == email) {
+            return dao.getUserByEmail(email);
+        }
+        return (User) cached(Arrays.asList(User.class, EMAIL, email), DEPTH_PROPERTIES, () -> dao.getUserByEmail(email));
+    }
+
+    private Entity cached(List<Object> key, int depth, Supplier<Entity> loader) {
+        Cached cached = cache.get(key);
+        if (null != cached) {
+            logger.debug("Cache hit for " + key);
+            return cached.entity;
+        }
+        long version = dao.getDataVersion();
+        Entity entity = loader.get();
+        if (null != entity) {
+            store(key, version, new Cached(entity, ids(entity, depth)));
+        }
+        return entity;
+    }
+
+    private synchronized void store(List<Object> key, long version, Cached cached) {
+        // an entity loaded while the data changed may already be out of date, and
+        // the write may have been invalidated before it could be cached
+        if (version != dao.getDataVersion()) {
+            return;
+        }
+        cache.put(key, cached);
+        for (Long id : cached.ids) {
+            keysById.computeIfAbsent(id, k -> new HashSet<>()).add(key);
+        }
+        indexed += cached.ids.size();
+        if (indexed > 2 * Math.max(cache.size(), MINIMUM_INDEX_SIZE)) {
+            reindex();
+        }
+    }
+
+    /**
+     * Drops the keys of entries that have left the cache from the index.
+     */
+    private void reindex() {
+        keysById.clear();
+        indexed = 0;
+        cache.forEach((key, cached) -> {
+            for (Long id : cached.ids) {
+                keysById.computeIfAbsent(id, k -> new HashSet<>()).add(key);
+            }
+            indexed += cached.ids.size();
+        });
+    }
+
+    private void invalidate(Set<Long> ids) {
+        int removed = 0;
+        synchronized (this) {
+            for (Long id : ids) {
+                Set<List<Object>> keys = keysById.remove(id);
+                if (null != keys) {
+                    for (List<Object> key : keys) {
+                        if (null != cache.remove(key)) {
+                            removed++;
+                        }
+                    }
+                }
+            }
+            invalidations += removed;
+        }
+        if (removed > 0) {
+            logger.debug("Dropped " + removed + " cached entities holding " + ids);
+        }
+    }
+
+    /**
+     * @return the ids of the entity and of the entities loaded with it at the depth.
+     */
+    private static Set<Long> ids(Entity entity, int depth) {
+        Set<Long> ids = new HashSet<>();
+        Set<Entity> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Entity> level = Collections.singletonList(entity);
+        for (int distance = 0; !level.isEmpty(); distance++) {
+            List<Entity> next = new ArrayList<>();
+            for (Entity reached : level) {
+                if (!visited.add(reached)) {
+                    continue;
+                }
+                if (null != reached.getId()) {
+                    ids.add(reached.getId());
+                }
+                if (depth < 0 || distance < depth) {
+                    addNeighbours(reached, next);
+                }
+            }
+            level = next;
+        }
+        return ids;
+    }
+
+    /**
+     * @return the ids of the written entity and of the entities holding it in a
+     * relationship of their own, which the write may have changed.
+     */
+    private static Set<Long> writtenIds(Entity entity) {
+        Set<Long> ids = new HashSet<>();
+        List<Entity> written = new ArrayList<>();
+        written.add(entity);
+        if (entity instanceof Launch) {
+            // providers do not hold their launches
+            Launch launch = (Launch) entity;
+            if (null != launch.getLaunchVehicle()) {
+                written.add(launch.getLaunchVehicle());
+            }
+        } else {
+            addNeighbours(entity, written);
+        }
+        for (Entity reached : written) {
+            if (null != reached.getId()) {
+                ids.add(reached.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static void addNeighbours(Entity entity, List<Entity> neighbours) {
+        if (entity instanceof LaunchServiceProvider) {
+            LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+            if (null != lsp.getRockets()) {
+                neighbours.addAll(lsp.getRockets());
+            }
+        } else if (entity instanceof Rocket) {
+            Rocket rocket = (Rocket) entity;
+            if (null != rocket.getManufacturer()) {
+                neighbours.add(rocket.getManufacturer());
+            }
+            if (null != rocket.getLaunches()) {
+                neighbours.addAll(rocket.getLaunches());
+            }
+        } else if (entity instanceof Launch) {
+            Launch launch = (Launch) entity;
+            if (null != launch.getLaunchVehicle()) {
+                neighbours.add(launch.getLaunchVehicle());
+            }
+            if (null != launch.getLaunchServiceProvider()) {
+                neighbours.add(launch.getLaunchServiceProvider());
+            }
+        }
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        return dao.createOrUpdate(entity);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> createOrUpdateAll(Collection<T> entities) {
+        return dao.createOrUpdateAll(entities);
+    }
+
+    @Override
+    public <R> R inTransaction(Function<UnitOfWork, R> work) {
+        return dao.inTransaction(work);
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        // a delete may clear the id of the entity before the listeners see it
+        Set<Long> ids = null == entity ? Collections.emptySet() : writtenIds(entity);
+        dao.delete(entity);
+        invalidate(ids);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+        return dao.loadAll(clazz);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, int depth) {
+        return dao.loadAll(clazz, depth);
+    }
+
+    @Override
+    public <T extends Entity> List<Map<String, Object>> loadProperties(Class<T> clazz, String... properties) {
+        return dao.loadProperties(clazz, properties);
+    }
+
+    @Override
+    public <T extends Entity> Page<T> loadPage(Class<T> clazz, Long cursor, int limit) {
+        return dao.loadPage(clazz, cursor, limit);
+    }
+
+    @Override
+    public <T extends Entity> Page<T> loadPage(Class<T> clazz, Long cursor, int limit, int depth) {
+        return dao.loadPage(clazz, cursor, limit, depth);
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> stream(Class<T> clazz, int batchSize) {
+        return dao.stream(clazz, batchSize);
+    }
+
+    @Override
+    public void addListener(DAOListener listener) {
+        dao.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(DAOListener listener) {
+        dao.removeListener(listener);
+    }
+
+    @Override
+    public long getDataVersion() {
+        return dao.getDataVersion();
+    }
+
+    @Override
+    public void close() {
+        dao.removeListener(invalidator);
+        clear();
+        dao.close();
+    }
+
+    @Override
+    public boolean isAggregationSupported() {
+        return dao instanceof AggregatingDAO && ((AggregatingDAO) dao).isAggregationSupported();
+    }
+
+    private AggregatingDAO aggregatingDAO() {
+        if (!(dao instanceof AggregatingDAO)) {
+            throw new UnsupportedOperationException("Aggregation is not supported by " + dao.getClass().getSimpleName());
+        }
+        return (AggregatingDAO) dao;
+    }
+
+    @Override
+    public List<Score<Long>> mostLaunchedRocketIds(int k) {
+        return aggregatingDAO().mostLaunchedRocketIds(k);
+    }
+
+    @Override
+    public List<Score<Long>> launchServiceProviderIdsByOutcomeRate(int k, Launch.LaunchOutcome outcome) {
+        return aggregatingDAO().launchServiceProviderIdsByOutcomeRate(k, outcome);
+    }
+
+    @Override
+    public List<Score<Long>> highestRevenueLaunchServiceProviderIds(int k, int year) {
+        return aggregatingDAO().highestRevenueLaunchServiceProviderIds(k, year);
+    }
+
+    @Override
+    public List<Score<String>> dominantCountries(String orbit, int k) {
+        return aggregatingDAO().dominantCountries(orbit, k);
+    }
+
+    @Override
+    public List<Long> mostRecentLaunchIds(int k, Launch.LaunchOutcome outcome) {
+        return aggregatingDAO().mostRecentLaunchIds(k, outcome);
+    }
+
+    @Override
+    public List<Long> launchIdsByPrice(int k, Launch.LaunchOutcome outcome, boolean mostExpensiveFirst) {
+        return aggregatingDAO().launchIdsByPrice(k, outcome, mostExpensiveFirst);
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public double getHitRate() {
+        return cache.getHitRate();
+    }
+
+    /**
+     * @return the number of entities dropped to keep the cache within its maximum size.
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * @return the number of entities dropped because they outlived their time to live.
+     */
+    public long getExpirations() {
+        return cache.getExpirations();
+    }
+
+    /**
+     * @return the number of entities dropped because they, or entities reached from them, were written.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        keysById.clear();
+        indexed = 0;
+    }
+
+    /**
+     * A cached entity, with the ids of the entities loaded with it.
+     */
+    public static final class Cached {
+        private final Entity entity;
+
+        private final Set<Long> ids;
+
+        private Cached(Entity entity, Set<Long> ids) {
+            this.entity = entity;
+            this.ids = ids;
+        }
+
+        public Entity getEntity() {
+            return entity;
+        }
+    }
+}
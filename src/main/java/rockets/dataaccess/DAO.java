@@ -4,17 +4,96 @@ import rockets.model.Entity;
 import rockets.model.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+/**
+ * Loads and saves entities. Loads take an optional depth: how many
+ * relationships away related entities are loaded along with the entities,
+ * {@link #DEPTH_RELATED} by default.
+ */
 public interface DAO {
+    /**
+     * Loads only the properties of the entities, leaving their relationships empty.
+     */
+    int DEPTH_PROPERTIES = 0;
+
+    /**
+     * Loads the entities together with the entities they are directly related to.
+     */
+    int DEPTH_RELATED = 1;
+
     <T extends Entity> T load(Class<T> clazz, Long id);
 
+    <T extends Entity> T load(Class<T> clazz, Long id, int depth);
+
     <T extends Entity> T createOrUpdate(T entity);
 
+    /**
+     * Creates or updates the entities and the entities they reach, like calling
+     * {@link #createOrUpdate(Entity)} on each, but saves every reached entity only
+     * once and entities with the same natural key as a single one.
+     *
+     * @return the given entities, with their ids set.
+     */
+    <T extends Entity> Collection<T> createOrUpdateAll(Collection<T> entities);
+
+    /**
+     * Runs the work with a {@link UnitOfWork} and then writes everything it
+     * registered in a single transaction. Nothing is written if the work or the
+     * write fails.
+     *
+     * @return the result of the work.
+     */
+    <R> R inTransaction(Function<UnitOfWork, R> work);
+
     <T extends Entity> Collection<T> loadAll(Class<T> clazz);
 
+    <T extends Entity> Collection<T> loadAll(Class<T> clazz, int depth);
+
+    /**
+     * Loads only the given properties of all entities of the class, in id order,
+     * without creating the entities.
+     *
+     * @param properties the names of the fields to load.
+     * @return a row per entity, mapping "id" and each property to its value.
+     */
+    <T extends Entity> List<Map<String, Object>> loadProperties(Class<T> clazz, String... properties);
+
+    /**
+     * Loads the entities of the class with an id greater than the cursor, at
+     * most {@code limit} of them, in id order.
+     *
+     * @param cursor the next cursor of the previous page, or null for the first page.
+     * @return the page, with a next cursor unless no entity is left.
+     */
+    <T extends Entity> Page<T> loadPage(Class<T> clazz, Long cursor, int limit);
+
+    <T extends Entity> Page<T> loadPage(Class<T> clazz, Long cursor, int limit, int depth);
+
+    /**
+     * Returns all entities of the class in id order, loaded lazily in batches as
+     * the stream is consumed, so that only about one batch is held at a time. The
+     * stream should be closed once consumed, to release the loaded entities.
+     */
+    <T extends Entity> Stream<T> stream(Class<T> clazz, int batchSize);
+
     <T extends Entity> void delete(T entity);
 
     User getUserByEmail(String email);
 
+    void addListener(DAOListener listener);
+
+    void removeListener(DAOListener listener);
+
+    /**
+     * Returns the version of the data, which increases every time an entity is
+     * created, updated or deleted through this DAO. Results computed from the
+     * data stay valid for as long as the version does not change.
+     */
+    long getDataVersion();
+
     void close();
 }
@@ -0,0 +1,19 @@
+package rockets.dataaccess;
+
+import rockets.model.Entity;
+
+/**
+ * Receives the entities written through a {@link DAO}.
+ */
+public interface DAOListener {
+    /**
+     * Called after an entity has been created or updated, including entities
+     * saved as part of a cascade.
+     */
+    void onSaved(Entity entity);
+
+    /**
+     * Called after an entity has been deleted.
+     */
+    void onDeleted(Entity entity);
+}
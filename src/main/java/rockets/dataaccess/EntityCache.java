@@ -0,0 +1,58 @@
+package rockets.dataaccess;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded cache of loaded entities, kept in front of a DAO by a {@link CachingDAO}.
+ * Implementations must be thread-safe.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the cached values.
+ */
+public interface EntityCache<K, V> {
+    /**
+     * @return the value cached for the key, or null if there is none or it has
+     * expired. Counts as a hit or a miss.
+     */
+    V get(K key);
+
+    void put(K key, V value);
+
+    /**
+     * @return the value removed, or null if there was none.
+     */
+    V remove(K key);
+
+    /**
+     * Calls the action with every entry, without counting lookups or changing
+     * which entries are least recently used.
+     */
+    void forEach(BiConsumer<? super K, ? super V> action);
+
+    void clear();
+
+    int size();
+
+    long getHits();
+
+    long getMisses();
+
+    /**
+     * @return the number of entries dropped to keep the cache within its maximum size.
+     */
+    long getEvictions();
+
+    /**
+     * @return the number of entries dropped because they outlived their time to live.
+     */
+    long getExpirations();
+
+    /**
+     * @return the share of lookups that were hits, or 0 before the first lookup.
+     */
+    default double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return 0 == lookups ? 0 : (double) hits / lookups;
+    }
+}
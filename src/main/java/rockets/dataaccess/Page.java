@@ -0,0 +1,43 @@
+package rockets.dataaccess;
+
+import rockets.model.Entity;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of entities loaded with {@link DAO#loadPage}, ordered by id, together
+ * with the cursor to pass to load the next page.
+ *
+ * @param <T> the type of the entities
+ */
+public class Page<T extends Entity> {
+    private final List<T> entities;
+
+    private final Long nextCursor;
+
+    public Page(List<T> entities, Long nextCursor) {
+        this.entities = Collections.unmodifiableList(entities);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the cursor of the next page, or null if this is the last page.
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return null != nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return entities + (hasNext() ? " next=" + nextCursor : "");
+    }
+}
@@ -0,0 +1,46 @@
+package rockets.dataaccess;
+
+import java.util.Objects;
+
+/**
+ * A key ranked by a DAO-side aggregation, together with its score.
+ *
+ * @param <K> the type of the key, e.g. an entity id or a country
+ */
+public class Score<K> {
+    private final K key;
+
+    private final double score;
+
+    public Score(K key, double score) {
+        this.key = key;
+        this.score = score;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Score<?> that = (Score<?>) o;
+        return Double.compare(that.score, score) == 0 &&
+                Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, score);
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + score;
+    }
+}
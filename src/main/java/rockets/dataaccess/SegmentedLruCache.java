@@ -0,0 +1,182 @@
+package rockets.dataaccess;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * An {@link EntityCache} that keeps its entries in two least recently used
+ * segments: new entries go into a probation segment, and entries hit again are
+ * promoted to a protected segment of about four fifths of the cache. Entries
+ * pushed out of the protected segment go back to probation, and only entries
+ * leaving probation are evicted, so a burst of entries read once, such as a
+ * scan, cannot push out the entries that are read over and over.
+ * <p>
+ * Every entry also expires once it has been in the cache for the time to live,
+ * which bounds how long it can be served after a write that the cache did not
+ * see.
+ */
+public class SegmentedLruCache<K, V> implements EntityCache<K, V> {
+    private final int maximumSize;
+
+    private final int protectedSize;
+
+    private final long timeToLiveNanos;
+
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<K, Node<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long expirations;
+
+    public SegmentedLruCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::nanoTime);
+    }
+
+    /**
+     * @param ticker the current time in nanoseconds.
+     */
+    SegmentedLruCache(int maximumSize, Duration timeToLive, LongSupplier ticker) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size cannot be less than 1");
+        }
+        notNull(timeToLive, "Time to live cannot be null");
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        notNull(ticker, "Ticker cannot be null");
+        this.maximumSize = maximumSize;
+        this.protectedSize = maximumSize * 4 / 5;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.ticker = ticker;
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        Node<V> node = protectedSegment.get(key);
+        boolean onProbation = false;
+        if (null == node) {
+            node = probation.get(key);
+            onProbation = true;
+        }
+        if (null == node) {
+            misses++;
+            return null;
+        }
+        if (ticker.getAsLong() - node.created >= timeToLiveNanos) {
+            (onProbation ? probation : protectedSegment).remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        if (onProbation && protectedSize > 0) {
+            probation.remove(key);
+            protectedSegment.put(key, node);
+            if (protectedSegment.size() > protectedSize) {
+                Map.Entry<K, Node<V>> demoted = eldest(protectedSegment);
+                protectedSegment.remove(demoted.getKey());
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        hits++;
+        return node.value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        notNull(value, "Value cannot be null");
+        Node<V> node = new Node<>(value, ticker.getAsLong());
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, node);
+            return;
+        }
+        probation.put(key, node);
+        while (probation.size() + protectedSegment.size() > maximumSize) {
+            LinkedHashMap<K, Node<V>> segment = probation.isEmpty() ? protectedSegment : probation;
+            segment.remove(eldest(segment).getKey());
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized V remove(K key) {
+        Node<V> node = probation.remove(key);
+        if (null == node) {
+            node = protectedSegment.remove(key);
+        }
+        return null == node ? null : node.value;
+    }
+
+    @Override
+    public synchronized void forEach(BiConsumer<? super K, ? super V> action) {
+        probation.forEach((key, node) -> action.accept(key, node.value));
+        protectedSegment.forEach((key, node) -> action.accept(key, node.value));
+    }
+
+    @Override
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    @Override
+    public synchronized double getHitRate() {
+        return EntityCache.super.getHitRate();
+    }
+
+    private static <K, V> Map.Entry<K, V> eldest(LinkedHashMap<K, V> segment) {
+        return segment.entrySet().iterator().next();
+    }
+
+    private static class Node<V> {
+        private final V value;
+
+        private final long created;
+
+        private Node(V value, long created) {
+            this.value = value;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package rockets.dataaccess;
+
+import rockets.model.Entity;
+
+import java.util.Collection;
+
+/**
+ * Collects the writes of a {@link DAO#inTransaction unit of work} and flushes
+ * them together, in a single transaction, when the work is done.
+ * <p>
+ * Entities registered with {@link #createOrUpdate(Entity)} are saved with every
+ * entity they reach, each once, however often they are registered. Reads go to
+ * the database directly, so they do not see the writes of the unit yet.
+ */
+public interface UnitOfWork {
+    /**
+     * Registers the entity to be created or updated when the unit is flushed.
+     *
+     * @return the entity, without an id until it is flushed if it is new.
+     */
+    <T extends Entity> T createOrUpdate(T entity);
+
+    /**
+     * Registers the entity to be deleted when the unit is flushed; it is then
+     * no longer saved, even if registered with {@link #createOrUpdate(Entity)}.
+     */
+    <T extends Entity> void delete(T entity);
+
+    <T extends Entity> T load(Class<T> clazz, Long id);
+
+    <T extends Entity> Collection<T> loadAll(Class<T> clazz);
+}
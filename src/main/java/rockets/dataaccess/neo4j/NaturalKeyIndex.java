@@ -0,0 +1,130 @@
+package rockets.dataaccess.neo4j;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maps the natural keys of entities saved or loaded through the DAO to their
+ * ids, so that upserting them again needs no lookup query.
+ * <p>
+ * The map keeps the most recently used {@code capacity} keys. Behind it, a Bloom
+ * filter holds every natural key of a class once the class is {@link #complete
+ * completed} with the keys in the database: a key the filter has not seen then
+ * belongs to no entity, again without a query. This holds as long as the
+ * database is only written through the DAO; keys of deleted entities stay in the
+ * filter, which only costs a query. Past {@code expectedKeys} keys, the filter
+ * gives more false positives, which also only cost queries.
+ */
+final class NaturalKeyIndex {
+    static final int DEFAULT_CAPACITY = 100_000;
+
+    static final int DEFAULT_EXPECTED_KEYS = 1_000_000;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    // keys are compared as strings, so that e.g. years read back as longs match ints
+    private static final Funnel<List<Object>> FUNNEL = (key, sink) ->
+            sink.putString(key.get(0) + "" + new TreeMap<>((Map<?, ?>) key.get(1)), StandardCharsets.UTF_8);
+
+    private final int capacity;
+
+    private final int expectedKeys;
+
+    // in least recently used order
+    private final LinkedHashMap<List<Object>, Long> ids = new LinkedHashMap<>(16, 0.75f, true);
+
+    // the key of every id in the map, to forget keys that changed
+    private final Map<Long, List<Object>> keys = new HashMap<>();
+
+    private final Set<Class<?>> completed = new HashSet<>();
+
+    private BloomFilter<List<Object>> filter;
+
+    NaturalKeyIndex() {
+        this(DEFAULT_CAPACITY, DEFAULT_EXPECTED_KEYS);
+    }
+
+    NaturalKeyIndex(int capacity, int expectedKeys) {
+        if (capacity < 1 || expectedKeys < 1) {
+            throw new IllegalArgumentException("Capacity and expected keys must be positive");
+        }
+        this.capacity = capacity;
+        this.expectedKeys = expectedKeys;
+        filter = BloomFilter.create(FUNNEL, expectedKeys, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @return the id of the entity with the natural key, or null if it is not in the map.
+     */
+    synchronized Long get(Class<?> clazz, Map<String, Object> naturalKey) {
+        return ids.get(key(clazz, naturalKey));
+    }
+
+    /**
+     * @return false only if the class is completed and no entity of it has the natural key.
+     */
+    synchronized boolean mightExist(Class<?> clazz, Map<String, Object> naturalKey) {
+        return !completed.contains(clazz) || filter.mightContain(key(clazz, naturalKey));
+    }
+
+    synchronized boolean isComplete(Class<?> clazz) {
+        return completed.contains(clazz);
+    }
+
+    /**
+     * Adds the natural keys of all entities of the class in the database to the filter.
+     */
+    synchronized void complete(Class<?> clazz, Iterable<Map<String, Object>> naturalKeys) {
+        for (Map<String, Object> naturalKey : naturalKeys) {
+            filter.put(key(clazz, naturalKey));
+        }
+        completed.add(clazz);
+    }
+
+    synchronized void put(Class<?> clazz, Map<String, Object> naturalKey, Long id) {
+        List<Object> key = key(clazz, naturalKey);
+        List<Object> previous = keys.put(id, key);
+        if (null != previous && !previous.equals(key)) {
+            ids.remove(previous);
+        }
+        ids.put(key, id);
+        if (ids.size() > capacity) {
+            Map.Entry<List<Object>, Long> eldest = ids.entrySet().iterator().next();
+            ids.remove(eldest.getKey());
+            keys.remove(eldest.getValue());
+        }
+        filter.put(key);
+    }
+
+    synchronized void remove(Long id) {
+        List<Object> key = keys.remove(id);
+        if (null != key) {
+            ids.remove(key);
+        }
+    }
+
+    synchronized void clear() {
+        ids.clear();
+        keys.clear();
+        completed.clear();
+        filter = BloomFilter.create(FUNNEL, expectedKeys, FALSE_POSITIVE_RATE);
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+
+    private static List<Object> key(Class<?> clazz, Map<String, Object> naturalKey) {
+        return Arrays.asList(clazz.getSimpleName(), naturalKey);
+    }
+}
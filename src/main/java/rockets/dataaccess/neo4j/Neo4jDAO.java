@@ -1,39 +1,125 @@
 package rockets.dataaccess.neo4j;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.neo4j.ogm.config.Configuration;
 import org.neo4j.ogm.cypher.Filter;
 import org.neo4j.ogm.cypher.Filters;
 import org.neo4j.ogm.drivers.embedded.driver.EmbeddedDriver;
+import org.neo4j.ogm.metadata.ClassInfo;
+import org.neo4j.ogm.metadata.FieldInfo;
+import org.neo4j.ogm.session.Neo4jSession;
 import org.neo4j.ogm.session.Session;
 import org.neo4j.ogm.session.SessionFactory;
+import org.neo4j.ogm.session.Utils;
 import org.neo4j.ogm.transaction.Transaction;
+import org.neo4j.ogm.typeconversion.AttributeConverter;
+import rockets.dataaccess.AggregatingDAO;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.DAOListener;
+import rockets.dataaccess.Page;
+import rockets.dataaccess.Score;
+import rockets.dataaccess.UnitOfWork;
 import rockets.model.Entity;
 import rockets.model.Launch;
 import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
 import rockets.model.Rocket;
 import rockets.model.User;
 
 import java.io.File;
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static org.apache.commons.lang3.Validate.notNull;
 import static org.neo4j.ogm.cypher.ComparisonOperator.EQUALS;
 
-public class Neo4jDAO implements DAO {
-    private static final int DEPTH_ENTITY = 1;
+public class Neo4jDAO implements DAO, AggregatingDAO {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
 
-    private Session session;
+    // natural keys are matched with the same fields as findExistingEntity, null matching null
+    private static final String MATCH_LAUNCH_SERVICE_PROVIDERS = "MATCH (e:LaunchServiceProvider) " +
+            "WHERE e.name = key.name AND e.yearFounded = key.yearFounded AND e.country = key.country";
+
+    private static final String MATCH_ROCKETS = "MATCH (e:Rocket) " +
+            "WHERE e.name = key.name AND e.country = key.country";
+
+    private static final String MATCH_LAUNCHES = "MATCH (r:Rocket)-[:LAUNCHES]->(e:Launch) " +
+            "WHERE r.name = key.rocketName AND r.country = key.rocketCountry " +
+            "AND (e.launchDate = key.launchDate OR e.launchDate IS NULL AND key.launchDate IS NULL) " +
+            "AND (e.launchSite = key.launchSite OR e.launchSite IS NULL AND key.launchSite IS NULL) " +
+            "AND (e.launchOutcome = key.launchOutcome OR e.launchOutcome IS NULL AND key.launchOutcome IS NULL)";
+
+    private static final String MATCH_USERS = "MATCH (e:User) WHERE e.email = key.email";
+
+    // the natural keys of all entities of a class, named like in naturalKey
+    private static final Map<Class<?>, String> NATURAL_KEYS = new HashMap<>();
+
+    static {
+        NATURAL_KEYS.put(LaunchServiceProvider.class, "MATCH (e:LaunchServiceProvider) " +
+                "RETURN e.name AS name, e.yearFounded AS yearFounded, e.country AS country");
+        NATURAL_KEYS.put(Rocket.class, "MATCH (e:Rocket) RETURN e.name AS name, e.country AS country");
+        NATURAL_KEYS.put(Launch.class, "MATCH (r:Rocket)-[:LAUNCHES]->(e:Launch) " +
+                "RETURN r.name AS rocketName, r.country AS rocketCountry, " +
+                "e.launchDate AS launchDate, e.launchSite AS launchSite, e.launchOutcome AS launchOutcome");
+        NATURAL_KEYS.put(User.class, "MATCH (e:User) WHERE exists(e.email) RETURN e.email AS email");
+    }
+
+    private final SessionPool sessions;
     private SessionFactory sessionFactory;
 
+    private final List<DAOListener> listeners = new CopyOnWriteArrayList<>();
+
+    // bumped after each write is committed, so no reader sees the new version with the old data
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    private final NaturalKeyIndex naturalKeys = new NaturalKeyIndex();
+
     public Neo4jDAO(SessionFactory sessionFactory) {
+        this(sessionFactory, SessionPool.DEFAULT_SIZE);
+    }
+
+    /**
+     * @param sessions the most sessions opened, and so the most threads using the DAO at once
+     */
+    public Neo4jDAO(SessionFactory sessionFactory, int sessions) {
         this.sessionFactory = sessionFactory;
-        if (null == session) {
-            session = sessionFactory.openSession();
-        }
+        this.sessions = new SessionPool(sessionFactory, sessions, dataVersion::get);
     }
 
     public Neo4jDAO(String dbAddress) {
+        this(embeddedSessionFactory(dbAddress));
+    }
+
+    /**
+     * Creates a DAO that uses only the given session, one thread at a time.
+     */
+    public Neo4jDAO(Session session) {
+        this.sessions = new SessionPool(session, dataVersion::get);
+    }
+
+    private static SessionFactory embeddedSessionFactory(String dbAddress) {
         File file = new File(dbAddress);
         Configuration configuration = new Configuration.Builder()
                 //.uri(neoServer.boltURI().toString()) // For Bolt
@@ -43,33 +129,65 @@ public class Neo4jDAO implements DAO {
         EmbeddedDriver driver = new EmbeddedDriver();
         driver.configure(configuration);
 
-        sessionFactory = new SessionFactory(driver, User.class.getPackage().getName());
-        session = sessionFactory.openSession();
+        return new SessionFactory(driver, User.class.getPackage().getName());
     }
 
-
-    public Neo4jDAO(Session session) {
-        this.session = session;
+    /**
+     * @return the session held by the current thread, inside a public method.
+     */
+    private Session session() {
+        return sessions.current();
     }
 
     @Override
     public <T extends Entity> T load(Class<T> clazz, Long id) {
-        return session.load(clazz, id, DEPTH_ENTITY);
+        return load(clazz, id, DEPTH_RELATED);
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id, int depth) {
+        checkDepth(depth);
+        sessions.acquire();
+        try {
+            T entity = session().load(clazz, id, depth);
+            if (null != entity) {
+                remember(entity);
+            }
+            return entity;
+        } finally {
+            sessions.release();
+        }
     }
 
     @Override
     public <T extends Entity> T createOrUpdate(T entity) {
-        Class clazz = entity.getClass();
+        sessions.acquire();
+        try {
+            Class clazz = entity.getClass();
 
-        T existingEntity = findExistingEntity(entity, clazz);
-        if (null != existingEntity) {
-            entity.setId(existingEntity.getId());
+            completeNaturalKeys();
+            Long existingId = findExistingId(entity, clazz);
+            if (null != existingId) {
+                entity.setId(existingId);
+            }
+            // saved before the transaction, since OGM leaves a transaction open when a
+            // lookup runs inside a nested one
+            saveOutgoingEntities(entity, clazz);
+            Transaction tx = session().beginTransaction();
+            session().save(entity);
+            tx.commit();
+            // the save cascades to every reachable entity, which all have ids now
+            Cascade saved = new Cascade();
+            saved.add(entity);
+            saved.forEach(this::remember);
+            committed();
+            for (DAOListener listener : listeners) {
+                listener.onSaved(entity);
+            }
+            return entity;
+        } finally {
+            sessions.release();
         }
-        Transaction tx = session.beginTransaction();
-        saveOutgoingEntities(entity, clazz);
-        session.save(entity);
-        tx.commit();
-        return entity;
     }
 
     // Makes sure we save associated entities correctly (only once)
@@ -87,6 +205,58 @@ public class Neo4jDAO implements DAO {
         }
     }
 
+    /**
+     * @return the id of the entity with the same natural key, looked up in the
+     * natural key index before querying, or null if there is none.
+     */
+    private Long findExistingId(Entity entity, Class<?> clazz) {
+        Map<String, Object> key = naturalKey(entity);
+        if (null != key) {
+            Long id = naturalKeys.get(clazz, key);
+            if (null != id) {
+                return id;
+            }
+            if (!naturalKeys.mightExist(clazz, key)) {
+                return null;
+            }
+        }
+        Entity existingEntity = findExistingEntity(entity, clazz);
+        if (null == existingEntity) {
+            return null;
+        }
+        if (null != key) {
+            naturalKeys.put(clazz, key, existingEntity.getId());
+        }
+        return existingEntity.getId();
+    }
+
+    /**
+     * Adds the natural keys of all entities in the database to the index the
+     * first time it is called.
+     */
+    private void completeNaturalKeys() {
+        for (Map.Entry<Class<?>, String> keys : NATURAL_KEYS.entrySet()) {
+            if (!naturalKeys.isComplete(keys.getKey())) {
+                naturalKeys.complete(keys.getKey(), session().query(keys.getValue(), Collections.emptyMap()));
+            }
+        }
+    }
+
+    private void remember(Entity entity) {
+        Map<String, Object> key = naturalKey(entity);
+        if (null != entity.getId() && null != key) {
+            naturalKeys.put(entity.getClass(), key, entity.getId());
+        }
+    }
+
+    /**
+     * Forgets the natural keys of saved and loaded entities; to be called after
+     * the database is written other than through this DAO.
+     */
+    public void clearNaturalKeys() {
+        naturalKeys.clear();
+    }
+
     private <T extends Entity> T findExistingEntity(Entity entity, Class clazz) {
         Entity existingEntity = null;
         Filters filters = new Filters();
@@ -95,24 +265,24 @@ public class Neo4jDAO implements DAO {
             Rocket rocket = (Rocket) entity;
             filters.add(new Filter("name", EQUALS, rocket.getName()))
                     .and(new Filter("country", EQUALS, rocket.getCountry()));
-            collection = session.loadAll(Rocket.class, filters);
+            collection = session().loadAll(Rocket.class, filters);
         } else if (clazz.equals(User.class)) {
             User user = (User) entity;
             filters.add(new Filter("email", EQUALS, user.getEmail()));
-            collection = session.loadAll(User.class, filters);
+            collection = session().loadAll(User.class, filters);
         } else if (clazz.equals(Launch.class)) {
             Launch launch = (Launch) entity;
             filters.add(new Filter("launchDate", EQUALS, launch.getLaunchDate()))
                     .and(new Filter("launchVehicle", EQUALS, launch.getLaunchVehicle()))
                     .and(new Filter("launchSite", EQUALS, launch.getLaunchSite()))
                     .and(new Filter("launchOutcome", EQUALS, launch.getLaunchOutcome()));
-            collection = session.loadAll(Launch.class, filters);
+            collection = session().loadAll(Launch.class, filters);
         } else if (clazz.equals(LaunchServiceProvider.class)) {
             LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
             filters.add(new Filter("name", EQUALS, lsp.getName()))
                     .and(new Filter("yearFounded", EQUALS, lsp.getYearFounded()))
                     .and(new Filter("country", EQUALS, lsp.getCountry()));
-            collection = session.loadAll(LaunchServiceProvider.class, filters);
+            collection = session().loadAll(LaunchServiceProvider.class, filters);
         }
         if (!collection.isEmpty()) {
             existingEntity = collection.iterator().next();
@@ -120,24 +290,587 @@ public class Neo4jDAO implements DAO {
         return (T) existingEntity;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the most entities {@link #createOrUpdateAll(Collection)} writes per transaction
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Saves the entities and every entity they reach in three steps: the ids of
+     * existing entities are resolved by natural key with one query per batch,
+     * then the new entities are created as nodes, and finally all entities are
+     * saved with their relationships. Entities sharing a natural key are saved as
+     * one node; the duplicates get its id, and their relationships are added to
+     * the entity saved in their place. Each step writes at most
+     * {@link #getBatchSize()} entities per transaction.
+     * <p>
+     * A failed batch is rolled back, but the batches committed before it stay
+     * written: new entities may then exist as nodes without their relationships
+     * until they are saved again. Use {@link #inTransaction(Function)} to write
+     * all or nothing.
+     */
+    @Override
+    public <T extends Entity> Collection<T> createOrUpdateAll(Collection<T> entities) {
+        notNull(entities, "Entities cannot be null");
+        for (T entity : entities) {
+            notNull(entity, "Entity cannot be null");
+        }
+        sessions.acquire();
+        try {
+            Plan plan = plan(entities);
+            for (List<Entity> batch : Lists.partition(plan.created, batchSize)) {
+                commit(batch, DEPTH_PROPERTIES);
+            }
+            plan.mergeDuplicates();
+            for (List<Entity> batch : Lists.partition(plan.unique, batchSize)) {
+                commit(batch, DEPTH_RELATED);
+                notifySaved(batch);
+            }
+            notifySaved(plan.duplicates.keySet());
+            plan.saved().forEach(this::remember);
+            return entities;
+        } finally {
+            sessions.release();
+        }
+    }
+
+    /**
+     * Writes the entities registered by the work in a single transaction, the
+     * way {@link #createOrUpdateAll(Collection)} writes them, and then deletes
+     * the entities registered for deletion. The data version is bumped once.
+     */
+    @Override
+    public <R> R inTransaction(Function<UnitOfWork, R> work) {
+        notNull(work, "Work cannot be null");
+        sessions.acquire();
+        try {
+            Neo4jUnitOfWork unit = new Neo4jUnitOfWork();
+            R result = work.apply(unit);
+            unit.flush();
+            return result;
+        } finally {
+            sessions.release();
+        }
+    }
+
+    /**
+     * Collects every entity reached from the given ones and resolves the ids of
+     * those that already exist, without writing anything.
+     */
+    private Plan plan(Collection<? extends Entity> entities) {
+        completeNaturalKeys();
+        Cascade cascade = new Cascade();
+        entities.forEach(cascade::add);
+
+        Plan plan = new Plan();
+        plan.unique.addAll(resolve(LaunchServiceProvider.class, cascade.lsps, MATCH_LAUNCH_SERVICE_PROVIDERS,
+                Neo4jDAO::naturalKey, plan.duplicates));
+        plan.unique.addAll(resolve(Rocket.class, cascade.rockets, MATCH_ROCKETS, Neo4jDAO::naturalKey, plan.duplicates));
+        plan.unique.addAll(resolve(Launch.class, cascade.launches, MATCH_LAUNCHES, Neo4jDAO::naturalKey, plan.duplicates));
+        plan.unique.addAll(resolve(User.class, cascade.users, MATCH_USERS, Neo4jDAO::naturalKey, plan.duplicates));
+        plan.unique.addAll(cascade.others);
+        for (Entity entity : plan.unique) {
+            if (null == entity.getId()) {
+                plan.created.add(entity);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Sets the ids of the entities that already exist, matched by natural key in
+     * the natural key index or else with one query per batch, and sets aside
+     * entities whose natural key is the same as an earlier one's.
+     *
+     * @return the entities that are not duplicates.
+     */
+    private <E extends Entity> List<E> resolve(Class<E> clazz, List<E> entities, String match,
+                                               Function<E, Map<String, Object>> naturalKey,
+                                               Map<Entity, Entity> duplicates) {
+        Map<Map<String, Object>, E> byKey = new HashMap<>();
+        Map<E, Entity> found = new IdentityHashMap<>();
+        List<E> unique = new ArrayList<>();
+        List<E> keyed = new ArrayList<>();
+        for (E entity : entities) {
+            Map<String, Object> key = naturalKey.apply(entity);
+            if (null == key) {
+                unique.add(entity);
+                continue;
+            }
+            E existing = byKey.putIfAbsent(key, entity);
+            if (null == existing) {
+                unique.add(entity);
+                Long id = naturalKeys.get(clazz, key);
+                if (null != id) {
+                    entity.setId(id);
+                } else if (naturalKeys.mightExist(clazz, key)) {
+                    keyed.add(entity);
+                }
+            } else {
+                duplicates.put(entity, existing);
+                found.put(entity, existing);
+            }
+        }
+        for (List<E> batch : Lists.partition(keyed, batchSize)) {
+            List<Map<String, Object>> keys = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Map<String, Object> key = new HashMap<>(naturalKey.apply(batch.get(i)));
+                key.put("index", i);
+                keys.add(key);
+            }
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("keys", keys);
+            for (Map<String, Object> row : session().query("UNWIND $keys AS key " + match + " " +
+                    "RETURN key.index AS index, min(id(e)) AS id", parameters)) {
+                E entity = batch.get(((Number) row.get("index")).intValue());
+                entity.setId(((Number) row.get("id")).longValue());
+                naturalKeys.put(clazz, naturalKey.apply(entity), entity.getId());
+            }
+        }
+        // duplicates of existing entities already get their ids here, for the natural keys of later classes
+        found.forEach((duplicate, entity) -> duplicate.setId(entity.getId()));
+        return unique;
+    }
+
+    private void commit(List<Entity> batch, int depth) {
+        Transaction tx = session().beginTransaction();
+        try {
+            session().save(batch, depth);
+            tx.commit();
+        } catch (RuntimeException e) {
+            // transactions are bound to the thread, so one left open would be joined by its next call
+            tx.rollback();
+            throw e;
+        }
+        committed();
+    }
+
+    /**
+     * Moves the data version on after a write through the session of this thread
+     * was committed.
+     */
+    private void committed() {
+        sessions.written();
+        dataVersion.incrementAndGet();
+    }
+
+    private void notifySaved(Collection<Entity> entities) {
+        for (Entity entity : entities) {
+            for (DAOListener listener : listeners) {
+                listener.onSaved(entity);
+            }
+        }
+    }
+
+    private static Map<String, Object> naturalKey(Entity entity) {
+        if (entity instanceof LaunchServiceProvider) {
+            return naturalKey((LaunchServiceProvider) entity);
+        } else if (entity instanceof Rocket) {
+            return naturalKey((Rocket) entity);
+        } else if (entity instanceof Launch) {
+            return naturalKey((Launch) entity);
+        } else if (entity instanceof User) {
+            return naturalKey((User) entity);
+        }
+        return null;
+    }
+
+    private static Map<String, Object> naturalKey(LaunchServiceProvider lsp) {
+        Map<String, Object> key = new HashMap<>();
+        key.put("name", lsp.getName());
+        key.put("yearFounded", lsp.getYearFounded());
+        key.put("country", lsp.getCountry());
+        return key;
+    }
+
+    private static Map<String, Object> naturalKey(Rocket rocket) {
+        Map<String, Object> key = new HashMap<>();
+        key.put("name", rocket.getName());
+        key.put("country", rocket.getCountry());
+        return key;
+    }
+
+    private static Map<String, Object> naturalKey(Launch launch) {
+        Rocket rocket = launch.getLaunchVehicle();
+        if (null == rocket) {
+            return null;
+        }
+        Map<String, Object> key = new HashMap<>();
+        key.put("rocketName", rocket.getName());
+        key.put("rocketCountry", rocket.getCountry());
+        // launch dates and outcomes are stored as strings
+        key.put("launchDate", null == launch.getLaunchDate() ? null : launch.getLaunchDate().toString());
+        key.put("launchSite", launch.getLaunchSite());
+        key.put("launchOutcome", null == launch.getLaunchOutcome() ? null : launch.getLaunchOutcome().name());
+        return key;
+    }
+
+    private static Map<String, Object> naturalKey(User user) {
+        return null == user.getEmail() ? null : Collections.singletonMap("email", user.getEmail());
+    }
+
     @Override
     public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
-        return session.loadAll(clazz);
+        return loadAll(clazz, DEPTH_RELATED);
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz, int depth) {
+        checkDepth(depth);
+        sessions.acquire();
+        try {
+            Collection<T> entities = session().loadAll(clazz, depth);
+            entities.forEach(this::remember);
+            return entities;
+        } finally {
+            sessions.release();
+        }
+    }
+
+    /**
+     * Returns the properties as the entities would hold them, converted from
+     * how they are stored, e.g. launch dates from strings.
+     */
+    @Override
+    public <T extends Entity> List<Map<String, Object>> loadProperties(Class<T> clazz, String... properties) {
+        notNull(clazz, "Class cannot be null");
+        notNull(properties, "Properties cannot be null");
+        sessions.acquire();
+        try {
+            ClassInfo classInfo = ((Neo4jSession) session()).metaData().classInfo(clazz.getName());
+            List<FieldInfo> fields = new ArrayList<>();
+            StringBuilder cypher = new StringBuilder("MATCH (e:" + clazz.getSimpleName() + ") RETURN id(e) AS id");
+            for (String property : properties) {
+                FieldInfo field = null == property ? null : classInfo.propertyFieldByName(property);
+                if (null == field) {
+                    throw new IllegalArgumentException("No property " + property + " in " + clazz.getSimpleName());
+                }
+                cypher.append(", e.`").append(field.property()).append("` AS p").append(fields.size());
+                fields.add(field);
+            }
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Map<String, Object> row : session().query(cypher.append(" ORDER BY id").toString(), Collections.emptyMap())) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("id", ((Number) row.get("id")).longValue());
+                for (int i = 0; i < fields.size(); i++) {
+                    FieldInfo field = fields.get(i);
+                    Object value = row.get("p" + i);
+                    if (null != value) {
+                        value = field.hasPropertyConverter() ? toEntityAttribute(field, value)
+                                : Utils.coerceTypes(field.type(), value);
+                    }
+                    values.put(field.getName(), value);
+                }
+                rows.add(values);
+            }
+            return rows;
+        } finally {
+            sessions.release();
+        }
+    }
+
+    @Override
+    public <T extends Entity> Page<T> loadPage(Class<T> clazz, Long cursor, int limit) {
+        return loadPage(clazz, cursor, limit, DEPTH_RELATED);
+    }
+
+    @Override
+    public <T extends Entity> Page<T> loadPage(Class<T> clazz, Long cursor, int limit, int depth) {
+        notNull(clazz, "Class cannot be null");
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        checkDepth(depth);
+        sessions.acquire();
+        try {
+            return loadPage(session(), clazz, cursor, limit, depth);
+        } finally {
+            sessions.release();
+        }
+    }
+
+    /**
+     * Streams the entities page by page. When the DAO has a session factory,
+     * the pages are loaded into a session of their own, outside the pool,
+     * cleared before each page and when the stream is closed, so that no pooled
+     * session keeps every streamed entity.
+     */
+    @Override
+    public <T extends Entity> Stream<T> stream(Class<T> clazz, int batchSize) {
+        notNull(clazz, "Class cannot be null");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        Session pages = null == sessionFactory ? null : sessionFactory.openSession();
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL) {
+            private Iterator<T> page = Collections.emptyIterator();
+
+            private Long cursor;
+
+            private boolean last;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (!page.hasNext()) {
+                    if (last) {
+                        return false;
+                    }
+                    Page<T> next;
+                    if (null == pages) {
+                        next = loadPage(clazz, cursor, batchSize);
+                    } else {
+                        pages.clear();
+                        next = loadPage(pages, clazz, cursor, batchSize, DEPTH_RELATED);
+                    }
+                    page = next.getEntities().iterator();
+                    cursor = next.getNextCursor();
+                    last = !next.hasNext();
+                }
+                action.accept(page.next());
+                return true;
+            }
+        };
+        Stream<T> stream = StreamSupport.stream(spliterator, false);
+        return null == pages ? stream : stream.onClose(pages::clear);
+    }
+
+    private <T extends Entity> Page<T> loadPage(Session pages, Class<T> clazz, Long cursor, int limit, int depth) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("cursor", null == cursor ? -1L : cursor);
+        // one more id than the page holds tells whether another page follows
+        parameters.put("limit", limit + 1L);
+        List<Long> ids = new ArrayList<>();
+        // labels are the simple names of the classes
+        for (Map<String, Object> row : pages.query("MATCH (e:" + clazz.getSimpleName() + ") " +
+                "WHERE id(e) > $cursor RETURN id(e) AS id ORDER BY id LIMIT $limit", parameters)) {
+            ids.add(((Number) row.get("id")).longValue());
+        }
+        if (ids.isEmpty()) {
+            return new Page<>(Collections.emptyList(), null);
+        }
+        boolean more = ids.size() > limit;
+        if (more) {
+            ids.remove(limit);
+        }
+        List<T> entities = new ArrayList<>(pages.loadAll(clazz, ids, depth));
+        entities.sort(Comparator.comparing(Entity::getId));
+        entities.forEach(this::remember);
+        return new Page<>(entities, more ? ids.get(ids.size() - 1) : null);
+    }
+
+    // the converters of fields read graph values as Objects
+    @SuppressWarnings("unchecked")
+    private static Object toEntityAttribute(FieldInfo field, Object value) {
+        return ((AttributeConverter<?, Object>) field.getPropertyConverter()).toEntityAttribute(value);
+    }
+
+    // -1 loads everything reachable
+    private static void checkDepth(int depth) {
+        if (depth < -1) {
+            throw new IllegalArgumentException("Depth cannot be less than -1");
+        }
     }
 
     // TODO: need to be tested!
     public <T extends Entity> void delete(T entity) {
-        session.delete(entity);
+        sessions.acquire();
+        try {
+            if (null != entity.getId()) {
+                naturalKeys.remove(entity.getId());
+            }
+            session().delete(entity);
+            committed();
+            for (DAOListener listener : listeners) {
+                listener.onDeleted(entity);
+            }
+        } finally {
+            sessions.release();
+        }
     }
 
     @Override
     public User getUserByEmail(String email) {
-        Collection<User> users = session.loadAll(User.class, new Filter("email", EQUALS, email));
+        sessions.acquire();
+        try {
+            Collection<User> users = session().loadAll(User.class, new Filter("email", EQUALS, email));
 
-        if (null == users || users.isEmpty()) {
-            return null;
-        } else {
-            return users.iterator().next();
+            if (null == users || users.isEmpty()) {
+                return null;
+            } else {
+                User user = users.iterator().next();
+                remember(user);
+                return user;
+            }
+        } finally {
+            sessions.release();
+        }
+    }
+
+    @Override
+    public void addListener(DAOListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(DAOListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    @Override
+    public boolean isAggregationSupported() {
+        return true;
+    }
+
+    @Override
+    public List<Score<Long>> mostLaunchedRocketIds(int k) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("k", k);
+        return scores(Long.class, "MATCH (r:Rocket)-[:LAUNCHES]->(l:Launch {launchOutcome: 'SUCCESSFUL'}) " +
+                "RETURN id(r) AS key, count(l) AS score " +
+                "ORDER BY score DESC, key LIMIT $k", parameters);
+    }
+
+    @Override
+    public List<Score<Long>> launchServiceProviderIdsByOutcomeRate(int k, Launch.LaunchOutcome outcome) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("k", k);
+        parameters.put("outcome", outcome.name());
+        return scores(Long.class, "MATCH (l:Launch)-[:PROVIDES]->(p:LaunchServiceProvider) " +
+                "WITH p, count(l) AS launches, sum(CASE WHEN l.launchOutcome = $outcome THEN 1 ELSE 0 END) AS matching " +
+                "RETURN id(p) AS key, toFloat(matching) / launches AS score " +
+                "ORDER BY score DESC, key LIMIT $k", parameters);
+    }
+
+    @Override
+    public List<Score<Long>> highestRevenueLaunchServiceProviderIds(int k, int year) {
+        sessions.acquire();
+        try {
+            Map<String, Object> parameters = new HashMap<>();
+            // launch dates are stored as ISO-8601 strings
+            parameters.put("year", String.format("%04d-", year));
+            // prices are summed here, since the database could only sum them as doubles
+            Map<Long, Money> revenue = new HashMap<>();
+            for (Map<String, Object> row : session().query("MATCH (l:Launch)-[:PROVIDES]->(p:LaunchServiceProvider) " +
+                    "WHERE l.launchDate STARTS WITH $year AND exists(l.price) " +
+                    "RETURN id(p) AS key, l.price AS price", parameters)) {
+                revenue.merge(((Number) row.get("key")).longValue(), Money.of(price(row)), Money::add);
+            }
+            List<Map.Entry<Long, Money>> ranked = new ArrayList<>(revenue.entrySet());
+            ranked.sort(Map.Entry.<Long, Money>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            List<Score<Long>> scores = new ArrayList<>();
+            for (Map.Entry<Long, Money> entry : ranked.subList(0, Math.min(k, ranked.size()))) {
+                scores.add(new Score<>(entry.getKey(), entry.getValue().doubleValue()));
+            }
+            return scores;
+        } finally {
+            sessions.release();
+        }
+    }
+
+    @Override
+    public List<Score<String>> dominantCountries(String orbit, int k) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("k", k);
+        parameters.put("orbit", orbit);
+        return scores(String.class, "MATCH (l:Launch {launchOutcome: 'SUCCESSFUL', orbit: $orbit})-[:PROVIDES]->(p:LaunchServiceProvider) " +
+                "WHERE exists(p.country) " +
+                "RETURN p.country AS key, count(l) AS score " +
+                "ORDER BY score DESC, key LIMIT $k", parameters);
+    }
+
+    @Override
+    public List<Long> mostRecentLaunchIds(int k, Launch.LaunchOutcome outcome) {
+        return launchIds(k, outcome, "exists(l.launchDate)", "l.launchDate DESC");
+    }
+
+    @Override
+    public List<Long> launchIdsByPrice(int k, Launch.LaunchOutcome outcome, boolean mostExpensiveFirst) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        sessions.acquire();
+        try {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("skip", k - 1);
+            parameters.put("outcome", null == outcome ? null : outcome.name());
+            String match = "MATCH (l:Launch) WHERE exists(l.price) AND ($outcome IS NULL OR l.launchOutcome = $outcome) ";
+            // the database only compares prices as doubles, which may round them, so it
+            // only finds the k-th price as a double; the launches priced at least as well
+            // as a double are then ranked here exactly
+            Iterator<Map<String, Object>> kth = session().query(match +
+                    "RETURN toFloat(l.price) AS price ORDER BY price " + (mostExpensiveFirst ? "DESC " : "") +
+                    "SKIP $skip LIMIT 1", parameters).iterator();
+            parameters.put("bound", kth.hasNext() ? kth.next().get("price") : null);
+            List<Map.Entry<Long, BigDecimal>> candidates = new ArrayList<>();
+            for (Map<String, Object> row : session().query(match +
+                    "AND ($bound IS NULL OR toFloat(l.price) " + (mostExpensiveFirst ? ">=" : "<=") + " $bound) " +
+                    "RETURN id(l) AS id, l.price AS price", parameters)) {
+                candidates.add(new AbstractMap.SimpleImmutableEntry<>(((Number) row.get("id")).longValue(), price(row)));
+            }
+            Comparator<Map.Entry<Long, BigDecimal>> byPrice = Map.Entry.comparingByValue();
+            candidates.sort((mostExpensiveFirst ? byPrice.reversed() : byPrice).thenComparing(Map.Entry.comparingByKey()));
+            List<Long> ids = new ArrayList<>();
+            for (Map.Entry<Long, BigDecimal> candidate : candidates.subList(0, Math.min(k, candidates.size()))) {
+                ids.add(candidate.getKey());
+            }
+            return ids;
+        } finally {
+            sessions.release();
+        }
+    }
+
+    // prices are stored as the strings of their BigDecimals
+    private static BigDecimal price(Map<String, Object> row) {
+        return new BigDecimal(row.get("price").toString());
+    }
+
+    private List<Long> launchIds(int k, Launch.LaunchOutcome outcome, String condition, String order) {
+        sessions.acquire();
+        try {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("k", k);
+            parameters.put("outcome", null == outcome ? null : outcome.name());
+            List<Long> ids = new ArrayList<>();
+            for (Map<String, Object> row : session().query("MATCH (l:Launch) " +
+                    "WHERE " + condition + " AND ($outcome IS NULL OR l.launchOutcome = $outcome) " +
+                    "RETURN id(l) AS id ORDER BY " + order + ", id LIMIT $k", parameters)) {
+                ids.add(((Number) row.get("id")).longValue());
+            }
+            return ids;
+        } finally {
+            sessions.release();
+        }
+    }
+
+    private <K> List<Score<K>> scores(Class<K> keyClass, String cypher, Map<String, Object> parameters) {
+        sessions.acquire();
+        try {
+            List<Score<K>> scores = new ArrayList<>();
+            for (Map<String, Object> row : session().query(cypher, parameters)) {
+                Object key = row.get("key");
+                if (Long.class.equals(keyClass)) {
+                    key = ((Number) key).longValue();
+                }
+                scores.add(new Score<>(keyClass.cast(key), ((Number) row.get("score")).doubleValue()));
+            }
+            return scores;
+        } finally {
+            sessions.release();
         }
     }
 
@@ -145,6 +878,207 @@ public class Neo4jDAO implements DAO {
     public void close() {
         sessionFactory.close();
     }
+
+    /**
+     * The entities to save for a createOrUpdateAll or a unit of work: the new
+     * ones are created as nodes first, so that every reference saved with the
+     * others has an id.
+     */
+    private static class Plan {
+        private final List<Entity> unique = new ArrayList<>();
+
+        // duplicates, mapped to the entity with the same natural key that is saved instead
+        private final Map<Entity, Entity> duplicates = new IdentityHashMap<>();
+
+        private final List<Entity> created = new ArrayList<>();
+
+        /**
+         * Gives the duplicates the ids of the entities saved in their place and
+         * adds their relationships to those entities. The duplicates themselves
+         * are not saved: saved in a later batch, a duplicate would replace the
+         * relationships just written for the same node with its own.
+         */
+        private void mergeDuplicates() {
+            duplicates.forEach((duplicate, entity) -> {
+                duplicate.setId(entity.getId());
+                if (entity instanceof Rocket) {
+                    Rocket rocket = (Rocket) entity;
+                    Set<Launch> launches = ((Rocket) duplicate).getLaunches();
+                    if (null != launches && !launches.isEmpty()) {
+                        if (null == rocket.getLaunches()) {
+                            rocket.setLaunches(Sets.newLinkedHashSet());
+                        }
+                        rocket.getLaunches().addAll(launches);
+                    }
+                } else if (entity instanceof LaunchServiceProvider) {
+                    LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+                    Set<Rocket> rockets = ((LaunchServiceProvider) duplicate).getRockets();
+                    if (null != rockets && !rockets.isEmpty()) {
+                        if (null == lsp.getRockets()) {
+                            lsp.setRockets(Sets.newLinkedHashSet());
+                        }
+                        lsp.getRockets().addAll(rockets);
+                    }
+                }
+            });
+        }
+
+        private List<Entity> saved() {
+            List<Entity> saved = new ArrayList<>(unique);
+            saved.addAll(duplicates.keySet());
+            return saved;
+        }
+    }
+
+    private class Neo4jUnitOfWork implements UnitOfWork {
+        private final Set<Entity> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final List<Entity> registered = new ArrayList<>();
+
+        private final Set<Entity> deleted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private boolean flushed;
+
+        @Override
+        public <T extends Entity> T createOrUpdate(T entity) {
+            notNull(entity, "Entity cannot be null");
+            checkNotFlushed();
+            if (saved.add(entity)) {
+                registered.add(entity);
+            }
+            return entity;
+        }
+
+        @Override
+        public <T extends Entity> void delete(T entity) {
+            notNull(entity, "Entity cannot be null");
+            checkNotFlushed();
+            deleted.add(entity);
+        }
+
+        @Override
+        public <T extends Entity> T load(Class<T> clazz, Long id) {
+            return Neo4jDAO.this.load(clazz, id);
+        }
+
+        @Override
+        public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+            return Neo4jDAO.this.loadAll(clazz);
+        }
+
+        private void checkNotFlushed() {
+            if (flushed) {
+                throw new IllegalStateException("Unit of work is already flushed");
+            }
+        }
+
+        private void flush() {
+            flushed = true;
+            List<Entity> toSave = new ArrayList<>();
+            for (Entity entity : registered) {
+                if (!deleted.contains(entity)) {
+                    toSave.add(entity);
+                }
+            }
+            if (toSave.isEmpty() && deleted.isEmpty()) {
+                return;
+            }
+            // resolves ids before opening the transaction, like createOrUpdate
+            Plan plan = plan(toSave);
+            Transaction tx = session().beginTransaction();
+            try {
+                for (List<Entity> batch : Lists.partition(plan.created, batchSize)) {
+                    session().save(batch, DEPTH_PROPERTIES);
+                }
+                plan.mergeDuplicates();
+                for (List<Entity> batch : Lists.partition(plan.unique, batchSize)) {
+                    session().save(batch, DEPTH_RELATED);
+                }
+                for (Entity entity : deleted) {
+                    if (null != entity.getId()) {
+                        session().delete(entity);
+                    }
+                }
+                tx.commit();
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+            committed();
+
+            List<Entity> written = new ArrayList<>();
+            for (Entity entity : plan.saved()) {
+                if (!deleted.contains(entity)) {
+                    written.add(entity);
+                    remember(entity);
+                }
+            }
+            notifySaved(written);
+            for (Entity entity : deleted) {
+                if (null != entity.getId()) {
+                    naturalKeys.remove(entity.getId());
+                }
+                for (DAOListener listener : listeners) {
+                    listener.onDeleted(entity);
+                }
+            }
+        }
+    }
+
+    /**
+     * The entities reached from the saved ones, the way createOrUpdate cascades,
+     * each once.
+     */
+    private static class Cascade {
+        private final Set<Entity> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final List<LaunchServiceProvider> lsps = new ArrayList<>();
+
+        private final List<Rocket> rockets = new ArrayList<>();
+
+        private final List<Launch> launches = new ArrayList<>();
+
+        private final List<User> users = new ArrayList<>();
+
+        private final List<Entity> others = new ArrayList<>();
+
+        private void forEach(Consumer<Entity> action) {
+            lsps.forEach(action);
+            rockets.forEach(action);
+            launches.forEach(action);
+            users.forEach(action);
+            others.forEach(action);
+        }
+
+        private void add(Entity entity) {
+            if (null == entity || !visited.add(entity)) {
+                return;
+            }
+            if (entity instanceof LaunchServiceProvider) {
+                LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+                lsps.add(lsp);
+                if (null != lsp.getRockets()) {
+                    lsp.getRockets().forEach(this::add);
+                }
+            } else if (entity instanceof Rocket) {
+                Rocket rocket = (Rocket) entity;
+                rockets.add(rocket);
+                add(rocket.getManufacturer());
+                if (null != rocket.getLaunches()) {
+                    rocket.getLaunches().forEach(this::add);
+                }
+            } else if (entity instanceof Launch) {
+                Launch launch = (Launch) entity;
+                launches.add(launch);
+                add(launch.getLaunchVehicle());
+                add(launch.getLaunchServiceProvider());
+            } else if (entity instanceof User) {
+                users.add((User) entity);
+            } else {
+                others.add(entity);
+            }
+        }
+    }
 }
 
 
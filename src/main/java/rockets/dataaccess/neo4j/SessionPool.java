@@ -0,0 +1,166 @@
+package rockets.dataaccess.neo4j;
+
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.LongSupplier;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Lends OGM sessions, which are not thread-safe, to one thread at a time.
+ * <p>
+ * A thread {@link #acquire() acquires} a session for the length of a DAO call
+ * and gets the same session back when it acquires again before releasing, so
+ * nested calls share it. Sessions are opened as needed up to the size of the
+ * pool; beyond that, threads wait for one to be released. The session released
+ * last is lent first, so a single thread keeps using the same session and its
+ * mapping context.
+ * <p>
+ * A mapping context keeps relationships that were removed through other
+ * sessions, so a session is cleared before it is lent again if the data was
+ * {@link #written() written} other than through it since it was last lent.
+ * <p>
+ * OGM binds transactions to threads rather than sessions, so a transaction
+ * begun through the session of a thread stays with that thread.
+ */
+final class SessionPool {
+    static final int DEFAULT_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private final SessionFactory sessionFactory;
+
+    private final int size;
+
+    private final LongSupplier dataVersion;
+
+    private final Deque<Lease> idle = new ArrayDeque<>();
+
+    private int opened;
+
+    private final ThreadLocal<Lease> leases = new ThreadLocal<>();
+
+    /**
+     * @param dataVersion the version of the data, bumped after each committed write.
+     */
+    SessionPool(SessionFactory sessionFactory, int size, LongSupplier dataVersion) {
+        notNull(sessionFactory, "Session factory cannot be null");
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        notNull(dataVersion, "Data version cannot be null");
+        this.sessionFactory = sessionFactory;
+        this.size = size;
+        this.dataVersion = dataVersion;
+    }
+
+    /**
+     * Creates a pool of just the given session.
+     */
+    SessionPool(Session session, LongSupplier dataVersion) {
+        notNull(session, "Session cannot be null");
+        notNull(dataVersion, "Data version cannot be null");
+        this.sessionFactory = null;
+        this.size = 1;
+        this.dataVersion = dataVersion;
+        idle.push(new Lease(session, dataVersion.getAsLong()));
+        opened = 1;
+    }
+
+    /**
+     * Lends a session to the current thread, waiting for one if all are lent,
+     * until the thread releases it as often as it acquired it.
+     *
+     * @return the session of the current thread.
+     */
+    Session acquire() {
+        Lease lease = leases.get();
+        if (null == lease) {
+            lease = take();
+            leases.set(lease);
+        }
+        lease.holds++;
+        return lease.session;
+    }
+
+    void release() {
+        Lease lease = lease();
+        if (--lease.holds == 0) {
+            leases.remove();
+            give(lease);
+        }
+    }
+
+    /**
+     * @return the session lent to the current thread.
+     */
+    Session current() {
+        return lease().session;
+    }
+
+    /**
+     * Records a write committed through the session of the current thread, which
+     * its mapping context already holds.
+     */
+    void written() {
+        lease().version++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    synchronized int opened() {
+        return opened;
+    }
+
+    private Lease lease() {
+        Lease lease = leases.get();
+        if (null == lease) {
+            throw new IllegalStateException("No session acquired by this thread");
+        }
+        return lease;
+    }
+
+    private synchronized Lease take() {
+        while (idle.isEmpty() && opened == size) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a session", e);
+            }
+        }
+        long version = dataVersion.getAsLong();
+        if (!idle.isEmpty()) {
+            Lease lease = idle.pop();
+            if (lease.version != version) {
+                lease.session.clear();
+                lease.version = version;
+            }
+            return lease;
+        }
+        opened++;
+        return new Lease(sessionFactory.openSession(), version);
+    }
+
+    private synchronized void give(Lease lease) {
+        idle.push(lease);
+        notify();
+    }
+
+    private static class Lease {
+        private final Session session;
+
+        // the data version the mapping context is up to date with
+        private long version;
+
+        private int holds;
+
+        private Lease(Session session, long version) {
+            this.session = session;
+            this.version = version;
+        }
+    }
+}
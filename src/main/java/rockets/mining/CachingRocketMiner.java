@@ -0,0 +1,305 @@
+package rockets.mining;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A RocketMiner that remembers its results until the data changes.
+ * <p>
+ * Results are cached by method and arguments in a least recently used cache of
+ * bounded size. Every result is tagged with the {@link DAO#getDataVersion() data
+ * version} it was computed from, and the whole cache is dropped as soon as the
+ * version moves on, so a result is never served after a write through the DAO.
+ * The mining snapshot is not cached here: queries share the one {@link
+ * RocketMiner#snapshot()} keeps for the data version, so different queries at
+ * the same version share one load of the launches. Cached lists and maps are shared
+ * between callers and cannot be modified.
+ * <p>
+ * Live views ({@link #leaderboards()}, reliability windows and {@link #sketch()})
+ * are not cached.
+ */
+public class CachingRocketMiner extends RocketMiner {
+    private static Logger logger = LoggerFactory.getLogger(CachingRocketMiner.class);
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    private final DAO dao;
+
+    private final int maximumSize;
+
+    // in least recently used order
+    private final LinkedHashMap<List<Object>, Object> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long version;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long invalidations;
+
+    public CachingRocketMiner(DAO dao) {
+        this(dao, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public CachingRocketMiner(DAO dao, int maximumSize) {
+        super(dao);
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size cannot be less than 1");
+        }
+        this.dao = dao;
+        this.maximumSize = maximumSize;
+        version = dao.getDataVersion();
+    }
+
+    private synchronized Object lookup(List<Object> key, long currentVersion) {
+        if (currentVersion != version) {
+            if (!results.isEmpty()) {
+                invalidations++;
+                results.clear();
+            }
+            version = currentVersion;
+        }
+        Object result = results.get(key);
+        if (null == result) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    private synchronized void store(List<Object> key, long computedVersion, Object result) {
+        // a result computed while the data changed may already be out of date
+        if (computedVersion == version) {
+            results.put(key, result);
+            if (results.size() > maximumSize) {
+                results.remove(results.keySet().iterator().next());
+                evictions++;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V cached(Supplier<V> computation, String method, Object... arguments) {
+        List<Object> key = new ArrayList<>(arguments.length + 1);
+        key.add(method);
+        key.addAll(Arrays.asList(arguments));
+        long currentVersion = dao.getDataVersion();
+        Object result = lookup(key, currentVersion);
+        if (null == result) {
+            result = unmodifiable(computation.get());
+            store(key, currentVersion, result);
+        } else {
+            logger.debug("Cache hit for " + key);
+        }
+        return (V) result;
+    }
+
+    private static Object unmodifiable(Object result) {
+        if (result instanceof List) {
+            return Collections.unmodifiableList((List<?>) result);
+        } else if (result instanceof SortedMap) {
+            return Collections.unmodifiableSortedMap((SortedMap<?, ?>) result);
+        } else if (result instanceof Map) {
+            return Collections.unmodifiableMap((Map<?, ?>) result);
+        }
+        return result;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of results dropped to keep the cache within its maximum size.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of times cached results were dropped because the data changed.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    @Override
+    public List<Rocket> mostLaunchedRockets(int k) {
+        return cached(() -> super.mostLaunchedRockets(k), "mostLaunchedRockets", k);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k) {
+        return cached(() -> super.mostReliableLaunchServiceProviders(k), "mostReliableLaunchServiceProviders", k);
+    }
+
+    @Override
+    public List<Launch> mostRecentLaunches(int k) {
+        return cached(() -> super.mostRecentLaunches(k), "mostRecentLaunches", k);
+    }
+
+    @Override
+    public String dominantCountry(String orbit) {
+        return cached(() -> super.dominantCountry(orbit), "dominantCountry", orbit);
+    }
+
+    @Override
+    public Map<String, String> dominantCountries(Collection<String> orbits) {
+        // copies the orbits, so changing them afterwards cannot corrupt the cache key
+        List<String> key = null == orbits ? null : new ArrayList<>(orbits);
+        return cached(() -> super.dominantCountries(orbits), "dominantCountries", key);
+    }
+
+    @Override
+    public Map<String, String> dominantCountryByOrbit() {
+        return cached(super::dominantCountryByOrbit, "dominantCountryByOrbit");
+    }
+
+    @Override
+    public List<Launch> mostExpensiveLaunches(int k) {
+        return cached(() -> super.mostExpensiveLaunches(k), "mostExpensiveLaunches", k);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
+        return cached(() -> super.highestRevenueLaunchServiceProviders(k, year), "highestRevenueLaunchServiceProviders", k, year);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        return cached(() -> super.highestRevenueLaunchServiceProviders(k, fromYear, toYear),
+                "highestRevenueLaunchServiceProviders", k, fromYear, toYear);
+    }
+
+    @Override
+    public List<Launch> mostRecentFailedLaunches(int k) {
+        return cached(() -> super.mostRecentFailedLaunches(k), "mostRecentFailedLaunches", k);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> leastReliableLaunchServiceProviders(int k) {
+        return cached(() -> super.leastReliableLaunchServiceProviders(k), "leastReliableLaunchServiceProviders", k);
+    }
+
+    @Override
+    public List<Launch> mostExpensiveFailedLaunches(int k) {
+        return cached(() -> super.mostExpensiveFailedLaunches(k), "mostExpensiveFailedLaunches", k);
+    }
+
+    @Override
+    public List<Launch> mostAffordableLaunches(int k) {
+        return cached(() -> super.mostAffordableLaunches(k), "mostAffordableLaunches", k);
+    }
+
+    @Override
+    public List<Launch> cheapestLaunchesPerKilogramToLEO(int k) {
+        return cached(() -> super.cheapestLaunchesPerKilogramToLEO(k), "cheapestLaunchesPerKilogramToLEO", k);
+    }
+
+    @Override
+    public List<Launch> cheapestLaunchesPerKilogramToGTO(int k) {
+        return cached(() -> super.cheapestLaunchesPerKilogramToGTO(k), "cheapestLaunchesPerKilogramToGTO", k);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> cheapestLaunchServiceProvidersPerKilogramToLEO(int k) {
+        return cached(() -> super.cheapestLaunchServiceProvidersPerKilogramToLEO(k),
+                "cheapestLaunchServiceProvidersPerKilogramToLEO", k);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> cheapestLaunchServiceProvidersPerKilogramToGTO(int k) {
+        return cached(() -> super.cheapestLaunchServiceProvidersPerKilogramToGTO(k),
+                "cheapestLaunchServiceProvidersPerKilogramToGTO", k);
+    }
+
+    @Override
+    public List<Launch> launchesBetween(LocalDate from, LocalDate to) {
+        return cached(() -> super.launchesBetween(from, to), "launchesBetween", from, to);
+    }
+
+    @Override
+    public SortedMap<Integer, Long> launchCountsPerYear(LocalDate from, LocalDate to) {
+        return cached(() -> super.launchCountsPerYear(from, to), "launchCountsPerYear", from, to);
+    }
+
+    @Override
+    public SortedMap<YearMonth, Long> launchCountsPerMonth(LocalDate from, LocalDate to) {
+        return cached(() -> super.launchCountsPerMonth(from, to), "launchCountsPerMonth", from, to);
+    }
+
+    @Override
+    public SortedMap<Integer, BigDecimal> revenuePerYear(LocalDate from, LocalDate to) {
+        return cached(() -> super.revenuePerYear(from, to), "revenuePerYear", from, to);
+    }
+
+    @Override
+    public SortedMap<YearMonth, BigDecimal> revenuePerMonth(LocalDate from, LocalDate to) {
+        return cached(() -> super.revenuePerMonth(from, to), "revenuePerMonth", from, to);
+    }
+
+    @Override
+    public List<Launch> findLaunches(Launch.LaunchOutcome outcome, String orbit, LaunchServiceProvider lsp, Integer year) {
+        return cached(() -> super.findLaunches(outcome, orbit, lsp, year), "findLaunches", outcome, orbit, lsp, year);
+    }
+
+    @Override
+    public int countLaunches(Launch.LaunchOutcome outcome, String orbit, LaunchServiceProvider lsp, Integer year) {
+        return cached(() -> super.countLaunches(outcome, orbit, lsp, year), "countLaunches", outcome, orbit, lsp, year);
+    }
+
+    @Override
+    public Map<Rocket, Estimate> approximateMostLaunchedRockets(int k) {
+        return cached(() -> super.approximateMostLaunchedRockets(k), "approximateMostLaunchedRockets", k);
+    }
+
+    @Override
+    public Estimate approximateDistinctPayloads() {
+        return cached(super::approximateDistinctPayloads, "approximateDistinctPayloads");
+    }
+
+    @Override
+    public Estimate approximateDistinctLaunchSites() {
+        return cached(super::approximateDistinctLaunchSites, "approximateDistinctLaunchSites");
+    }
+
+    @Override
+    public Estimate approximateDistinctRockets() {
+        return cached(super::approximateDistinctRockets, "approximateDistinctRockets");
+    }
+
+    @Override
+    public Estimate approximatePriceQuantile(LaunchServiceProvider lsp, double q) {
+        return cached(() -> super.approximatePriceQuantile(lsp, q), "approximatePriceQuantile", lsp, q);
+    }
+}
@@ -0,0 +1,71 @@
+package rockets.mining;
+
+/**
+ * Approximate counts of hashed items in a fixed amount of memory.
+ * <p>
+ * With {@code width = ceil(e / epsilon)} counters per row and
+ * {@code depth = ceil(ln(1 / delta))} rows, an estimate never undercounts and
+ * overcounts by at most {@code epsilon} times the total count with probability
+ * at least {@code 1 - delta}.
+ */
+public class CountMinSketch {
+    private final double epsilon;
+
+    private final double delta;
+
+    private final int width;
+
+    private final long[][] counts;
+
+    private long total;
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Epsilon and delta must be between 0 and 1");
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        width = (int) Math.ceil(Math.E / epsilon);
+        counts = new long[(int) Math.ceil(Math.log(1 / delta))][width];
+    }
+
+    // the i-th of the row hashes derived from one 64 bit hash by double hashing
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + row * h2, width);
+    }
+
+    public void add(long hash, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        for (int row = 0; row < counts.length; row++) {
+            counts[row][index(hash, row)] += count;
+        }
+        total += count;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counts.length; row++) {
+            estimate = Math.min(estimate, counts[row][index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the most an estimate overcounts by, with probability {@link #confidence()}.
+     */
+    public double error() {
+        return epsilon * total;
+    }
+
+    public double confidence() {
+        return 1 - delta;
+    }
+
+    public long total() {
+        return total;
+    }
+}
@@ -0,0 +1,57 @@
+package rockets.mining;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes values as dense int codes, assigned in the order the values are first seen.
+ *
+ * @param <T> the type of encoded values
+ */
+public class Dictionary<T> {
+    public static final int NONE = -1;
+
+    private final Map<T, Integer> codes = new HashMap<>();
+
+    private final List<T> values = new ArrayList<>();
+
+    /**
+     * @return the code of the value, adding it if it has not been seen before,
+     * or {@link #NONE} for null.
+     */
+    public int encode(T value) {
+        if (null == value) {
+            return NONE;
+        }
+        Integer code = codes.get(value);
+        if (null == code) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * @return the code of the value, or {@link #NONE} if it has not been seen.
+     */
+    public int codeOf(T value) {
+        Integer code = null == value ? null : codes.get(value);
+        return null == code ? NONE : code;
+    }
+
+    public T decode(int code) {
+        return NONE == code ? null : values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public List<T> values() {
+        return Collections.unmodifiableList(values);
+    }
+}
@@ -0,0 +1,59 @@
+package rockets.mining;
+
+import java.util.Objects;
+
+/**
+ * An approximate answer together with the bounds the true answer lies between.
+ */
+public class Estimate {
+    private final double value;
+
+    private final double lower;
+
+    private final double upper;
+
+    public Estimate(double value, double lower, double upper) {
+        if (lower > value || value > upper) {
+            throw new IllegalArgumentException("Estimate must lie between its bounds");
+        }
+        this.value = value;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getLower() {
+        return lower;
+    }
+
+    public double getUpper() {
+        return upper;
+    }
+
+    public boolean contains(double exact) {
+        return lower <= exact && exact <= upper;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Estimate estimate = (Estimate) o;
+        return Double.compare(estimate.value, value) == 0 &&
+                Double.compare(estimate.lower, lower) == 0 &&
+                Double.compare(estimate.upper, upper) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, lower, upper);
+    }
+
+    @Override
+    public String toString() {
+        return value + " [" + lower + ", " + upper + "]";
+    }
+}
@@ -0,0 +1,44 @@
+package rockets.mining;
+
+/**
+ * The reactive streams interfaces of {@code java.util.concurrent.Flow}, which
+ * is only available from Java 9 on. They have the same names, methods and
+ * contracts, so moving to the JDK ones is a change of imports.
+ */
+public final class Flow {
+    private Flow() {
+    }
+
+    /**
+     * A producer of items received by subscribers.
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items, which it requests through its subscription.
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * The link between a publisher and a subscriber.
+     */
+    public interface Subscription {
+        /**
+         * Adds the given number of items to the items the subscriber is ready to receive.
+         */
+        void request(long n);
+
+        void cancel();
+    }
+}
@@ -0,0 +1,53 @@
+package rockets.mining;
+
+/**
+ * Approximate number of distinct hashed items in a fixed amount of memory.
+ * <p>
+ * Keeps {@code 2^precision} one-byte registers. The relative standard error of
+ * the estimate is {@code 1.04 / sqrt(2^precision)}, e.g. 0.8% at precision 14;
+ * small cardinalities are counted almost exactly by linear counting.
+ */
+public class HyperLogLog {
+    private final int precision;
+
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        registers = new byte[1 << precision];
+    }
+
+    public void add(long hash) {
+        int register = (int) (hash >>> (64 - precision));
+        // the position of the first set bit after the register bits, capped when they are all zero
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    public double estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (0 == register) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            return m * Math.log((double) m / zeros);
+        }
+        return estimate;
+    }
+
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+}
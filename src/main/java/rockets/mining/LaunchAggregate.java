@@ -0,0 +1,21 @@
+package rockets.mining;
+
+/**
+ * The aggregates a {@link LaunchQuery} can rank groups of launches by.
+ */
+public enum LaunchAggregate {
+    /**
+     * The number of launches.
+     */
+    COUNT,
+
+    /**
+     * The fraction of launches that were successful.
+     */
+    SUCCESS_RATE,
+
+    /**
+     * The total price of the priced launches.
+     */
+    SUM_PRICE
+}
@@ -0,0 +1,164 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Bitmaps of the launch rows with each outcome, orbit, launch site, provider and
+ * launch year.
+ * <p>
+ * Filter combinations are answered by intersecting and uniting the bitmaps of
+ * the {@link LaunchColumns} rows, e.g. the failed launches to GTO of a provider
+ * in 2018 are {@code failed().and(orbit("GTO")).and(provider(lsp)).and(year(2018))},
+ * without touching the launches themselves until the matching rows are materialized
+ * with {@link #launches(RoaringBitmap)}. Unknown values have an empty bitmap.
+ * Bitmaps returned by the index must not be modified.
+ */
+public class LaunchBitmapIndex {
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final LaunchColumns columns;
+
+    private final RoaringBitmap all = new RoaringBitmap();
+
+    private final RoaringBitmap successful = new RoaringBitmap();
+
+    private final RoaringBitmap failed = new RoaringBitmap();
+
+    private final RoaringBitmap[] orbits;
+
+    private final RoaringBitmap[] sites;
+
+    private final RoaringBitmap[] providers;
+
+    private final Map<Integer, RoaringBitmap> years = new HashMap<>();
+
+    public LaunchBitmapIndex(LaunchColumns columns) {
+        notNull(columns, "Launch columns cannot be null");
+        this.columns = columns;
+        orbits = bitmaps(columns.orbits().size());
+        sites = bitmaps(columns.sites().size());
+        providers = bitmaps(columns.providers().size());
+
+        // rows are added in increasing order, so every add appends to the last chunk
+        for (int row = 0; row < columns.size(); row++) {
+            all.add(row);
+            if (columns.isSuccessful(row)) {
+                successful.add(row);
+            } else if (columns.isFailed(row)) {
+                failed.add(row);
+            }
+            add(orbits, columns.orbit(row), row);
+            add(sites, columns.site(row), row);
+            add(providers, columns.provider(row), row);
+            if (LaunchColumns.NO_DATE != columns.launchYear(row)) {
+                years.computeIfAbsent(columns.launchYear(row), year -> new RoaringBitmap()).add(row);
+            }
+        }
+    }
+
+    private static RoaringBitmap[] bitmaps(int size) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[size];
+        for (int code = 0; code < size; code++) {
+            bitmaps[code] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    private static void add(RoaringBitmap[] bitmaps, int code, int row) {
+        if (Dictionary.NONE != code) {
+            bitmaps[code].add(row);
+        }
+    }
+
+    private static RoaringBitmap bitmap(RoaringBitmap[] bitmaps, int code) {
+        return Dictionary.NONE == code ? EMPTY : bitmaps[code];
+    }
+
+    /**
+     * @return every launch row.
+     */
+    public RoaringBitmap all() {
+        return all;
+    }
+
+    public RoaringBitmap successful() {
+        return successful;
+    }
+
+    public RoaringBitmap failed() {
+        return failed;
+    }
+
+    public RoaringBitmap outcome(Launch.LaunchOutcome outcome) {
+        notNull(outcome, "Launch outcome cannot be null");
+        return Launch.LaunchOutcome.SUCCESSFUL == outcome ? successful : failed;
+    }
+
+    public RoaringBitmap orbit(String orbit) {
+        return bitmap(orbits, columns.orbits().codeOf(orbit));
+    }
+
+    public RoaringBitmap site(String launchSite) {
+        return bitmap(sites, columns.sites().codeOf(launchSite));
+    }
+
+    public RoaringBitmap provider(LaunchServiceProvider lsp) {
+        return bitmap(providers, columns.providers().codeOf(lsp));
+    }
+
+    public RoaringBitmap year(int year) {
+        return years.getOrDefault(year, EMPTY);
+    }
+
+    /**
+     * Returns the rows matching every given filter, where a null filter matches
+     * every launch.
+     *
+     * @param outcome the launch outcome, or null
+     * @param orbit   the orbit, or null
+     * @param lsp     the launch service provider, or null
+     * @param year    the launch year, or null
+     * @return the matching rows.
+     */
+    public RoaringBitmap matching(Launch.LaunchOutcome outcome, String orbit, LaunchServiceProvider lsp, Integer year) {
+        List<RoaringBitmap> filters = new ArrayList<>();
+        if (null != outcome) {
+            filters.add(outcome(outcome));
+        }
+        if (null != orbit) {
+            filters.add(orbit(orbit));
+        }
+        if (null != lsp) {
+            filters.add(provider(lsp));
+        }
+        if (null != year) {
+            filters.add(year(year));
+        }
+        if (filters.isEmpty()) {
+            return all.copy();
+        }
+        // intersecting the smallest bitmaps first keeps the intermediate results small
+        filters.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        RoaringBitmap rows = filters.get(0).copy();
+        for (int i = 1; i < filters.size() && !rows.isEmpty(); i++) {
+            rows = rows.and(filters.get(i));
+        }
+        return rows;
+    }
+
+    /**
+     * @return the launches of the given rows, in row order.
+     */
+    public List<Launch> launches(RoaringBitmap rows) {
+        notNull(rows, "Rows cannot be null");
+        return columns.launches(rows.toArray());
+    }
+}
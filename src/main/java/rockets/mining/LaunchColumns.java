@@ -0,0 +1,400 @@
+package rockets.mining;
+
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A struct-of-arrays copy of launches for analytics.
+ * <p>
+ * Each launch is a row. Dates are stored as epoch days, prices as longs scaled by
+ * {@link #PRICE_SCALE} decimal digits, outcomes as bitsets and orbits, sites,
+ * providers and rockets as dictionary codes. The country of each provider is
+ * resolved once per provider, and the capacity of each rocket in kilograms once
+ * per rocket, so queries never walk the entity graph. Prices that do not fit a
+ * scaled long exactly are kept as BigDecimal on the side.
+ * <p>
+ * Each row keeps the id of its launch rather than the launch, so the launches,
+ * with their payloads and the rest of the entity graph, can be collected once
+ * the columns are built. Queries select rows and then load the few launches
+ * they return by id through the loader the columns were built with. Launches
+ * without an id cannot be loaded, so they are kept on the side. Columns built
+ * without a loader, e.g. over launches restored from a file before the
+ * database is read, keep all their launches.
+ * <p>
+ * Rows, and the codes of rockets and providers, follow the ids of the entities,
+ * with entities without an id after the others in the order they are seen. Codes
+ * and rows break ties in rankings, so these come out in the order the
+ * aggregation queries of the database rank them.
+ */
+public class LaunchColumns {
+    public static final int PRICE_SCALE = Money.SCALE;
+
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    public static final long NO_ID = -1;
+
+    private static final Comparator<Entity> BY_ID = Comparator.comparing(Entity::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final int size;
+
+    // the id of the launch of each row, or NO_ID; see the class comment
+    private final long[] ids;
+
+    // loads the launches with the given ids that still exist, or null to keep all launches
+    private final Function<List<Long>, List<Launch>> loader;
+
+    // without a loader, the launch of each row
+    private final List<Launch> all;
+
+    // with a loader, the launches of the rows without an id, which it cannot load
+    private final Map<Integer, Launch> unsaved;
+
+    private final int[] launchDates;
+
+    private final int[] launchYears;
+
+    private final int firstYear;
+
+    private final int lastYear;
+
+    private final long[] prices;
+
+    private final BitSet priced;
+
+    private final Map<Integer, BigDecimal> unscaledPrices;
+
+    private final BitSet successful;
+
+    private final BitSet failed;
+
+    private final int[] orbits;
+
+    private final int[] sites;
+
+    private final int[] providers;
+
+    private final int[] rockets;
+
+    private final int[] providerCountries;
+
+    private final double[] rocketKilogramsToLEO;
+
+    private final double[] rocketKilogramsToGTO;
+
+    private final Dictionary<String> orbitDictionary;
+
+    private final Dictionary<String> siteDictionary;
+
+    private final Dictionary<LaunchServiceProvider> providerDictionary;
+
+    private final Dictionary<Rocket> rocketDictionary;
+
+    private final Dictionary<String> countryDictionary;
+
+    private LaunchColumns(Collection<Launch> unordered, Function<List<Long>, List<Launch>> loader) {
+        List<Launch> source = new ArrayList<>(unordered);
+        source.sort(BY_ID);
+        size = source.size();
+        ids = new long[size];
+        this.loader = loader;
+        all = null == loader ? source : null;
+        unsaved = new HashMap<>();
+        launchDates = new int[size];
+        launchYears = new int[size];
+        prices = new long[size];
+        priced = new BitSet(size);
+        unscaledPrices = new HashMap<>();
+        successful = new BitSet(size);
+        failed = new BitSet(size);
+        orbits = new int[size];
+        sites = new int[size];
+        providers = new int[size];
+        rockets = new int[size];
+        orbitDictionary = new Dictionary<>();
+        siteDictionary = new Dictionary<>();
+        providerDictionary = new Dictionary<>();
+        rocketDictionary = new Dictionary<>();
+        countryDictionary = new Dictionary<>();
+
+        List<Rocket> vehicles = new ArrayList<>();
+        List<LaunchServiceProvider> lsps = new ArrayList<>();
+        for (Launch launch : source) {
+            if (null != launch.getLaunchVehicle() && null != launch.getLaunchVehicle().getId()) {
+                vehicles.add(launch.getLaunchVehicle());
+            }
+            if (null != launch.getLaunchServiceProvider() && null != launch.getLaunchServiceProvider().getId()) {
+                lsps.add(launch.getLaunchServiceProvider());
+            }
+        }
+        vehicles.sort(BY_ID);
+        vehicles.forEach(rocketDictionary::encode);
+        lsps.sort(BY_ID);
+        lsps.forEach(providerDictionary::encode);
+
+        int first = NO_DATE;
+        int last = NO_DATE;
+        int row = 0;
+        for (Launch launch : source) {
+            ids[row] = null == launch.getId() ? NO_ID : launch.getId();
+            if (null != loader && null == launch.getId()) {
+                unsaved.put(row, launch);
+            }
+            if (null == launch.getLaunchDate()) {
+                launchDates[row] = NO_DATE;
+                launchYears[row] = NO_DATE;
+            } else {
+                launchDates[row] = (int) launch.getLaunchDate().toEpochDay();
+                launchYears[row] = launch.getLaunchDate().getYear();
+                first = NO_DATE == first ? launchYears[row] : Math.min(first, launchYears[row]);
+                last = Math.max(last, launchYears[row]);
+            }
+            Money price = launch.getPriceAsMoney();
+            if (null != price) {
+                priced.set(row);
+                if (price.isScaled()) {
+                    prices[row] = price.scaled();
+                } else {
+                    unscaledPrices.put(row, price.toBigDecimal());
+                }
+            }
+            successful.set(row, Launch.LaunchOutcome.SUCCESSFUL.equals(launch.getLaunchOutcome()));
+            failed.set(row, Launch.LaunchOutcome.FAILED.equals(launch.getLaunchOutcome()));
+            orbits[row] = orbitDictionary.encode(launch.getOrbit());
+            sites[row] = siteDictionary.encode(launch.getLaunchSite());
+            rockets[row] = rocketDictionary.encode(launch.getLaunchVehicle());
+            providers[row] = providerDictionary.encode(launch.getLaunchServiceProvider());
+            row++;
+        }
+        firstYear = first;
+        lastYear = last;
+        providerCountries = new int[providerDictionary.size()];
+        for (int lsp = 0; lsp < providerCountries.length; lsp++) {
+            providerCountries[lsp] = countryDictionary.encode(providerDictionary.decode(lsp).getCountry());
+        }
+        rocketKilogramsToLEO = new double[rocketDictionary.size()];
+        rocketKilogramsToGTO = new double[rocketDictionary.size()];
+        for (int rocket = 0; rocket < rocketDictionary.size(); rocket++) {
+            rocketKilogramsToLEO[rocket] = rocketDictionary.decode(rocket).getKilogramsToLEO();
+            rocketKilogramsToGTO[rocket] = rocketDictionary.decode(rocket).getKilogramsToGTO();
+        }
+    }
+
+    /**
+     * @return columns that keep all the launches.
+     */
+    public static LaunchColumns of(Collection<Launch> launches) {
+        notNull(launches, "Launches cannot be null");
+        return new LaunchColumns(launches, null);
+    }
+
+    /**
+     * @param loader loads the launches with the given ids, leaving out those that
+     *               no longer exist.
+     * @return columns that keep only the launches without an id, and load the
+     * others when queries return them.
+     */
+    public static LaunchColumns of(Collection<Launch> launches, Function<List<Long>, List<Launch>> loader) {
+        notNull(launches, "Launches cannot be null");
+        notNull(loader, "Loader cannot be null");
+        return new LaunchColumns(launches, loader);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the id of the launch of the row, or {@link #NO_ID} if it has none.
+     */
+    public long id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Returns the launches of the rows, loading those the columns do not keep in
+     * one call to the loader. Launches deleted since the columns were built are
+     * left out.
+     *
+     * @return the launches, in the order of the rows.
+     */
+    public List<Launch> launches(int... rows) {
+        List<Long> missing = new ArrayList<>();
+        for (int row : rows) {
+            if (null == kept(row)) {
+                missing.add(ids[row]);
+            }
+        }
+        Map<Long, Launch> loaded = new HashMap<>();
+        if (!missing.isEmpty()) {
+            for (Launch launch : loader.apply(missing)) {
+                loaded.put(launch.getId(), launch);
+            }
+        }
+        List<Launch> launches = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            Launch launch = null == kept(row) ? loaded.get(ids[row]) : kept(row);
+            if (null != launch) {
+                launches.add(launch);
+            }
+        }
+        return launches;
+    }
+
+    private Launch kept(int row) {
+        return null == all ? unsaved.get(row) : all.get(row);
+    }
+
+    /**
+     * @return the launches of all rows, which loads every launch the columns do not keep.
+     */
+    public List<Launch> launches() {
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[row] = row;
+        }
+        return launches(rows);
+    }
+
+    /**
+     * @return the launch date as an epoch day, or {@link #NO_DATE}.
+     */
+    public int launchDate(int row) {
+        return launchDates[row];
+    }
+
+    /**
+     * @return the launch year, or {@link #NO_DATE}.
+     */
+    public int launchYear(int row) {
+        return launchYears[row];
+    }
+
+    /**
+     * @return the year of the earliest launch, or {@link #NO_DATE} if no launch has a date.
+     */
+    public int firstYear() {
+        return firstYear;
+    }
+
+    /**
+     * @return the year of the latest launch, or {@link #NO_DATE} if no launch has a date.
+     */
+    public int lastYear() {
+        return lastYear;
+    }
+
+    public boolean hasPrice(int row) {
+        return priced.get(row);
+    }
+
+    /**
+     * @return whether the price of the row is available as a scaled long.
+     */
+    public boolean hasScaledPrice(int row) {
+        return priced.get(row) && !unscaledPrices.containsKey(row);
+    }
+
+    /**
+     * @return the price scaled by {@link #PRICE_SCALE} digits; only valid if
+     * {@link #hasScaledPrice(int)}.
+     */
+    public long scaledPrice(int row) {
+        return prices[row];
+    }
+
+    public BigDecimal price(int row) {
+        if (!priced.get(row)) {
+            return null;
+        }
+        BigDecimal unscaled = unscaledPrices.get(row);
+        return null == unscaled ? BigDecimal.valueOf(prices[row], PRICE_SCALE) : unscaled;
+    }
+
+    /**
+     * @return the price as a double, which may be rounded; only valid if {@link #hasPrice(int)}.
+     */
+    public double approximatePrice(int row) {
+        return hasScaledPrice(row) ? prices[row] / Math.pow(10, PRICE_SCALE) : unscaledPrices.get(row).doubleValue();
+    }
+
+    public int comparePrices(int a, int b) {
+        if (hasScaledPrice(a) && hasScaledPrice(b)) {
+            return Long.compare(prices[a], prices[b]);
+        }
+        return price(a).compareTo(price(b));
+    }
+
+    public boolean isSuccessful(int row) {
+        return successful.get(row);
+    }
+
+    public boolean isFailed(int row) {
+        return failed.get(row);
+    }
+
+    public int orbit(int row) {
+        return orbits[row];
+    }
+
+    public int site(int row) {
+        return sites[row];
+    }
+
+    public int provider(int row) {
+        return providers[row];
+    }
+
+    public int rocket(int row) {
+        return rockets[row];
+    }
+
+    /**
+     * @return the country code of a provider code, or {@link Dictionary#NONE}.
+     */
+    public int providerCountry(int provider) {
+        return Dictionary.NONE == provider ? Dictionary.NONE : providerCountries[provider];
+    }
+
+    /**
+     * @return the mass a rocket code can lift to LEO in kilograms, or NaN if unknown.
+     */
+    public double kilogramsToLEO(int rocket) {
+        return Dictionary.NONE == rocket ? Double.NaN : rocketKilogramsToLEO[rocket];
+    }
+
+    /**
+     * @return the mass a rocket code can lift to GTO in kilograms, or NaN if unknown.
+     */
+    public double kilogramsToGTO(int rocket) {
+        return Dictionary.NONE == rocket ? Double.NaN : rocketKilogramsToGTO[rocket];
+    }
+
+    public Dictionary<String> orbits() {
+        return orbitDictionary;
+    }
+
+    public Dictionary<String> sites() {
+        return siteDictionary;
+    }
+
+    public Dictionary<LaunchServiceProvider> providers() {
+        return providerDictionary;
+    }
+
+    public Dictionary<Rocket> rockets() {
+        return rocketDictionary;
+    }
+
+    public Dictionary<String> countries() {
+        return countryDictionary;
+    }
+}
@@ -0,0 +1,206 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The dated rows of {@link LaunchColumns} sorted by launch date.
+ * <p>
+ * Date ranges are found by binary search in O(log n), so range queries and
+ * most-recent-first scans only touch the launches they return. Launches on the
+ * same date stay in row order.
+ */
+public class LaunchDateIndex {
+    private final LaunchColumns columns;
+
+    private final int[] days;
+
+    private final int[] rows;
+
+    public LaunchDateIndex(LaunchColumns columns) {
+        notNull(columns, "Launch columns cannot be null");
+        this.columns = columns;
+
+        // sort (day, row) pairs packed into longs, which keeps equal days in row order
+        long[] keys = new long[columns.size()];
+        int dated = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            if (LaunchColumns.NO_DATE != columns.launchDate(row)) {
+                keys[dated++] = ((long) columns.launchDate(row) << 32) | row;
+            }
+        }
+        Arrays.sort(keys, 0, dated);
+        days = new int[dated];
+        rows = new int[dated];
+        for (int i = 0; i < dated; i++) {
+            days[i] = (int) (keys[i] >> 32);
+            rows[i] = (int) keys[i];
+        }
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    // the first position whose day is not before the given day
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int[] range(LocalDate from, LocalDate to) {
+        notNull(from, "From date cannot be null");
+        notNull(to, "To date cannot be null");
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date");
+        }
+        return new int[]{lowerBound((int) from.toEpochDay()), lowerBound((int) to.toEpochDay() + 1)};
+    }
+
+    /**
+     * @return the number of launches between two dates, both inclusive.
+     */
+    public int countBetween(LocalDate from, LocalDate to) {
+        int[] range = range(from, to);
+        return range[1] - range[0];
+    }
+
+    /**
+     * @return the launches between two dates, both inclusive, oldest first.
+     */
+    public List<Launch> launchesBetween(LocalDate from, LocalDate to) {
+        int[] range = range(from, to);
+        return columns.launches(Arrays.copyOfRange(rows, range[0], range[1]));
+    }
+
+    /**
+     * Returns up to k accepted rows, most recent first, scanning back from the
+     * most recent launch only as far as needed.
+     */
+    public List<Integer> mostRecentRows(int k, IntPredicate accepted) {
+        List<Integer> results = new ArrayList<>(Math.min(k, rows.length));
+        int end = rows.length;
+        while (end > 0 && results.size() < k) {
+            int start = end - 1;
+            while (start > 0 && days[start - 1] == days[end - 1]) {
+                start--;
+            }
+            for (int i = start; i < end && results.size() < k; i++) {
+                if (accepted.test(rows[i])) {
+                    results.add(rows[i]);
+                }
+            }
+            end = start;
+        }
+        return results;
+    }
+
+    public SortedMap<Integer, Long> launchCountsPerYear(LocalDate from, LocalDate to) {
+        return count(from, to, LocalDate::getYear);
+    }
+
+    public SortedMap<YearMonth, Long> launchCountsPerMonth(LocalDate from, LocalDate to) {
+        return count(from, to, YearMonth::from);
+    }
+
+    public SortedMap<Integer, BigDecimal> revenuePerYear(LocalDate from, LocalDate to) {
+        return revenue(from, to, LocalDate::getYear);
+    }
+
+    public SortedMap<YearMonth, BigDecimal> revenuePerMonth(LocalDate from, LocalDate to) {
+        return revenue(from, to, YearMonth::from);
+    }
+
+    /**
+     * Maps positions to buckets, computing the bucket only once per distinct day.
+     */
+    private class Buckets<K> {
+        private final Function<LocalDate, K> bucket;
+
+        private int day = LaunchColumns.NO_DATE;
+
+        private K key;
+
+        private Buckets(Function<LocalDate, K> bucket) {
+            this.bucket = bucket;
+        }
+
+        private K of(int position) {
+            if (days[position] != day) {
+                day = days[position];
+                key = bucket.apply(LocalDate.ofEpochDay(day));
+            }
+            return key;
+        }
+    }
+
+    private <K extends Comparable<K>> SortedMap<K, Long> count(LocalDate from, LocalDate to, Function<LocalDate, K> bucket) {
+        int[] range = range(from, to);
+        Buckets<K> buckets = new Buckets<>(bucket);
+        SortedMap<K, Long> counts = new TreeMap<>();
+        int i = range[0];
+        while (i < range[1]) {
+            // launches are sorted by date, so each bucket is a run of positions
+            K key = buckets.of(i);
+            int start = i;
+            while (i < range[1] && key.equals(buckets.of(i))) {
+                i++;
+            }
+            counts.put(key, (long) (i - start));
+        }
+        return counts;
+    }
+
+    private <K extends Comparable<K>> SortedMap<K, BigDecimal> revenue(LocalDate from, LocalDate to, Function<LocalDate, K> bucket) {
+        int[] range = range(from, to);
+        Buckets<K> buckets = new Buckets<>(bucket);
+        SortedMap<K, BigDecimal> revenue = new TreeMap<>();
+        int i = range[0];
+        while (i < range[1]) {
+            K key = buckets.of(i);
+            long scaled = 0;
+            BigDecimal exact = null;
+            boolean priced = false;
+            for (; i < range[1] && key.equals(buckets.of(i)); i++) {
+                int row = rows[i];
+                if (!columns.hasPrice(row)) {
+                    continue;
+                }
+                priced = true;
+                if (null == exact && columns.hasScaledPrice(row)) {
+                    try {
+                        scaled = Math.addExact(scaled, columns.scaledPrice(row));
+                        continue;
+                    } catch (ArithmeticException e) {
+                        // falls back to BigDecimal below
+                    }
+                }
+                if (null == exact) {
+                    exact = BigDecimal.valueOf(scaled, LaunchColumns.PRICE_SCALE);
+                }
+                exact = exact.add(columns.price(row));
+            }
+            if (priced) {
+                revenue.put(key, null == exact ? BigDecimal.valueOf(scaled, LaunchColumns.PRICE_SCALE) : exact);
+            }
+        }
+        return revenue;
+    }
+}
@@ -0,0 +1,129 @@
+package rockets.mining;
+
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+/**
+ * A dimension launches can be grouped by in a {@link LaunchQuery}.
+ * <p>
+ * Each group of a dimension has a dense code, so a query can keep its
+ * aggregates in arrays indexed by the code of the group.
+ *
+ * @param <K> the type of the group keys, e.g. the rocket of a launch
+ */
+public abstract class LaunchDimension<K> {
+    public static final LaunchDimension<Rocket> ROCKET = new LaunchDimension<Rocket>("rocket") {
+        @Override
+        int codes(LaunchColumns columns) {
+            return columns.rockets().size();
+        }
+
+        @Override
+        int code(LaunchColumns columns, int row) {
+            return columns.rocket(row);
+        }
+
+        @Override
+        Rocket decode(LaunchColumns columns, int code) {
+            return columns.rockets().decode(code);
+        }
+    };
+
+    public static final LaunchDimension<LaunchServiceProvider> PROVIDER = new LaunchDimension<LaunchServiceProvider>("provider") {
+        @Override
+        int codes(LaunchColumns columns) {
+            return columns.providers().size();
+        }
+
+        @Override
+        int code(LaunchColumns columns, int row) {
+            return columns.provider(row);
+        }
+
+        @Override
+        LaunchServiceProvider decode(LaunchColumns columns, int code) {
+            return columns.providers().decode(code);
+        }
+    };
+
+    /**
+     * The country of the launch service provider.
+     */
+    public static final LaunchDimension<String> COUNTRY = new LaunchDimension<String>("country") {
+        @Override
+        int codes(LaunchColumns columns) {
+            return columns.countries().size();
+        }
+
+        @Override
+        int code(LaunchColumns columns, int row) {
+            return columns.providerCountry(columns.provider(row));
+        }
+
+        @Override
+        String decode(LaunchColumns columns, int code) {
+            return columns.countries().decode(code);
+        }
+    };
+
+    public static final LaunchDimension<String> ORBIT = new LaunchDimension<String>("orbit") {
+        @Override
+        int codes(LaunchColumns columns) {
+            return columns.orbits().size();
+        }
+
+        @Override
+        int code(LaunchColumns columns, int row) {
+            return columns.orbit(row);
+        }
+
+        @Override
+        String decode(LaunchColumns columns, int code) {
+            return columns.orbits().decode(code);
+        }
+    };
+
+    /**
+     * The launch year, coded as the number of years since the earliest launch.
+     */
+    public static final LaunchDimension<Integer> YEAR = new LaunchDimension<Integer>("year") {
+        @Override
+        int codes(LaunchColumns columns) {
+            return LaunchColumns.NO_DATE == columns.firstYear() ? 0 : columns.lastYear() - columns.firstYear() + 1;
+        }
+
+        @Override
+        int code(LaunchColumns columns, int row) {
+            int year = columns.launchYear(row);
+            return LaunchColumns.NO_DATE == year ? Dictionary.NONE : year - columns.firstYear();
+        }
+
+        @Override
+        Integer decode(LaunchColumns columns, int code) {
+            return columns.firstYear() + code;
+        }
+    };
+
+    private final String name;
+
+    private LaunchDimension(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the number of group codes of the columns.
+     */
+    abstract int codes(LaunchColumns columns);
+
+    /**
+     * @return the group code of a row, or {@link Dictionary#NONE} if the row has no group.
+     */
+    abstract int code(LaunchColumns columns, int row);
+
+    abstract K decode(LaunchColumns columns, int code);
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,96 @@
+package rockets.mining;
+
+import rockets.model.LaunchServiceProvider;
+
+import java.util.function.IntPredicate;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A condition on launches, evaluated on the rows of {@link LaunchColumns}.
+ * <p>
+ * Binding a filter to columns resolves its values to dictionary codes once, so
+ * the predicate tested for every row only compares ints.
+ */
+@FunctionalInterface
+public interface LaunchFilter {
+    IntPredicate bind(LaunchColumns columns);
+
+    default LaunchFilter and(LaunchFilter other) {
+        notNull(other, "Filter cannot be null");
+        return columns -> bind(columns).and(other.bind(columns));
+    }
+
+    default LaunchFilter or(LaunchFilter other) {
+        notNull(other, "Filter cannot be null");
+        return columns -> bind(columns).or(other.bind(columns));
+    }
+
+    default LaunchFilter negate() {
+        return columns -> bind(columns).negate();
+    }
+
+    static LaunchFilter all() {
+        return columns -> row -> true;
+    }
+
+    static LaunchFilter successful() {
+        return columns -> columns::isSuccessful;
+    }
+
+    static LaunchFilter failed() {
+        return columns -> columns::isFailed;
+    }
+
+    static LaunchFilter priced() {
+        return columns -> columns::hasPrice;
+    }
+
+    static LaunchFilter orbit(String orbit) {
+        return columns -> {
+            int code = columns.orbits().codeOf(orbit);
+            return Dictionary.NONE == code ? row -> false : row -> columns.orbit(row) == code;
+        };
+    }
+
+    static LaunchFilter site(String launchSite) {
+        return columns -> {
+            int code = columns.sites().codeOf(launchSite);
+            return Dictionary.NONE == code ? row -> false : row -> columns.site(row) == code;
+        };
+    }
+
+    static LaunchFilter provider(LaunchServiceProvider lsp) {
+        return columns -> {
+            int code = columns.providers().codeOf(lsp);
+            return Dictionary.NONE == code ? row -> false : row -> columns.provider(row) == code;
+        };
+    }
+
+    /**
+     * Matches the launches of providers from a country.
+     */
+    static LaunchFilter country(String country) {
+        return columns -> {
+            int code = columns.countries().codeOf(country);
+            return Dictionary.NONE == code ? row -> false : row -> columns.providerCountry(columns.provider(row)) == code;
+        };
+    }
+
+    static LaunchFilter year(int year) {
+        return years(year, year);
+    }
+
+    /**
+     * Matches the launches between two years, both inclusive.
+     */
+    static LaunchFilter years(int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("From year cannot be after to year");
+        }
+        return columns -> row -> {
+            int year = columns.launchYear(row);
+            return LaunchColumns.NO_DATE != year && fromYear <= year && year <= toYear;
+        };
+    }
+}
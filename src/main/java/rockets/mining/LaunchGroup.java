@@ -0,0 +1,70 @@
+package rockets.mining;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * The aggregates of one group of launches in the result of a {@link LaunchQuery}.
+ *
+ * @param <K> the type of the group key
+ */
+public class LaunchGroup<K> {
+    private final K key;
+
+    private final long launches;
+
+    private final long successfulLaunches;
+
+    private final BigDecimal revenue;
+
+    public LaunchGroup(K key, long launches, long successfulLaunches, BigDecimal revenue) {
+        this.key = key;
+        this.launches = launches;
+        this.successfulLaunches = successfulLaunches;
+        this.revenue = revenue;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public long getLaunches() {
+        return launches;
+    }
+
+    public long getSuccessfulLaunches() {
+        return successfulLaunches;
+    }
+
+    public double getSuccessRate() {
+        return 0 == launches ? 0 : (double) successfulLaunches / launches;
+    }
+
+    /**
+     * @return the total price of the priced launches of the group.
+     */
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LaunchGroup<?> that = (LaunchGroup<?>) o;
+        return launches == that.launches &&
+                successfulLaunches == that.successfulLaunches &&
+                Objects.equals(key, that.key) &&
+                revenue.compareTo(that.revenue) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, launches, successfulLaunches, revenue.stripTrailingZeros());
+    }
+
+    @Override
+    public String toString() {
+        return key + "{launches=" + launches + ", successfulLaunches=" + successfulLaunches + ", revenue=" + revenue + "}";
+    }
+}
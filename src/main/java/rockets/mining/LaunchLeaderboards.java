@@ -0,0 +1,280 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAOListener;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Rocket;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notBlank;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Launch leaderboards maintained incrementally as launches are written.
+ * <p>
+ * Every launch's contribution to the tallies is remembered, so saving a launch
+ * again with a different outcome, price or orbit replaces its old contribution,
+ * and deleting it removes it. Reading a leaderboard costs O(k). Revenue is
+ * summed as {@link Money}, in long arithmetic unless it overflows.
+ */
+public class LaunchLeaderboards implements DAOListener {
+    private final Map<Object, Contribution> contributions = new HashMap<>();
+
+    private final Map<Rocket, Long> successfulLaunchesPerRocket = new HashMap<>();
+
+    private final Leaderboard<Rocket, Long> mostLaunchedRockets = new Leaderboard<>();
+
+    private final Map<LaunchServiceProvider, long[]> outcomesPerProvider = new HashMap<>();
+
+    private final Leaderboard<LaunchServiceProvider, Double> mostReliableProviders = new Leaderboard<>();
+
+    private final Leaderboard<LaunchServiceProvider, Double> leastReliableProviders = new Leaderboard<>();
+
+    private final Map<Integer, Map<LaunchServiceProvider, Revenue>> revenuePerYear = new HashMap<>();
+
+    private final Map<Integer, Leaderboard<LaunchServiceProvider, Money>> highestRevenueProviders = new HashMap<>();
+
+    private final Map<String, Map<String, Long>> successfulLaunchesPerOrbit = new HashMap<>();
+
+    private final Map<String, Leaderboard<String, Long>> dominantCountries = new HashMap<>();
+
+    /**
+     * Discards all tallies and recomputes them from the given launches.
+     */
+    public synchronized void rebuild(Collection<Launch> launches) {
+        notNull(launches, "Launches cannot be null");
+        contributions.clear();
+        successfulLaunchesPerRocket.clear();
+        mostLaunchedRockets.clear();
+        outcomesPerProvider.clear();
+        mostReliableProviders.clear();
+        leastReliableProviders.clear();
+        revenuePerYear.clear();
+        highestRevenueProviders.clear();
+        successfulLaunchesPerOrbit.clear();
+        dominantCountries.clear();
+        for (Launch launch : launches) {
+            update(launch);
+        }
+    }
+
+    @Override
+    public void onSaved(Entity entity) {
+        if (entity instanceof Launch) {
+            update((Launch) entity);
+        }
+    }
+
+    @Override
+    public void onDeleted(Entity entity) {
+        if (entity instanceof Launch) {
+            remove((Launch) entity);
+        }
+    }
+
+    public synchronized void update(Launch launch) {
+        Contribution contribution = new Contribution(launch);
+        Contribution old = contributions.put(keyOf(launch), contribution);
+        if (null != old) {
+            apply(old, -1);
+        }
+        apply(contribution, 1);
+    }
+
+    /**
+     * Adds a launch to the tallies without remembering its contribution, for
+     * append-only streams of launches. Memory then grows with the number of
+     * rockets, providers, years and orbits rather than with the number of
+     * launches, but the launch cannot be updated or removed later.
+     */
+    public synchronized void add(Launch launch) {
+        notNull(launch, "Launch cannot be null");
+        apply(new Contribution(launch), 1);
+    }
+
+    public synchronized void remove(Launch launch) {
+        Contribution old = contributions.remove(keyOf(launch));
+        if (null != old) {
+            apply(old, -1);
+        }
+    }
+
+    private static Object keyOf(Launch launch) {
+        return null == launch.getId() ? new IdentityKey(launch) : launch.getId();
+    }
+
+    private void apply(Contribution c, int sign) {
+        if (c.successful() && null != c.rocket) {
+            long count = successfulLaunchesPerRocket.merge(c.rocket, (long) sign, Long::sum);
+            if (count <= 0) {
+                successfulLaunchesPerRocket.remove(c.rocket);
+                mostLaunchedRockets.remove(c.rocket);
+            } else {
+                mostLaunchedRockets.put(c.rocket, count);
+            }
+        }
+        if (null == c.lsp) {
+            return;
+        }
+
+        long[] outcomes = outcomesPerProvider.computeIfAbsent(c.lsp, lsp -> new long[3]);
+        outcomes[0] += sign;
+        outcomes[1] += c.successful() ? sign : 0;
+        outcomes[2] += c.failed() ? sign : 0;
+        if (outcomes[0] <= 0) {
+            outcomesPerProvider.remove(c.lsp);
+            mostReliableProviders.remove(c.lsp);
+            leastReliableProviders.remove(c.lsp);
+        } else {
+            mostReliableProviders.put(c.lsp, (double) outcomes[1] / outcomes[0]);
+            leastReliableProviders.put(c.lsp, (double) outcomes[2] / outcomes[0]);
+        }
+
+        if (null != c.year && null != c.price) {
+            Map<LaunchServiceProvider, Revenue> revenues = revenuePerYear.computeIfAbsent(c.year, year -> new HashMap<>());
+            Leaderboard<LaunchServiceProvider, Money> leaderboard =
+                    highestRevenueProviders.computeIfAbsent(c.year, year -> new Leaderboard<>());
+            Revenue revenue = revenues.computeIfAbsent(c.lsp, lsp -> new Revenue());
+            revenue.launches += sign;
+            revenue.total = sign > 0 ? revenue.total.add(c.price) : revenue.total.subtract(c.price);
+            if (revenue.launches <= 0) {
+                revenues.remove(c.lsp);
+                leaderboard.remove(c.lsp);
+            } else {
+                leaderboard.put(c.lsp, revenue.total);
+            }
+        }
+
+        if (c.successful() && null != c.orbit && null != c.country) {
+            Map<String, Long> countries = successfulLaunchesPerOrbit.computeIfAbsent(c.orbit, orbit -> new HashMap<>());
+            Leaderboard<String, Long> leaderboard = dominantCountries.computeIfAbsent(c.orbit, orbit -> new Leaderboard<>());
+            long count = countries.merge(c.country, (long) sign, Long::sum);
+            if (count <= 0) {
+                countries.remove(c.country);
+                leaderboard.remove(c.country);
+            } else {
+                leaderboard.put(c.country, count);
+            }
+        }
+    }
+
+    public synchronized List<Rocket> mostLaunchedRockets(int k) {
+        if (k < 0 || mostLaunchedRockets.size() < k) {
+            throw new IllegalArgumentException("Less rockets retrieved than requested");
+        }
+        return mostLaunchedRockets.top(k);
+    }
+
+    public synchronized List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k) {
+        if (k < 0 || mostReliableProviders.size() < k) {
+            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        }
+        return mostReliableProviders.top(k);
+    }
+
+    public synchronized List<LaunchServiceProvider> leastReliableLaunchServiceProviders(int k) {
+        if (k < 0 || leastReliableProviders.size() < k) {
+            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        }
+        return leastReliableProviders.top(k);
+    }
+
+    public synchronized List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
+        Leaderboard<LaunchServiceProvider, Money> leaderboard = highestRevenueProviders.get(year);
+        if (k < 0 || null == leaderboard || leaderboard.size() < k) {
+            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        }
+        return leaderboard.top(k);
+    }
+
+    // the first k of each leaderboard, or all of it if it is shorter
+
+    synchronized List<Rocket> mostLaunchedRocketsUpTo(int k) {
+        return mostLaunchedRockets.top(k);
+    }
+
+    synchronized List<LaunchServiceProvider> mostReliableLaunchServiceProvidersUpTo(int k) {
+        return mostReliableProviders.top(k);
+    }
+
+    synchronized List<LaunchServiceProvider> leastReliableLaunchServiceProvidersUpTo(int k) {
+        return leastReliableProviders.top(k);
+    }
+
+    synchronized List<LaunchServiceProvider> highestRevenueLaunchServiceProvidersUpTo(int k, int year) {
+        Leaderboard<LaunchServiceProvider, Money> leaderboard = highestRevenueProviders.get(year);
+        return null == leaderboard ? Collections.emptyList() : leaderboard.top(k);
+    }
+
+    public synchronized String dominantCountry(String orbit) {
+        notBlank(orbit, "Cannot be Blank");
+        Leaderboard<String, Long> leaderboard = dominantCountries.get(orbit);
+        if (null == leaderboard || 0 == leaderboard.size()) {
+            return "No Rocket in this Orbit";
+        }
+        return leaderboard.top(1).get(0);
+    }
+
+    // What a launch added to the tallies when it was last seen.
+    private static class Contribution {
+        private final Rocket rocket;
+
+        private final LaunchServiceProvider lsp;
+
+        private final Integer year;
+
+        private final Money price;
+
+        private final String orbit;
+
+        private final String country;
+
+        private final Launch.LaunchOutcome outcome;
+
+        private Contribution(Launch launch) {
+            rocket = launch.getLaunchVehicle();
+            lsp = launch.getLaunchServiceProvider();
+            year = null == launch.getLaunchDate() ? null : launch.getLaunchDate().getYear();
+            price = launch.getPriceAsMoney();
+            orbit = launch.getOrbit();
+            country = null == lsp ? null : lsp.getCountry();
+            outcome = launch.getLaunchOutcome();
+        }
+
+        private boolean successful() {
+            return Launch.LaunchOutcome.SUCCESSFUL.equals(outcome);
+        }
+
+        private boolean failed() {
+            return Launch.LaunchOutcome.FAILED.equals(outcome);
+        }
+    }
+
+    private static class Revenue {
+        private int launches;
+
+        private Money total = Money.ZERO;
+    }
+
+    // Identifies launches that have not been saved yet and so have no id.
+    private static class IdentityKey {
+        private final Launch launch;
+
+        private IdentityKey(Launch launch) {
+            this.launch = launch;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).launch == launch;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(launch);
+        }
+    }
+}
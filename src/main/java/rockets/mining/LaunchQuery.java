@@ -0,0 +1,228 @@
+package rockets.mining;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A filter, group by, aggregate and top-k query over launches, e.g. the three
+ * providers with the highest success rate to GTO from 2015 to 2018:
+ * <pre>{@code
+ * LaunchQuery.groupBy(LaunchDimension.PROVIDER)
+ *         .filter(LaunchFilter.orbit("GTO").and(LaunchFilter.years(2015, 2018)))
+ *         .orderBy(LaunchAggregate.SUCCESS_RATE)
+ *         .top(3);
+ * }</pre>
+ * A query is compiled against {@link LaunchColumns} into one loop over the rows
+ * that keeps its aggregates in arrays indexed by group code. Queries run
+ * together with {@link #runAll(LaunchColumns, Collection)} share that loop, so
+ * any number of reports costs a single scan. Queries are immutable; every
+ * builder method returns a new query.
+ *
+ * @param <K> the type of the group keys
+ */
+public class LaunchQuery<K> {
+    private final LaunchDimension<K> dimension;
+
+    private final LaunchFilter filter;
+
+    private final LaunchAggregate order;
+
+    private final boolean ascending;
+
+    private final int limit;
+
+    private LaunchQuery(LaunchDimension<K> dimension, LaunchFilter filter, LaunchAggregate order, boolean ascending, int limit) {
+        this.dimension = dimension;
+        this.filter = filter;
+        this.order = order;
+        this.ascending = ascending;
+        this.limit = limit;
+    }
+
+    /**
+     * @return a query for every group of the dimension, most launches first.
+     */
+    public static <K> LaunchQuery<K> groupBy(LaunchDimension<K> dimension) {
+        notNull(dimension, "Dimension cannot be null");
+        return new LaunchQuery<>(dimension, null, LaunchAggregate.COUNT, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return this query restricted to the launches matching the filter as well.
+     */
+    public LaunchQuery<K> filter(LaunchFilter filter) {
+        notNull(filter, "Filter cannot be null");
+        return new LaunchQuery<>(dimension, null == this.filter ? filter : this.filter.and(filter), order, ascending, limit);
+    }
+
+    /**
+     * @return this query with groups ranked by the aggregate, highest first unless {@link #ascending()}.
+     */
+    public LaunchQuery<K> orderBy(LaunchAggregate aggregate) {
+        notNull(aggregate, "Aggregate cannot be null");
+        return new LaunchQuery<>(dimension, filter, aggregate, ascending, limit);
+    }
+
+    /**
+     * @return this query with groups ranked lowest first.
+     */
+    public LaunchQuery<K> ascending() {
+        return new LaunchQuery<>(dimension, filter, order, true, limit);
+    }
+
+    /**
+     * @return this query returning at most the first k groups.
+     */
+    public LaunchQuery<K> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("K cannot be negative");
+        }
+        return new LaunchQuery<>(dimension, filter, order, ascending, k);
+    }
+
+    /**
+     * @return the groups with at least one matching launch, ranked; groups
+     * ranked equally stay in the order they first appear in.
+     */
+    public List<LaunchGroup<K>> run(LaunchColumns columns) {
+        return runAll(columns, Collections.singletonList(this)).get(this);
+    }
+
+    /**
+     * Runs several queries in a single scan of the columns.
+     */
+    public static Results runAll(LaunchColumns columns, Collection<? extends LaunchQuery<?>> queries) {
+        notNull(columns, "Launch columns cannot be null");
+        notNull(queries, "Queries cannot be null");
+        Compiled<?>[] compiled = new Compiled<?>[queries.size()];
+        int i = 0;
+        for (LaunchQuery<?> query : queries) {
+            notNull(query, "Query cannot be null");
+            compiled[i++] = new Compiled<>(query, columns);
+        }
+
+        for (int row = 0; row < columns.size(); row++) {
+            for (Compiled<?> query : compiled) {
+                query.accumulate(row);
+            }
+        }
+
+        Results results = new Results();
+        for (Compiled<?> query : compiled) {
+            results.results.put(query.query, query.groups());
+        }
+        return results;
+    }
+
+    /**
+     * The results of queries run together, by query.
+     */
+    public static class Results {
+        private final Map<LaunchQuery<?>, List<?>> results = new IdentityHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        public <K> List<LaunchGroup<K>> get(LaunchQuery<K> query) {
+            List<?> groups = results.get(query);
+            if (null == groups) {
+                throw new IllegalArgumentException("Query was not run");
+            }
+            return (List<LaunchGroup<K>>) groups;
+        }
+    }
+
+    /**
+     * A query bound to columns, with its aggregates per group code.
+     */
+    private static class Compiled<K> {
+        private final LaunchQuery<K> query;
+
+        private final LaunchColumns columns;
+
+        private final IntPredicate filter;
+
+        private final long[] launches;
+
+        private final long[] successful;
+
+        private final long[] revenue;
+
+        // the revenue of groups whose revenue does not fit a scaled long, otherwise null
+        private final BigDecimal[] exactRevenue;
+
+        Compiled(LaunchQuery<K> query, LaunchColumns columns) {
+            this.query = query;
+            this.columns = columns;
+            filter = null == query.filter ? null : query.filter.bind(columns);
+            int codes = query.dimension.codes(columns);
+            launches = new long[codes];
+            successful = new long[codes];
+            revenue = new long[codes];
+            exactRevenue = new BigDecimal[codes];
+        }
+
+        void accumulate(int row) {
+            if (null != filter && !filter.test(row)) {
+                return;
+            }
+            int code = query.dimension.code(columns, row);
+            if (Dictionary.NONE == code) {
+                return;
+            }
+            launches[code]++;
+            if (columns.isSuccessful(row)) {
+                successful[code]++;
+            }
+            if (!columns.hasPrice(row)) {
+                return;
+            }
+            if (null == exactRevenue[code] && columns.hasScaledPrice(row)) {
+                try {
+                    revenue[code] = Math.addExact(revenue[code], columns.scaledPrice(row));
+                    return;
+                } catch (ArithmeticException e) {
+                    // falls back to BigDecimal below
+                }
+            }
+            if (null == exactRevenue[code]) {
+                exactRevenue[code] = BigDecimal.valueOf(revenue[code], LaunchColumns.PRICE_SCALE);
+            }
+            exactRevenue[code] = exactRevenue[code].add(columns.price(row));
+        }
+
+        private BigDecimal revenue(int code) {
+            return null == exactRevenue[code] ? BigDecimal.valueOf(revenue[code], LaunchColumns.PRICE_SCALE) : exactRevenue[code];
+        }
+
+        private int compare(int a, int b) {
+            switch (query.order) {
+                case SUCCESS_RATE:
+                    return Double.compare((double) successful[a] / launches[a], (double) successful[b] / launches[b]);
+                case SUM_PRICE:
+                    if (null == exactRevenue[a] && null == exactRevenue[b]) {
+                        return Long.compare(revenue[a], revenue[b]);
+                    }
+                    return revenue(a).compareTo(revenue(b));
+                default:
+                    return Long.compare(launches[a], launches[b]);
+            }
+        }
+
+        List<LaunchGroup<K>> groups() {
+            Comparator<Integer> best = query.ascending ? this::compare : (a, b) -> compare(b, a);
+            TopK<Integer> top = new TopK<>(Math.min(query.limit, launches.length), best);
+            for (int code = 0; code < launches.length; code++) {
+                if (launches[code] > 0) {
+                    top.offer(code);
+                }
+            }
+            List<LaunchGroup<K>> groups = new ArrayList<>();
+            for (int code : top.toList()) {
+                groups.add(new LaunchGroup<>(query.dimension.decode(columns, code), launches[code], successful[code], revenue(code)));
+            }
+            return groups;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.notBlank;
+
+/**
+ * A ranking maintained by a {@link LaunchStream}, which listeners can follow.
+ *
+ * @param <T> the type of the ranked elements
+ */
+public abstract class LaunchRanking<T> {
+    public static final LaunchRanking<Rocket> MOST_LAUNCHED_ROCKETS =
+            new LaunchRanking<Rocket>("most launched rockets") {
+                @Override
+                List<Rocket> top(LaunchStream stream, int k) {
+                    return stream.leaderboards().mostLaunchedRocketsUpTo(k);
+                }
+            };
+
+    public static final LaunchRanking<LaunchServiceProvider> MOST_RELIABLE_LAUNCH_SERVICE_PROVIDERS =
+            new LaunchRanking<LaunchServiceProvider>("most reliable launch service providers") {
+                @Override
+                List<LaunchServiceProvider> top(LaunchStream stream, int k) {
+                    return stream.leaderboards().mostReliableLaunchServiceProvidersUpTo(k);
+                }
+            };
+
+    public static final LaunchRanking<LaunchServiceProvider> LEAST_RELIABLE_LAUNCH_SERVICE_PROVIDERS =
+            new LaunchRanking<LaunchServiceProvider>("least reliable launch service providers") {
+                @Override
+                List<LaunchServiceProvider> top(LaunchStream stream, int k) {
+                    return stream.leaderboards().leastReliableLaunchServiceProvidersUpTo(k);
+                }
+            };
+
+    public static final LaunchRanking<Launch> MOST_RECENT_LAUNCHES = new LaunchesRanking("most recent launches");
+
+    public static final LaunchRanking<Launch> MOST_RECENT_FAILED_LAUNCHES = new LaunchesRanking("most recent failed launches");
+
+    public static final LaunchRanking<Launch> MOST_EXPENSIVE_LAUNCHES = new LaunchesRanking("most expensive launches");
+
+    public static final LaunchRanking<Launch> MOST_EXPENSIVE_FAILED_LAUNCHES = new LaunchesRanking("most expensive failed launches");
+
+    public static final LaunchRanking<Launch> MOST_AFFORDABLE_LAUNCHES = new LaunchesRanking("most affordable launches");
+
+    private final String name;
+
+    private LaunchRanking(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the providers ranked by their revenue in a year.
+     */
+    public static LaunchRanking<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int year) {
+        return new LaunchRanking<LaunchServiceProvider>("highest revenue launch service providers in " + year) {
+            @Override
+            List<LaunchServiceProvider> top(LaunchStream stream, int k) {
+                return stream.leaderboards().highestRevenueLaunchServiceProvidersUpTo(k, year);
+            }
+        };
+    }
+
+    /**
+     * @return the country with the most successful launches to an orbit, as a
+     * ranking of at most one country.
+     */
+    public static LaunchRanking<String> dominantCountry(String orbit) {
+        notBlank(orbit, "Cannot be Blank");
+        return new LaunchRanking<String>("dominant country in " + orbit) {
+            @Override
+            List<String> top(LaunchStream stream, int k) {
+                String country = stream.leaderboards().dominantCountry(orbit);
+                return 0 == k || "No Rocket in this Orbit".equals(country) ? Collections.emptyList() : Collections.singletonList(country);
+            }
+        };
+    }
+
+    /**
+     * @return the first k elements of the ranking, or all of them if there are fewer.
+     */
+    abstract List<T> top(LaunchStream stream, int k);
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    // the rankings of launches, each kept in its own bounded top-k by the stream
+    private static class LaunchesRanking extends LaunchRanking<Launch> {
+        private LaunchesRanking(String name) {
+            super(name);
+        }
+
+        @Override
+        List<Launch> top(LaunchStream stream, int k) {
+            List<Launch> launches = stream.launches(this);
+            return launches.subList(0, Math.min(k, launches.size()));
+        }
+    }
+}
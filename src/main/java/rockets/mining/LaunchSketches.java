@@ -0,0 +1,200 @@
+package rockets.mining;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Approximate launch analytics in memory that does not grow with the number of
+ * launches added.
+ * <p>
+ * Successful launches per rocket are counted by a {@link CountMinSketch}, whose
+ * estimates feed a bounded set of heavy-hitter candidates; distinct payloads,
+ * launch sites and rockets are counted by {@link HyperLogLog}s; and prices are
+ * summarized per provider by {@link TDigest}s. Every answer is an {@link Estimate}
+ * with bounds. Launches can only be added: updated or deleted launches are
+ * reflected by building new sketches.
+ */
+public class LaunchSketches {
+    public static final int DEFAULT_HEAVY_HITTERS = 64;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private static final double EPSILON = 0.001;
+
+    private static final double DELTA = 0.01;
+
+    private static final int PRECISION = 14;
+
+    private static final double COMPRESSION = 100;
+
+    // distinct counts are given within two standard errors, about 95% of the time
+    private static final double STANDARD_ERRORS = 2;
+
+    private final CountMinSketch rocketLaunches = new CountMinSketch(EPSILON, DELTA);
+
+    private final int heavyHitters;
+
+    // the rockets with the highest estimates so far, in the order they became candidates
+    private final Map<Rocket, Long> candidates = new LinkedHashMap<>();
+
+    private final HyperLogLog payloads = new HyperLogLog(PRECISION);
+
+    private final HyperLogLog sites = new HyperLogLog(PRECISION);
+
+    private final HyperLogLog rockets = new HyperLogLog(PRECISION);
+
+    private final Map<LaunchServiceProvider, TDigest> prices = new HashMap<>();
+
+    private long launches;
+
+    public LaunchSketches() {
+        this(DEFAULT_HEAVY_HITTERS);
+    }
+
+    /**
+     * @param heavyHitters the number of rockets tracked as candidates for the most launched
+     */
+    public LaunchSketches(int heavyHitters) {
+        if (heavyHitters < 1) {
+            throw new IllegalArgumentException("Heavy hitters cannot be less than 1");
+        }
+        this.heavyHitters = heavyHitters;
+    }
+
+    public static LaunchSketches of(Collection<Launch> launches) {
+        notNull(launches, "Launches cannot be null");
+        LaunchSketches sketches = new LaunchSketches();
+        launches.forEach(sketches::add);
+        return sketches;
+    }
+
+    private static long hash(String value) {
+        return HASH.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+
+    private static long hash(Rocket rocket) {
+        LaunchServiceProvider manufacturer = rocket.getManufacturer();
+        return hash(rocket.getName() + '\0' + rocket.getCountry() + '\0'
+                + (null == manufacturer ? "" : manufacturer.getName()));
+    }
+
+    public synchronized void add(Launch launch) {
+        notNull(launch, "Launch cannot be null");
+        launches++;
+        Rocket rocket = launch.getLaunchVehicle();
+        if (null != rocket) {
+            long hash = hash(rocket);
+            rockets.add(hash);
+            if (Launch.LaunchOutcome.SUCCESSFUL == launch.getLaunchOutcome()) {
+                rocketLaunches.add(hash, 1);
+                offer(rocket, rocketLaunches.estimate(hash));
+            }
+        }
+        if (null != launch.getPayload()) {
+            for (String payload : launch.getPayload()) {
+                if (null != payload) {
+                    payloads.add(hash(payload));
+                }
+            }
+        }
+        if (null != launch.getLaunchSite()) {
+            sites.add(hash(launch.getLaunchSite()));
+        }
+        if (null != launch.getLaunchServiceProvider() && null != launch.getPrice()) {
+            prices.computeIfAbsent(launch.getLaunchServiceProvider(), lsp -> new TDigest(COMPRESSION))
+                    .add(launch.getPriceAsMoney().doubleValue());
+        }
+    }
+
+    // keeps the rocket as a candidate if its estimate beats the lowest candidate's
+    private void offer(Rocket rocket, long estimate) {
+        if (candidates.containsKey(rocket) || candidates.size() < heavyHitters) {
+            candidates.put(rocket, estimate);
+            return;
+        }
+        Map.Entry<Rocket, Long> lowest = null;
+        for (Map.Entry<Rocket, Long> candidate : candidates.entrySet()) {
+            if (null == lowest || candidate.getValue() < lowest.getValue()) {
+                lowest = candidate;
+            }
+        }
+        if (estimate > lowest.getValue()) {
+            candidates.remove(lowest.getKey());
+            candidates.put(rocket, estimate);
+        }
+    }
+
+    public synchronized long size() {
+        return launches;
+    }
+
+    /**
+     * Returns the approximate top-k rockets by successful launches, with the
+     * number of successful launches of each. The counts never undercount and are
+     * within their bounds with probability {@link CountMinSketch#confidence()}.
+     *
+     * @param k the number of rockets, at most the number of heavy hitters tracked
+     * @return the rockets and their launch counts, most launched first.
+     */
+    public synchronized Map<Rocket, Estimate> mostLaunchedRockets(int k) {
+        if (k < 0 || k > heavyHitters || candidates.size() < k) {
+            throw new IllegalArgumentException("Less rockets retrieved than requested");
+        }
+        List<Map.Entry<Rocket, Long>> ranked = new ArrayList<>(candidates.entrySet());
+        ranked.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        double error = rocketLaunches.error();
+        Map<Rocket, Estimate> results = new LinkedHashMap<>();
+        for (Map.Entry<Rocket, Long> candidate : ranked.subList(0, k)) {
+            long count = candidate.getValue();
+            results.put(candidate.getKey(), new Estimate(count, Math.max(0, count - error), count));
+        }
+        return results;
+    }
+
+    private static Estimate distinct(HyperLogLog sketch) {
+        double estimate = sketch.estimate();
+        double error = STANDARD_ERRORS * sketch.relativeStandardError() * estimate;
+        return new Estimate(estimate, Math.max(0, estimate - error), estimate + error);
+    }
+
+    public synchronized Estimate distinctPayloads() {
+        return distinct(payloads);
+    }
+
+    public synchronized Estimate distinctLaunchSites() {
+        return distinct(sites);
+    }
+
+    public synchronized Estimate distinctRockets() {
+        return distinct(rockets);
+    }
+
+    /**
+     * Returns the approximate launch price at a quantile of a provider's priced
+     * launches, bounded by the prices at the quantiles its rank may be off by.
+     *
+     * @param lsp the launch service provider
+     * @param q   the quantile, between 0 and 1, e.g. 0.5 for the median price
+     * @return the approximate price.
+     */
+    public synchronized Estimate priceQuantile(LaunchServiceProvider lsp, double q) {
+        notNull(lsp, "Launch service provider cannot be null");
+        TDigest digest = prices.get(lsp);
+        if (null == digest) {
+            throw new IllegalArgumentException("No priced launches of this launch service provider");
+        }
+        double price = digest.quantile(q);
+        double error = digest.rankError(q);
+        double lower = Math.min(price, digest.quantile(Math.max(0, q - error)));
+        double upper = Math.max(price, digest.quantile(Math.min(1, q + error)));
+        return new Estimate(price, lower, upper);
+    }
+}
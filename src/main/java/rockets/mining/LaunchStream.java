@@ -0,0 +1,213 @@
+package rockets.mining;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rockets.model.Launch;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Continuous top-k rankings over a stream of launches pushed to it.
+ * <p>
+ * Launches arrive through {@link #add(Launch)} or through subscribers from
+ * {@link #subscriber()}. The aggregate rankings keep one tally per rocket,
+ * provider, year and orbit, and the rankings of launches keep only their best
+ * {@link #getCapacity() capacity} launches, so memory does not grow with the
+ * number of launches. Listeners registered for a ranking are called when a
+ * launch changes its top-k, on the thread that pushed the launch.
+ */
+public class LaunchStream {
+    private static Logger logger = LoggerFactory.getLogger(LaunchStream.class);
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    // launches requested from a publisher at a time
+    private static final long BATCH = 64;
+
+    private final int capacity;
+
+    private final LaunchLeaderboards leaderboards = new LaunchLeaderboards();
+
+    private final Map<LaunchRanking<Launch>, Ranked> launchRankings = new LinkedHashMap<>();
+
+    private final List<Registration<?>> registrations = new ArrayList<>();
+
+    private long launches;
+
+    public LaunchStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the largest k the rankings of launches can be read with
+     */
+    public LaunchStream(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity cannot be less than 1");
+        }
+        this.capacity = capacity;
+        Comparator<Launch> mostRecent = (a, b) -> b.getLaunchDate().compareTo(a.getLaunchDate());
+        Comparator<Launch> mostExpensive = (a, b) -> b.getPriceAsMoney().compareTo(a.getPriceAsMoney());
+        launchRankings.put(LaunchRanking.MOST_RECENT_LAUNCHES,
+                new Ranked(launch -> null != launch.getLaunchDate(), mostRecent));
+        launchRankings.put(LaunchRanking.MOST_RECENT_FAILED_LAUNCHES,
+                new Ranked(launch -> failed(launch) && null != launch.getLaunchDate(), mostRecent));
+        launchRankings.put(LaunchRanking.MOST_EXPENSIVE_LAUNCHES,
+                new Ranked(launch -> null != launch.getPrice(), mostExpensive));
+        launchRankings.put(LaunchRanking.MOST_EXPENSIVE_FAILED_LAUNCHES,
+                new Ranked(launch -> failed(launch) && null != launch.getPrice(), mostExpensive));
+        launchRankings.put(LaunchRanking.MOST_AFFORDABLE_LAUNCHES,
+                new Ranked(launch -> successful(launch) && null != launch.getPrice(), mostExpensive.reversed()));
+    }
+
+    private static boolean successful(Launch launch) {
+        return Launch.LaunchOutcome.SUCCESSFUL == launch.getLaunchOutcome();
+    }
+
+    private static boolean failed(Launch launch) {
+        return Launch.LaunchOutcome.FAILED == launch.getLaunchOutcome();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of launches received.
+     */
+    public synchronized long size() {
+        return launches;
+    }
+
+    LaunchLeaderboards leaderboards() {
+        return leaderboards;
+    }
+
+    synchronized List<Launch> launches(LaunchRanking<Launch> ranking) {
+        return launchRankings.get(ranking).top.toList();
+    }
+
+    public synchronized void add(Launch launch) {
+        notNull(launch, "Launch cannot be null");
+        launches++;
+        leaderboards.add(launch);
+        for (Ranked ranked : launchRankings.values()) {
+            if (ranked.accepted.test(launch)) {
+                ranked.top.offer(launch);
+            }
+        }
+        for (Registration<?> registration : registrations) {
+            registration.update();
+        }
+    }
+
+    /**
+     * Returns the first k elements of a ranking, or all of them if there are fewer.
+     *
+     * @throws IllegalArgumentException if k is negative, or more launches than the
+     *                                  capacity are requested.
+     */
+    public synchronized <T> List<T> top(LaunchRanking<T> ranking, int k) {
+        notNull(ranking, "Ranking cannot be null");
+        if (k < 0 || (launchRankings.containsKey(ranking) && k > capacity)) {
+            throw new IllegalArgumentException("Less launches retrieved than requested");
+        }
+        return ranking.top(this, k);
+    }
+
+    /**
+     * Calls the listener whenever a launch changes the first k elements of the ranking.
+     */
+    public synchronized <T> void addListener(LaunchRanking<T> ranking, int k, RankingListener<T> listener) {
+        notNull(listener, "Listener cannot be null");
+        registrations.add(new Registration<>(ranking, k, listener, top(ranking, k)));
+    }
+
+    public synchronized void removeListener(RankingListener<?> listener) {
+        registrations.removeIf(registration -> registration.listener == listener);
+    }
+
+    /**
+     * Returns a new subscriber pushing the launches it receives to this stream.
+     * It requests launches in batches and can be subscribed once.
+     */
+    public Flow.Subscriber<Launch> subscriber() {
+        return new Subscriber();
+    }
+
+    // a ranking of the launches it accepts, keeping the best capacity of them
+    private class Ranked {
+        private final Predicate<Launch> accepted;
+
+        private final TopK<Launch> top;
+
+        private Ranked(Predicate<Launch> accepted, Comparator<Launch> best) {
+            this.accepted = accepted;
+            top = new TopK<>(capacity, best);
+        }
+    }
+
+    private class Registration<T> {
+        private final LaunchRanking<T> ranking;
+
+        private final int k;
+
+        private final RankingListener<T> listener;
+
+        private List<T> last;
+
+        private Registration(LaunchRanking<T> ranking, int k, RankingListener<T> listener, List<T> last) {
+            this.ranking = ranking;
+            this.k = k;
+            this.listener = listener;
+            this.last = last;
+        }
+
+        private void update() {
+            List<T> current = ranking.top(LaunchStream.this, k);
+            if (!current.equals(last)) {
+                last = current;
+                listener.onChange(current);
+            }
+        }
+    }
+
+    private class Subscriber implements Flow.Subscriber<Launch> {
+        private Flow.Subscription subscription;
+
+        private long received;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            notNull(subscription, "Subscription cannot be null");
+            if (null != this.subscription) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(BATCH);
+        }
+
+        @Override
+        public void onNext(Launch launch) {
+            add(launch);
+            if (++received % BATCH == 0) {
+                subscription.request(BATCH);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            notNull(throwable, "Throwable cannot be null");
+            logger.error("Launch stream failed after " + received + " launches", throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            logger.info("Launch stream completed after " + received + " launches");
+        }
+    }
+}
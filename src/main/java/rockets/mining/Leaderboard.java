@@ -0,0 +1,86 @@
+package rockets.mining;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A ranking of keys by value that is kept sorted as values change.
+ * <p>
+ * Updates cost O(log n) and reading the top-k keys costs O(k). Keys with equal
+ * values are ranked in the order they were first added.
+ *
+ * @param <K> the ranked keys
+ * @param <V> the values the keys are ranked by, highest first
+ */
+public class Leaderboard<K, V extends Comparable<V>> {
+    private final Map<K, Position<K, V>> positions = new HashMap<>();
+
+    private final TreeSet<Position<K, V>> ranking = new TreeSet<>(
+            Comparator.<Position<K, V>, V>comparing(position -> position.value).reversed()
+                    .thenComparingLong(position -> position.sequence));
+
+    private long sequence;
+
+    public void put(K key, V value) {
+        notNull(key, "Key cannot be null");
+        notNull(value, "Value cannot be null");
+        Position<K, V> old = positions.get(key);
+        if (null != old) {
+            if (old.value.compareTo(value) == 0) {
+                return;
+            }
+            ranking.remove(old);
+        }
+        Position<K, V> position = new Position<>(key, value, null == old ? sequence++ : old.sequence);
+        positions.put(key, position);
+        ranking.add(position);
+    }
+
+    public void remove(K key) {
+        Position<K, V> old = positions.remove(key);
+        if (null != old) {
+            ranking.remove(old);
+        }
+    }
+
+    public V get(K key) {
+        Position<K, V> position = positions.get(key);
+        return null == position ? null : position.value;
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public void clear() {
+        positions.clear();
+        ranking.clear();
+    }
+
+    /**
+     * @return the k keys with the highest values, highest first
+     */
+    public List<K> top(int k) {
+        List<K> keys = new ArrayList<>(Math.min(k, positions.size()));
+        Iterator<Position<K, V>> iterator = ranking.iterator();
+        while (keys.size() < k && iterator.hasNext()) {
+            keys.add(iterator.next().key);
+        }
+        return keys;
+    }
+
+    private static class Position<K, V> {
+        private final K key;
+
+        private final V value;
+
+        private final long sequence;
+
+        private Position(K key, V value, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.sequence = sequence;
+        }
+    }
+}
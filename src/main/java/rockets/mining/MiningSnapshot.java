@@ -0,0 +1,382 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+import static org.apache.commons.lang3.Validate.notBlank;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A point-in-time view over a collection of launches.
+ * <p>
+ * All the aggregates backing the RocketMiner leaderboards are computed in a single
+ * pass over the {@link LaunchColumns} when the snapshot is created, so any number
+ * of leaderboards can be read from one load of the launches.
+ */
+public class MiningSnapshot {
+    private final LaunchColumns columns;
+
+    private final long[] successfulLaunchesPerRocket;
+
+    private final long[] launchesPerProvider;
+
+    private final long[] successfulLaunchesPerProvider;
+
+    private final long[] failedLaunchesPerProvider;
+
+    private final long[][] successfulLaunchesPerOrbitAndCountry;
+
+    // the country code with the most successful launches to each orbit code
+    private final int[] dominantCountryPerOrbit;
+
+    private LaunchDateIndex dateIndex;
+
+    private RevenueCube revenueCube;
+
+    private LaunchBitmapIndex bitmapIndex;
+
+    public MiningSnapshot(Collection<Launch> launches) {
+        this(LaunchColumns.of(launches));
+    }
+
+    public MiningSnapshot(LaunchColumns columns) {
+        notNull(columns, "Launch columns cannot be null");
+        this.columns = columns;
+        int providers = columns.providers().size();
+        successfulLaunchesPerRocket = new long[columns.rockets().size()];
+        launchesPerProvider = new long[providers];
+        successfulLaunchesPerProvider = new long[providers];
+        failedLaunchesPerProvider = new long[providers];
+        successfulLaunchesPerOrbitAndCountry = new long[columns.orbits().size()][columns.countries().size()];
+
+        for (int row = 0; row < columns.size(); row++) {
+            boolean successful = columns.isSuccessful(row);
+            int rocket = columns.rocket(row);
+            int lsp = columns.provider(row);
+
+            if (successful && Dictionary.NONE != rocket) {
+                successfulLaunchesPerRocket[rocket]++;
+            }
+            if (Dictionary.NONE == lsp) {
+                continue;
+            }
+            launchesPerProvider[lsp]++;
+            if (successful) {
+                successfulLaunchesPerProvider[lsp]++;
+            } else if (columns.isFailed(row)) {
+                failedLaunchesPerProvider[lsp]++;
+            }
+
+            int country = columns.providerCountry(lsp);
+            if (successful && Dictionary.NONE != columns.orbit(row) && Dictionary.NONE != country) {
+                successfulLaunchesPerOrbitAndCountry[columns.orbit(row)][country]++;
+            }
+        }
+
+        dominantCountryPerOrbit = new int[successfulLaunchesPerOrbitAndCountry.length];
+        for (int orbit = 0; orbit < dominantCountryPerOrbit.length; orbit++) {
+            long[] launches = successfulLaunchesPerOrbitAndCountry[orbit];
+            int dominant = Dictionary.NONE;
+            for (int country = 0; country < launches.length; country++) {
+                // ties go to the first country by name, as in the database
+                if (launches[country] > 0 && (Dictionary.NONE == dominant || launches[country] > launches[dominant]
+                        || launches[country] == launches[dominant]
+                        && columns.countries().decode(country).compareTo(columns.countries().decode(dominant)) < 0)) {
+                    dominant = country;
+                }
+            }
+            dominantCountryPerOrbit[orbit] = dominant;
+        }
+    }
+
+    /**
+     * Returns the top-k codes among those accepted, best first.
+     */
+    private static List<Integer> topCodes(int codes, int k, IntPredicate accepted, Comparator<Integer> best) {
+        TopK<Integer> top = new TopK<>(k, best);
+        for (int code = 0; code < codes; code++) {
+            if (accepted.test(code)) {
+                top.offer(code);
+            }
+        }
+        return top.toList();
+    }
+
+    private static int count(int codes, IntPredicate accepted) {
+        int count = 0;
+        for (int code = 0; code < codes; code++) {
+            if (accepted.test(code)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static <T> List<T> decode(Dictionary<T> dictionary, List<Integer> codes) {
+        List<T> values = new ArrayList<>(codes.size());
+        for (int code : codes) {
+            values.add(dictionary.decode(code));
+        }
+        return values;
+    }
+
+    public LaunchColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the launches of the snapshot, loading every one its columns do not keep.
+     */
+    public List<Launch> getLaunches() {
+        return columns.launches();
+    }
+
+    /**
+     * @return the launches sorted by date, built on first use.
+     */
+    public synchronized LaunchDateIndex dateIndex() {
+        if (null == dateIndex) {
+            dateIndex = new LaunchDateIndex(columns);
+        }
+        return dateIndex;
+    }
+
+    /**
+     * @return the revenue of every provider in every year, built on first use.
+     */
+    public synchronized RevenueCube revenueCube() {
+        if (null == revenueCube) {
+            revenueCube = new RevenueCube(columns);
+        }
+        return revenueCube;
+    }
+
+    /**
+     * @return the launch rows per outcome, orbit, site, provider and year, built on first use.
+     */
+    public synchronized LaunchBitmapIndex bitmapIndex() {
+        if (null == bitmapIndex) {
+            bitmapIndex = new LaunchBitmapIndex(columns);
+        }
+        return bitmapIndex;
+    }
+
+    /**
+     * @return the result of a query over the launches of the snapshot.
+     */
+    public <K> List<LaunchGroup<K>> query(LaunchQuery<K> query) {
+        notNull(query, "Query cannot be null");
+        return query.run(columns);
+    }
+
+    /**
+     * @return the results of several queries, computed in one scan of the launches.
+     */
+    public LaunchQuery.Results queryAll(Collection<? extends LaunchQuery<?>> queries) {
+        return LaunchQuery.runAll(columns, queries);
+    }
+
+    public List<Rocket> mostLaunchedRockets(int k) {
+        IntPredicate launched = rocket -> successfulLaunchesPerRocket[rocket] > 0;
+        if (k < 0 || count(successfulLaunchesPerRocket.length, launched) < k) {
+            throw new IllegalArgumentException("Less rockets retrieved than requested");
+        }
+        return decode(columns.rockets(), topCodes(successfulLaunchesPerRocket.length, k, launched,
+                (a, b) -> Long.compare(successfulLaunchesPerRocket[b], successfulLaunchesPerRocket[a])));
+    }
+
+    private List<LaunchServiceProvider> highestRate(int k, long[] counts) {
+        if (k < 0 || launchesPerProvider.length < k) {
+            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        }
+        return decode(columns.providers(), topCodes(launchesPerProvider.length, k, lsp -> true,
+                (a, b) -> Double.compare((double) counts[b] / launchesPerProvider[b],
+                        (double) counts[a] / launchesPerProvider[a])));
+    }
+
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k) {
+        return highestRate(k, successfulLaunchesPerProvider);
+    }
+
+    public List<LaunchServiceProvider> leastReliableLaunchServiceProviders(int k) {
+        return highestRate(k, failedLaunchesPerProvider);
+    }
+
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
+        return revenueCube().highestRevenueLaunchServiceProviders(k, year, year);
+    }
+
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        return revenueCube().highestRevenueLaunchServiceProviders(k, fromYear, toYear);
+    }
+
+    public String dominantCountry(String orbit) {
+        notBlank(orbit, "Cannot be Blank");
+        notNull(orbit, "Cannot be Null");
+
+        int code = columns.orbits().codeOf(orbit);
+        if (Dictionary.NONE == code || Dictionary.NONE == dominantCountryPerOrbit[code]) {
+            return "No Rocket in this Orbit";
+        }
+        return columns.countries().decode(dominantCountryPerOrbit[code]);
+    }
+
+    /**
+     * Returns the dominant country of each of the given orbits.
+     *
+     * @param orbits the orbits
+     * @return the dominant country of each orbit, in the order of the orbits
+     */
+    public Map<String, String> dominantCountries(Collection<String> orbits) {
+        notNull(orbits, "Orbits cannot be null");
+        Map<String, String> countries = new LinkedHashMap<>();
+        for (String orbit : orbits) {
+            countries.put(orbit, dominantCountry(orbit));
+        }
+        return countries;
+    }
+
+    /**
+     * @return the dominant country of every orbit with a successful launch.
+     */
+    public Map<String, String> dominantCountryByOrbit() {
+        Map<String, String> countries = new LinkedHashMap<>();
+        for (int orbit = 0; orbit < dominantCountryPerOrbit.length; orbit++) {
+            if (Dictionary.NONE != dominantCountryPerOrbit[orbit]) {
+                countries.put(columns.orbits().decode(orbit), columns.countries().decode(dominantCountryPerOrbit[orbit]));
+            }
+        }
+        return countries;
+    }
+
+    /**
+     * @return the number of successful launches to an orbit per country, for the
+     * countries with at least one.
+     */
+    public Map<String, Long> successfulLaunchesPerCountry(String orbit) {
+        notBlank(orbit, "Cannot be Blank");
+        Map<String, Long> launches = new LinkedHashMap<>();
+        int code = columns.orbits().codeOf(orbit);
+        if (Dictionary.NONE != code) {
+            long[] counts = successfulLaunchesPerOrbitAndCountry[code];
+            for (int country = 0; country < counts.length; country++) {
+                if (counts[country] > 0) {
+                    launches.put(columns.countries().decode(country), counts[country]);
+                }
+            }
+        }
+        return launches;
+    }
+
+    private List<Launch> topLaunches(int k, IntPredicate accepted, Comparator<Integer> best) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Less launches retrieved than requested");
+        }
+        return toLaunches(topCodes(columns.size(), k, accepted, best), k);
+    }
+
+    private List<Launch> toLaunches(List<Integer> rows, int k) {
+        if (rows.size() < k) {
+            throw new IllegalArgumentException("Less launches retrieved than requested");
+        }
+        return columns.launches(rows.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public List<Launch> mostRecentLaunches(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Less launches retrieved than requested");
+        }
+        return toLaunches(dateIndex().mostRecentRows(k, row -> true), k);
+    }
+
+    public List<Launch> mostRecentFailedLaunches(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Less launches retrieved than requested");
+        }
+        return toLaunches(dateIndex().mostRecentRows(k, columns::isFailed), k);
+    }
+
+    public List<Launch> mostExpensiveLaunches(int k) {
+        return topLaunches(k, columns::hasPrice, (a, b) -> columns.comparePrices(b, a));
+    }
+
+    public List<Launch> mostExpensiveFailedLaunches(int k) {
+        return topLaunches(k, row -> columns.isFailed(row) && columns.hasPrice(row), (a, b) -> columns.comparePrices(b, a));
+    }
+
+    public List<Launch> mostAffordableLaunches(int k) {
+        return topLaunches(k, row -> columns.isSuccessful(row) && columns.hasPrice(row), columns::comparePrices);
+    }
+
+    // the price per kilogram of capacity of each successful, priced launch of a rocket with a known capacity, otherwise NaN
+    private double[] pricesPerKilogram(IntToDoubleFunction capacity) {
+        double[] prices = new double[columns.size()];
+        for (int row = 0; row < prices.length; row++) {
+            double kilograms = capacity.applyAsDouble(columns.rocket(row));
+            prices[row] = columns.isSuccessful(row) && columns.hasPrice(row) && kilograms > 0
+                    ? columns.approximatePrice(row) / kilograms : Double.NaN;
+        }
+        return prices;
+    }
+
+    private List<Launch> cheapestLaunchesPerKilogram(int k, IntToDoubleFunction capacity) {
+        double[] prices = pricesPerKilogram(capacity);
+        return topLaunches(k, row -> !Double.isNaN(prices[row]), (a, b) -> Double.compare(prices[a], prices[b]));
+    }
+
+    private List<LaunchServiceProvider> cheapestLaunchServiceProvidersPerKilogram(int k, IntToDoubleFunction capacity) {
+        double[] prices = pricesPerKilogram(capacity);
+        double[] cheapest = new double[columns.providers().size()];
+        Arrays.fill(cheapest, Double.NaN);
+        for (int row = 0; row < prices.length; row++) {
+            int lsp = columns.provider(row);
+            if (Dictionary.NONE != lsp && !Double.isNaN(prices[row])
+                    && (Double.isNaN(cheapest[lsp]) || prices[row] < cheapest[lsp])) {
+                cheapest[lsp] = prices[row];
+            }
+        }
+        IntPredicate priced = lsp -> !Double.isNaN(cheapest[lsp]);
+        if (k < 0 || count(cheapest.length, priced) < k) {
+            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        }
+        return decode(columns.providers(), topCodes(cheapest.length, k, priced,
+                (a, b) -> Double.compare(cheapest[a], cheapest[b])));
+    }
+
+    /**
+     * @return the successful launches with the lowest price per kilogram their
+     * rocket can lift to LEO, cheapest first.
+     */
+    public List<Launch> cheapestLaunchesPerKilogramToLEO(int k) {
+        return cheapestLaunchesPerKilogram(k, columns::kilogramsToLEO);
+    }
+
+    /**
+     * @return the successful launches with the lowest price per kilogram their
+     * rocket can lift to GTO, cheapest first.
+     */
+    public List<Launch> cheapestLaunchesPerKilogramToGTO(int k) {
+        return cheapestLaunchesPerKilogram(k, columns::kilogramsToGTO);
+    }
+
+    /**
+     * @return the providers ranked by the lowest price per kilogram to LEO of any
+     * of their successful launches, cheapest first.
+     */
+    public List<LaunchServiceProvider> cheapestLaunchServiceProvidersPerKilogramToLEO(int k) {
+        return cheapestLaunchServiceProvidersPerKilogram(k, columns::kilogramsToLEO);
+    }
+
+    /**
+     * @return the providers ranked by the lowest price per kilogram to GTO of any
+     * of their successful launches, cheapest first.
+     */
+    public List<LaunchServiceProvider> cheapestLaunchServiceProvidersPerKilogramToGTO(int k) {
+        return cheapestLaunchServiceProvidersPerKilogram(k, columns::kilogramsToGTO);
+    }
+}
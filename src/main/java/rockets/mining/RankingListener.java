@@ -0,0 +1,17 @@
+package rockets.mining;
+
+import java.util.List;
+
+/**
+ * Receives the new top-k of a {@link LaunchRanking} whenever it changes.
+ *
+ * @param <T> the type of the ranked elements
+ */
+@FunctionalInterface
+public interface RankingListener<T> {
+    /**
+     * Called with the first k of the ranking, or all of it if it is shorter,
+     * after a launch has changed them.
+     */
+    void onChange(List<T> top);
+}
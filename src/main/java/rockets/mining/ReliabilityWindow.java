@@ -0,0 +1,228 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAOListener;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Launch service provider reliability over a sliding window, either each
+ * provider's last N launches or the last N years of launches.
+ * <p>
+ * Launches are added in date order. Each provider keeps the outcomes inside its
+ * window and running counts of them, so adding a launch and evicting the ones
+ * that slide out of the window are O(1) amortized, and ranking providers reads
+ * only the counts. Launches without a date cannot be placed in a window and are
+ * ignored.
+ * <p>
+ * As a {@link DAOListener}, launches saved in date order are added as they
+ * arrive; saving an earlier launch or one still in the window, or deleting one,
+ * marks the window {@link #isStale() stale} until it is rebuilt.
+ */
+public class ReliabilityWindow implements DAOListener {
+    private final int size;
+
+    private final boolean years;
+
+    private final Map<LaunchServiceProvider, Outcomes> providers = new LinkedHashMap<>();
+
+    // the ids of the launches in the window; a launch saved again after it left
+    // the window can be added as a new one
+    private final Set<Long> added = new HashSet<>();
+
+    private LocalDate latest;
+
+    private boolean stale;
+
+    private ReliabilityWindow(int size, boolean years) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size cannot be less than 1");
+        }
+        this.size = size;
+        this.years = years;
+    }
+
+    /**
+     * @return a window over the last given number of launches of each provider.
+     */
+    public static ReliabilityWindow lastLaunches(int launches) {
+        return new ReliabilityWindow(launches, false);
+    }
+
+    /**
+     * @return a window over the launches of the last given number of years, up to
+     * the year of the latest launch.
+     */
+    public static ReliabilityWindow lastYears(int years) {
+        return new ReliabilityWindow(years, true);
+    }
+
+    /**
+     * Discards the window and refills it from the given launches in date order.
+     */
+    public synchronized void rebuild(Collection<Launch> launches) {
+        notNull(launches, "Launches cannot be null");
+        providers.clear();
+        added.clear();
+        latest = null;
+        stale = false;
+        List<Launch> dated = new ArrayList<>();
+        for (Launch launch : launches) {
+            if (null != launch.getLaunchDate()) {
+                dated.add(launch);
+            }
+        }
+        dated.sort(Comparator.comparing(Launch::getLaunchDate));
+        dated.forEach(this::add);
+    }
+
+    /**
+     * Adds a launch to the window.
+     *
+     * @throws IllegalArgumentException if the launch is dated before the latest launch added.
+     */
+    public synchronized void add(Launch launch) {
+        notNull(launch, "Launch cannot be null");
+        LocalDate date = launch.getLaunchDate();
+        if (null == date) {
+            return;
+        }
+        if (null != latest && date.isBefore(latest)) {
+            throw new IllegalArgumentException("Launches must be added in date order");
+        }
+        latest = date;
+        if (null != launch.getLaunchServiceProvider()) {
+            if (null != launch.getId()) {
+                added.add(launch.getId());
+            }
+            providers.computeIfAbsent(launch.getLaunchServiceProvider(), lsp -> new Outcomes())
+                    .add(date.getYear(), launch.getLaunchOutcome(), launch.getId());
+        }
+    }
+
+    @Override
+    public synchronized void onSaved(Entity entity) {
+        if (!(entity instanceof Launch) || stale) {
+            return;
+        }
+        Launch launch = (Launch) entity;
+        if (null == launch.getLaunchDate()) {
+            return;
+        }
+        if (added.contains(launch.getId()) || (null != latest && launch.getLaunchDate().isBefore(latest))) {
+            stale = true;
+        } else {
+            add(launch);
+        }
+    }
+
+    @Override
+    public synchronized void onDeleted(Entity entity) {
+        if (entity instanceof Launch && null != ((Launch) entity).getLaunchDate()) {
+            stale = true;
+        }
+    }
+
+    /**
+     * @return whether launches were changed in a way the window cannot follow, so
+     * it has to be rebuilt.
+     */
+    public synchronized boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return the number of launches of a provider in the window.
+     */
+    public synchronized int launches(LaunchServiceProvider lsp) {
+        Outcomes outcomes = providers.get(lsp);
+        return null == outcomes ? 0 : outcomes.evict().launches;
+    }
+
+    public synchronized List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k) {
+        return highestRate(k, outcomes -> outcomes.successful);
+    }
+
+    public synchronized List<LaunchServiceProvider> leastReliableLaunchServiceProviders(int k) {
+        return highestRate(k, outcomes -> outcomes.failed);
+    }
+
+    private List<LaunchServiceProvider> highestRate(int k, ToIntFunction<Outcomes> count) {
+        List<LaunchServiceProvider> launched = new ArrayList<>();
+        Map<LaunchServiceProvider, Double> rates = new HashMap<>();
+        for (Map.Entry<LaunchServiceProvider, Outcomes> entry : providers.entrySet()) {
+            Outcomes outcomes = entry.getValue().evict();
+            if (outcomes.launches > 0) {
+                launched.add(entry.getKey());
+                rates.put(entry.getKey(), (double) count.applyAsInt(outcomes) / outcomes.launches);
+            }
+        }
+        if (k < 0 || launched.size() < k) {
+            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        }
+        TopK<LaunchServiceProvider> top = new TopK<>(k, (a, b) -> Double.compare(rates.get(b), rates.get(a)));
+        launched.forEach(top::offer);
+        return top.toList();
+    }
+
+    /**
+     * The outcomes of one provider's launches in the window, oldest first, with
+     * the year of each and running counts.
+     */
+    private class Outcomes {
+        private int[] ring = new int[4];
+
+        private Long[] ids = new Long[4];
+
+        private int head;
+
+        private int launches;
+
+        private int successful;
+
+        private int failed;
+
+        // a launch is stored as its year shifted left past two outcome bits
+        void add(int year, Launch.LaunchOutcome outcome, Long id) {
+            if (launches == ring.length) {
+                int[] grown = new int[ring.length * 2];
+                Long[] grownIds = new Long[ring.length * 2];
+                for (int i = 0; i < launches; i++) {
+                    grown[i] = ring[(head + i) % ring.length];
+                    grownIds[i] = ids[(head + i) % ring.length];
+                }
+                ring = grown;
+                ids = grownIds;
+                head = 0;
+            }
+            int bits = Launch.LaunchOutcome.SUCCESSFUL == outcome ? 1 : Launch.LaunchOutcome.FAILED == outcome ? 2 : 0;
+            ring[(head + launches) % ring.length] = year << 2 | bits;
+            ids[(head + launches) % ring.length] = id;
+            launches++;
+            successful += bits & 1;
+            failed += bits >> 1;
+            evict();
+        }
+
+        Outcomes evict() {
+            while (launches > 0 && (years ? (ring[head] >> 2) <= latest.getYear() - size : launches > size)) {
+                int bits = ring[head] & 3;
+                successful -= bits & 1;
+                failed -= bits >> 1;
+                if (null != ids[head]) {
+                    added.remove(ids[head]);
+                    ids[head] = null;
+                }
+                head = (head + 1) % ring.length;
+                launches--;
+            }
+            return this;
+        }
+    }
+}
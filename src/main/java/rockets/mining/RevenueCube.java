@@ -0,0 +1,204 @@
+package rockets.mining;
+
+import rockets.model.LaunchServiceProvider;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Launch revenue per provider and year, with prefix sums over the years.
+ * <p>
+ * The revenue of any provider over any range of years is a difference of two
+ * prefix sums, so ranking all providers over a range costs O(providers) however
+ * many years it spans. Sums are exact fixed-point longs scaled like
+ * {@link LaunchColumns} prices; providers whose revenue does not fit are summed
+ * as BigDecimal instead.
+ */
+public class RevenueCube {
+    private final Dictionary<LaunchServiceProvider> providers;
+
+    private final int firstYear;
+
+    private final int years;
+
+    // [provider][year - firstYear + 1], the revenue of all years before
+    private final long[][] prefix;
+
+    // the same prefix sums for providers whose revenue overflows longs, otherwise null
+    private final BigDecimal[][] exactPrefix;
+
+    // [provider][year - firstYear + 1], the number of priced launches of all years before
+    private final int[][] pricedPrefix;
+
+    public RevenueCube(LaunchColumns columns) {
+        notNull(columns, "Launch columns cannot be null");
+        providers = columns.providers();
+
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int row = 0; row < columns.size(); row++) {
+            if (counted(columns, row)) {
+                first = Math.min(first, columns.launchYear(row));
+                last = Math.max(last, columns.launchYear(row));
+            }
+        }
+        firstYear = first;
+        years = first > last ? 0 : last - first + 1;
+
+        int size = providers.size();
+        long[][] cells = new long[size][years];
+        BigDecimal[][] exactCells = new BigDecimal[size][];
+        int[][] pricedCells = new int[size][years];
+        for (int row = 0; row < columns.size(); row++) {
+            if (!counted(columns, row)) {
+                continue;
+            }
+            int lsp = columns.provider(row);
+            int year = columns.launchYear(row) - firstYear;
+            pricedCells[lsp][year]++;
+            if (null == exactCells[lsp] && columns.hasScaledPrice(row)) {
+                try {
+                    cells[lsp][year] = Math.addExact(cells[lsp][year], columns.scaledPrice(row));
+                    continue;
+                } catch (ArithmeticException e) {
+                    // falls back to BigDecimal below
+                }
+            }
+            if (null == exactCells[lsp]) {
+                exactCells[lsp] = toBigDecimals(cells[lsp]);
+            }
+            exactCells[lsp][year] = exactCells[lsp][year].add(columns.price(row));
+        }
+
+        prefix = new long[size][years + 1];
+        exactPrefix = new BigDecimal[size][];
+        pricedPrefix = new int[size][years + 1];
+        for (int lsp = 0; lsp < size; lsp++) {
+            for (int year = 0; year < years; year++) {
+                pricedPrefix[lsp][year + 1] = pricedPrefix[lsp][year] + pricedCells[lsp][year];
+            }
+            if (null == exactCells[lsp]) {
+                try {
+                    for (int year = 0; year < years; year++) {
+                        prefix[lsp][year + 1] = Math.addExact(prefix[lsp][year], cells[lsp][year]);
+                    }
+                    continue;
+                } catch (ArithmeticException e) {
+                    exactCells[lsp] = toBigDecimals(cells[lsp]);
+                }
+            }
+            exactPrefix[lsp] = new BigDecimal[years + 1];
+            exactPrefix[lsp][0] = BigDecimal.ZERO;
+            for (int year = 0; year < years; year++) {
+                exactPrefix[lsp][year + 1] = exactPrefix[lsp][year].add(exactCells[lsp][year]);
+            }
+        }
+    }
+
+    private static boolean counted(LaunchColumns columns, int row) {
+        return Dictionary.NONE != columns.provider(row)
+                && LaunchColumns.NO_DATE != columns.launchYear(row)
+                && columns.hasPrice(row);
+    }
+
+    private static BigDecimal[] toBigDecimals(long[] scaled) {
+        BigDecimal[] values = new BigDecimal[scaled.length];
+        for (int i = 0; i < scaled.length; i++) {
+            values[i] = BigDecimal.valueOf(scaled[i], LaunchColumns.PRICE_SCALE);
+        }
+        return values;
+    }
+
+    // prefix positions of a year range, clamped to the years in the cube
+    private int start(int fromYear) {
+        return (int) Math.max(0, Math.min(years, (long) fromYear - firstYear));
+    }
+
+    private int end(int toYear) {
+        return (int) Math.max(0, Math.min(years, (long) toYear - firstYear + 1));
+    }
+
+    private static void requireRange(int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("From year cannot be after to year");
+        }
+    }
+
+    /**
+     * @return the number of priced launches of a provider between two years, both inclusive.
+     */
+    public int pricedLaunches(LaunchServiceProvider lsp, int fromYear, int toYear) {
+        requireRange(fromYear, toYear);
+        int code = providers.codeOf(lsp);
+        return Dictionary.NONE == code ? 0 : pricedPrefix[code][end(toYear)] - pricedPrefix[code][start(fromYear)];
+    }
+
+    /**
+     * @return the revenue of a provider between two years, both inclusive.
+     */
+    public BigDecimal revenue(LaunchServiceProvider lsp, int fromYear, int toYear) {
+        requireRange(fromYear, toYear);
+        int code = providers.codeOf(lsp);
+        if (Dictionary.NONE == code) {
+            return BigDecimal.ZERO;
+        }
+        return revenue(code, start(fromYear), end(toYear));
+    }
+
+    private BigDecimal revenue(int code, int start, int end) {
+        if (null != exactPrefix[code]) {
+            return exactPrefix[code][end].subtract(exactPrefix[code][start]);
+        }
+        return BigDecimal.valueOf(prefix[code][end] - prefix[code][start], LaunchColumns.PRICE_SCALE);
+    }
+
+    /**
+     * Returns the top-k providers by revenue between two years, both inclusive,
+     * among the providers with priced launches in those years.
+     */
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        requireRange(fromYear, toYear);
+        int start = start(fromYear);
+        int end = end(toYear);
+        int size = providers.size();
+
+        List<Integer> earning = new ArrayList<>();
+        boolean exact = false;
+        for (int code = 0; code < size; code++) {
+            if (pricedPrefix[code][end] > pricedPrefix[code][start]) {
+                earning.add(code);
+                exact |= null != exactPrefix[code];
+            }
+        }
+        if (k < 0 || earning.size() < k) {
+            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        }
+
+        Comparator<Integer> highestRevenue;
+        if (exact) {
+            BigDecimal[] revenue = new BigDecimal[size];
+            for (int code : earning) {
+                revenue[code] = revenue(code, start, end);
+            }
+            highestRevenue = (a, b) -> revenue[b].compareTo(revenue[a]);
+        } else {
+            long[] revenue = new long[size];
+            for (int code : earning) {
+                revenue[code] = prefix[code][end] - prefix[code][start];
+            }
+            highestRevenue = (a, b) -> Long.compare(revenue[b], revenue[a]);
+        }
+        TopK<Integer> top = new TopK<>(k, highestRevenue);
+        earning.forEach(top::offer);
+
+        List<LaunchServiceProvider> results = new ArrayList<>(k);
+        for (int code : top.toList()) {
+            results.add(providers.decode(code));
+        }
+        return results;
+    }
+}
@@ -2,14 +2,23 @@ package rockets.mining;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import rockets.dataaccess.AggregatingDAO;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.DAOListener;
+import rockets.dataaccess.Score;
+import rockets.model.Entity;
 import rockets.model.Launch;
 import rockets.model.LaunchServiceProvider;
 import rockets.model.Rocket;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 import static org.apache.commons.lang3.Validate.notBlank;
 import static org.apache.commons.lang3.Validate.notNull;
 
@@ -17,29 +26,302 @@ import static org.apache.commons.lang3.Validate.notNull;
 public class RocketMiner {
     private static Logger logger = LoggerFactory.getLogger(RocketMiner.class);
 
+    private static final String ROCKETS_MESSAGE = "Less rockets retrieved than requested";
+
+    private static final String PROVIDERS_MESSAGE = "Less launch service providers retrieved than requested";
+
+    private static final String LAUNCHES_MESSAGE = "Less launches retrieved than requested";
+
+    // launches streamed per batch into the sketches, which stay the same size however many there are
+    private static final int SKETCH_BATCH_SIZE = 1000;
+
     private DAO dao;
 
+    private LaunchLeaderboards leaderboards;
+
+    private final Map<String, ReliabilityWindow> reliabilityWindows = new ConcurrentHashMap<>();
+
+    // forwards DAO writes to the reliability windows, subscribed while there are any
+    private final DAOListener reliabilityUpdater = new DAOListener() {
+        @Override
+        public void onSaved(Entity entity) {
+            reliabilityWindows.values().forEach(window -> window.onSaved(entity));
+        }
+
+        @Override
+        public void onDeleted(Entity entity) {
+            reliabilityWindows.values().forEach(window -> window.onDeleted(entity));
+        }
+    };
+
+    private LaunchStream stream;
+
+    // publishes the snapshots queries read, or null if queries load the launches
+    private final SnapshotPublisher snapshots;
+
+    // the snapshot loaded last and the data version it was loaded at, guarded by this
+    private MiningSnapshot latest;
+
+    private long latestVersion;
 
     public RocketMiner(DAO dao) {
         this.dao = dao;
+        snapshots = null;
+    }
+
+    /**
+     * Creates a miner whose queries read immutable snapshots, rebuilt on the
+     * executor as the data is written to, so they can run concurrently without
+     * locking and without loading the launches.
+     *
+     * @param dao      the DAO
+     * @param executor the executor the snapshots are rebuilt on
+     */
+    public RocketMiner(DAO dao, Executor executor) {
+        this.dao = dao;
+        snapshots = new SnapshotPublisher(dao, executor);
+    }
+
+    /**
+     * Like {@link #RocketMiner(DAO, Executor)}, but starts from the snapshot file
+     * if there is one, so queries are answered right away while the launches are
+     * loaded in the background, and saves snapshots to it. Call {@link #close()}
+     * on shutdown to save the latest one.
+     *
+     * @param dao          the DAO
+     * @param executor     the executor the snapshots are rebuilt on
+     * @param snapshotFile the file snapshots are restored from and saved to
+     */
+    public RocketMiner(DAO dao, Executor executor, Path snapshotFile) {
+        notNull(snapshotFile, "Snapshot file cannot be null");
+        this.dao = dao;
+        snapshots = new SnapshotPublisher(dao, executor, snapshotFile);
+    }
+
+    /**
+     * Stops following DAO writes with published snapshots and reliability
+     * windows, saving the latest snapshot to the snapshot file if there is one.
+     */
+    public void close() {
+        if (null != snapshots) {
+            snapshots.close();
+        }
+        synchronized (this) {
+            if (!reliabilityWindows.isEmpty()) {
+                reliabilityWindows.clear();
+                dao.removeListener(reliabilityUpdater);
+            }
+        }
     }
 
     /**
-     * Generic
+     * Loads all launches once and aggregates every leaderboard in a single pass.
      * <p>
-     * Returns top-k highest key value in a map
-     * @param m A map between an abitrary key and a comparable value
-     * @param k    the number
-     * @return the list of top k keys in increasing order
+     * Callers that need several leaderboards (e.g. a dashboard) should query the
+     * returned snapshot instead of calling the methods below one by one. The
+     * snapshot, and the indexes built over it, are reused until the
+     * {@link DAO#getDataVersion() data version} moves on, so only the first query
+     * after a write loads the launches again. A miner created with an executor
+     * returns its latest published snapshot instead, without loading.
+     *
+     * @return a snapshot of the launches currently in the database.
      */
-    private <M extends Map<K, V>, V extends Comparable<V>, K> List<K> sortMapInDecreasingOrder(M m, int k) {
-        return m.entrySet()
-                .stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .limit(k)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    public MiningSnapshot snapshot() {
+        if (null != snapshots) {
+            return snapshots.get();
+        }
+        long version = dao.getDataVersion();
+        synchronized (this) {
+            if (null != latest && version == latestVersion) {
+                return latest;
+            }
+        }
+        logger.info("Load launches for mining snapshot");
+        Collection<Launch> launches = dao.loadAll(Launch.class);
+        MiningSnapshot snapshot = new MiningSnapshot(LaunchColumns.of(launches, this::loadLaunches));
+        // a write during the load moves the version past the one kept here
+        synchronized (this) {
+            latest = snapshot;
+            latestVersion = version;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the DAO as an {@link AggregatingDAO} if it can run the mining
+     * aggregations itself, or null if the launches have to be aggregated here.
+     */
+    private AggregatingDAO aggregatingDAO() {
+        // published snapshots answer without a round trip, and consistently with each other
+        if (null != snapshots) {
+            return null;
+        }
+        if (dao instanceof AggregatingDAO && ((AggregatingDAO) dao).isAggregationSupported()) {
+            return (AggregatingDAO) dao;
+        }
+        return null;
+    }
 
+    private <T extends Entity> List<T> loadScored(Class<T> clazz, List<Score<Long>> scores, int k, String message) {
+        if (scores.size() < k) {
+            throw new IllegalArgumentException(message);
+        }
+        // providers are returned without their rockets, rockets with their manufacturer
+        int depth = LaunchServiceProvider.class.equals(clazz) ? DAO.DEPTH_PROPERTIES : DAO.DEPTH_RELATED;
+        List<T> entities = new ArrayList<>(scores.size());
+        for (Score<Long> score : scores) {
+            entities.add(dao.load(clazz, score.getKey(), depth));
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the date index of the snapshot, or, if the DAO aggregates, one
+     * over just the launch dates and prices, loaded without the launches.
+     */
+    private LaunchDateIndex dateIndex() {
+        if (null == aggregatingDAO()) {
+            return snapshot().dateIndex();
+        }
+        logger.info("Load launch dates and prices");
+        List<Launch> launches = new ArrayList<>();
+        for (Map<String, Object> row : dao.loadProperties(Launch.class, "launchDate", "price")) {
+            Launch launch = new Launch();
+            launch.setLaunchDate((LocalDate) row.get("launchDate"));
+            launch.setPrice((BigDecimal) row.get("price"));
+            launches.add(launch);
+        }
+        return new LaunchDateIndex(LaunchColumns.of(launches));
+    }
+
+    private List<Launch> loadLaunches(List<Long> ids, int k) {
+        if (ids.size() < k) {
+            throw new IllegalArgumentException("Less launches retrieved than requested");
+        }
+        List<Launch> launches = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            launches.add(dao.load(Launch.class, id));
+        }
+        return launches;
+    }
+
+    // loads the launches the snapshot returns, leaving out those deleted since it was loaded
+    private List<Launch> loadLaunches(List<Long> ids) {
+        List<Launch> launches = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Launch launch = dao.load(Launch.class, id);
+            if (null != launch) {
+                launches.add(launch);
+            }
+        }
+        return launches;
+    }
+
+    private static void requireNonNegative(int k, String message) {
+        if (k < 0) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Returns leaderboards that are kept up to date as launches are saved or
+     * deleted through the DAO.
+     * <p>
+     * The first call builds them from all launches in the database and subscribes
+     * them to DAO writes; later calls return the same, live, leaderboards.
+     *
+     * @return the live leaderboards.
+     */
+    public synchronized LaunchLeaderboards leaderboards() {
+        if (null == leaderboards) {
+            logger.info("Build materialized leaderboards");
+            leaderboards = new LaunchLeaderboards();
+            leaderboards.rebuild(dao.loadAll(Launch.class));
+            dao.addListener(leaderboards);
+        }
+        return leaderboards;
+    }
+
+    /**
+     * Rebuilds the live leaderboards from scratch, e.g. after the database was
+     * written to without going through the DAO.
+     */
+    public synchronized void rebuildLeaderboards() {
+        if (null == leaderboards) {
+            leaderboards();
+        } else {
+            leaderboards.rebuild(dao.loadAll(Launch.class));
+        }
+    }
+
+    /**
+     * Returns the continuous rankings of the launches pushed to the miner through
+     * {@link #subscribe()}. Unlike {@link #leaderboards()}, they start empty and
+     * never read the DAO.
+     *
+     * @return the rankings of the pushed launches.
+     */
+    public synchronized LaunchStream stream() {
+        if (null == stream) {
+            stream = new LaunchStream();
+        }
+        return stream;
+    }
+
+    /**
+     * Returns a new subscriber for a publisher of launch results. Every launch it
+     * receives updates the rankings of {@link #stream()} and notifies their listeners.
+     *
+     * @return a subscriber feeding the miner's launch stream.
+     */
+    public Flow.Subscriber<Launch> subscribe() {
+        return stream().subscriber();
+    }
+
+    /**
+     * Returns a reliability window kept up to date as launches are saved through
+     * the DAO, built from all launches on first use and again whenever it went stale.
+     */
+    private synchronized ReliabilityWindow reliabilityWindow(String key, ReliabilityWindow window) {
+        ReliabilityWindow existing = reliabilityWindows.get(key);
+        if (null == existing) {
+            logger.info("Build reliability window over " + key);
+            window.rebuild(dao.loadAll(Launch.class));
+            if (reliabilityWindows.isEmpty()) {
+                dao.addListener(reliabilityUpdater);
+            }
+            reliabilityWindows.put(key, window);
+            return window;
+        }
+        if (existing.isStale()) {
+            logger.info("Rebuild stale reliability window over " + key);
+            existing.rebuild(dao.loadAll(Launch.class));
+        }
+        return existing;
+    }
+
+    /**
+     * Stops keeping a reliability window up to date and forgets it, so that asking
+     * for a window of its size again builds a new one.
+     */
+    public synchronized void dropReliabilityWindow(ReliabilityWindow window) {
+        if (reliabilityWindows.values().remove(window) && reliabilityWindows.isEmpty()) {
+            dao.removeListener(reliabilityUpdater);
+        }
+    }
+
+    /**
+     * @return the live reliability of each provider over its last given number of launches.
+     */
+    public ReliabilityWindow reliabilityOverLastLaunches(int launches) {
+        return reliabilityWindow("last " + launches + " launches", ReliabilityWindow.lastLaunches(launches));
+    }
+
+    /**
+     * @return the live reliability of each provider over the last given number of years.
+     */
+    public ReliabilityWindow reliabilityOverLastYears(int years) {
+        return reliabilityWindow("last " + years + " years", ReliabilityWindow.lastYears(years));
     }
 
     /**
@@ -52,17 +334,12 @@ public class RocketMiner {
      */
     public List<Rocket> mostLaunchedRockets(int k) {
         logger.info(String.format("Find most active %d rockets" , k));
-
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Map<Rocket, Long> launchRate = launches.stream()
-                .filter(launch -> launch.getLaunchOutcome() == Launch.LaunchOutcome.SUCCESSFUL)
-                .collect(Collectors.groupingBy(Launch::getLaunchVehicle, Collectors.counting())
-                );
-
-        if (k < 0 || launchRate.size() < k) {
-            throw new IllegalArgumentException("Less rockets retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, ROCKETS_MESSAGE);
+            return loadScored(Rocket.class, aggregating.mostLaunchedRocketIds(k), k, ROCKETS_MESSAGE);
         }
-        return sortMapInDecreasingOrder(launchRate, k);
+        return snapshot().mostLaunchedRockets(k);
     }
 
     /**
@@ -76,20 +353,13 @@ public class RocketMiner {
      */
     public List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k) {
         logger.info(String.format("Find most reliable %d launches" , k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-
-        Map<LaunchServiceProvider, Double> launchRate = launches.stream()
-                .collect(Collectors.groupingBy(Launch::getLaunchServiceProvider,
-                        Collectors.mapping(Launch::getLaunchOutcome,
-                                Collectors.averagingDouble(successful -> Launch.LaunchOutcome.SUCCESSFUL.equals(successful) ? 1 : 0)
-                        )
-                        )
-                );
-        if (k < 0 || launchRate.size() < k) {
-            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, PROVIDERS_MESSAGE);
+            return loadScored(LaunchServiceProvider.class,
+                    aggregating.launchServiceProviderIdsByOutcomeRate(k, Launch.LaunchOutcome.SUCCESSFUL), k, PROVIDERS_MESSAGE);
         }
-        return sortMapInDecreasingOrder(launchRate, k);
-
+        return snapshot().mostReliableLaunchServiceProviders(k);
     }
 
     /**
@@ -101,18 +371,12 @@ public class RocketMiner {
      */
     public List<Launch> mostRecentLaunches(int k) {
         logger.info(String.format("find most recent %d launches" , k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Comparator<Launch> launchDateComparator = (a, b) -> -a.getLaunchDate().compareTo(b.getLaunchDate());
-
-        List<Launch> results = launches.stream()
-                .sorted(launchDateComparator)
-                .limit(k)
-                .collect(Collectors.toList());
-
-        if (k < 0 || results.size() < k) {
-            throw new IllegalArgumentException("Less launches retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, LAUNCHES_MESSAGE);
+            return loadLaunches(aggregating.mostRecentLaunchIds(k, null), k);
         }
-        return results;
+        return snapshot().mostRecentLaunches(k);
     }
 
     /**
@@ -129,23 +393,35 @@ public class RocketMiner {
         notBlank(orbit, "Cannot be Blank");
         notNull(orbit,"Cannot be Null");
 
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Map<LaunchServiceProvider, Long> launchRate = launches.stream()
-                .filter(launch -> launch.getLaunchOutcome().equals(Launch.LaunchOutcome.SUCCESSFUL))
-                .filter(launch -> launch.getOrbit().equals(orbit))
-                .collect(Collectors.groupingBy(Launch::getLaunchServiceProvider, Collectors.counting()));
-
-        Map<String, Long> rocketPerCountry = launchRate.entrySet().stream()
-                .collect(Collectors.groupingBy(entry -> entry.getKey().getCountry(),
-                        Collectors.summingLong(Map.Entry::getValue)
-                ));
-
-        if (sortMapInDecreasingOrder(rocketPerCountry, 1).isEmpty()) {
-            return "No Rocket in this Orbit";
-        } else {
-            return sortMapInDecreasingOrder(rocketPerCountry, 1).get(0);
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            List<Score<String>> countries = aggregating.dominantCountries(orbit, 1);
+            return countries.isEmpty() ? "No Rocket in this Orbit" : countries.get(0).getKey();
         }
+        return snapshot().dominantCountry(orbit);
+    }
+    /**
+     * Returns the dominant country of each of the given orbits, from a single
+     * load of the launches.
+     *
+     * @param orbits the orbits
+     * @return the dominant country of each orbit, in the order of the orbits
+     */
+    public Map<String, String> dominantCountries(Collection<String> orbits) {
+        logger.info(String.format("find most dominant countries in orbits %s", orbits));
+        return snapshot().dominantCountries(orbits);
+    }
+
+    /**
+     * Returns the dominant country of every orbit with a successful launch.
+     *
+     * @return the dominant country of each orbit
+     */
+    public Map<String, String> dominantCountryByOrbit() {
+        logger.info("find most dominant country in every orbit");
+        return snapshot().dominantCountryByOrbit();
     }
+
     /**
      * Implemented & tested!
      * <p>
@@ -156,17 +432,12 @@ public class RocketMiner {
      */
     public List<Launch> mostExpensiveLaunches(int k) {
         logger.info(String.format("find most expensive %d launches" , k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Comparator<Launch> launchPriceComparator = (a, b) -> a.getPrice().compareTo(b.getPrice());
-        List<Launch> results = launches.stream()
-                .sorted(Collections.reverseOrder(launchPriceComparator))
-                .limit(k)
-                .collect(Collectors.toList());
-
-        if (k < 0 || results.size() < k) {
-            throw new IllegalArgumentException("Less launches retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, LAUNCHES_MESSAGE);
+            return loadLaunches(aggregating.launchIdsByPrice(k, null, true), k);
         }
-        return results;
+        return snapshot().mostExpensiveLaunches(k);
     }
 
     /**
@@ -181,16 +452,27 @@ public class RocketMiner {
      */
     public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
         logger.info(String.format("find most expensive %d launches", k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-
-        Map<LaunchServiceProvider, BigDecimal> lspl = launches.stream()
-                .filter(launch -> launch.getLaunchDate().getYear() == year)
-                .collect(Collectors.groupingBy(Launch::getLaunchServiceProvider, Collectors.reducing(BigDecimal.ZERO , Launch::getPrice, BigDecimal::add)
-                ));
-        if (k < 0 || lspl.size() < k) {
-            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, PROVIDERS_MESSAGE);
+            return loadScored(LaunchServiceProvider.class,
+                    aggregating.highestRevenueLaunchServiceProviderIds(k, year), k, PROVIDERS_MESSAGE);
         }
-        return sortMapInDecreasingOrder(lspl, k);
+        return snapshot().highestRevenueLaunchServiceProviders(k, year);
+    }
+
+    /**
+     * Returns a list of launch service provider that has the top-k highest
+     * sales revenue over a range of years.
+     *
+     * @param k        the number of launch service provider.
+     * @param fromYear the first year, inclusive
+     * @param toYear   the last year, inclusive
+     * @return the list of k launch service providers who has the highest sales revenue.
+     */
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        logger.info(String.format("find %d highest revenue launch service providers from %d to %d", k, fromYear, toYear));
+        return snapshot().highestRevenueLaunchServiceProviders(k, fromYear, toYear);
     }
 
     // EXTENSION: ADDITIONAL FUNCTIONALITY
@@ -203,18 +485,12 @@ public class RocketMiner {
      */
     public List<Launch> mostRecentFailedLaunches(int k) {
         logger.info(String.format( "find %d most recent failed launches" , k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Comparator<Launch> launchComparator = (a, b) -> a.getLaunchDate().compareTo(b.getLaunchDate());
-
-        List<Launch> result = launches.stream()
-                .filter(launch -> launch.getLaunchOutcome().equals(Launch.LaunchOutcome.FAILED))
-                .sorted(launchComparator.reversed())
-                .collect(Collectors.toList());
-
-        if (k < 0 || result.size() < k) {
-            throw new IllegalArgumentException("Less launches retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, LAUNCHES_MESSAGE);
+            return loadLaunches(aggregating.mostRecentLaunchIds(k, Launch.LaunchOutcome.FAILED), k);
         }
-        return result.subList(0, k);
+        return snapshot().mostRecentFailedLaunches(k);
     }
 
 
@@ -229,19 +505,13 @@ public class RocketMiner {
      */
     public List<LaunchServiceProvider> leastReliableLaunchServiceProviders(int k) {
         logger.info(String.format("find least reliable %d launches" , k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-
-        Map<LaunchServiceProvider, Double> launchRate = launches.stream()
-                .collect(Collectors.groupingBy(Launch::getLaunchServiceProvider,
-                        Collectors.mapping(Launch::getLaunchOutcome,
-                                Collectors.averagingDouble(failed -> Launch.LaunchOutcome.FAILED.equals(failed) ? 1 : 0)
-                        )
-                        )
-                );
-        if (k < 0 || launchRate.size() < k) {
-            throw new IllegalArgumentException("Less launch service providers retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, PROVIDERS_MESSAGE);
+            return loadScored(LaunchServiceProvider.class,
+                    aggregating.launchServiceProviderIdsByOutcomeRate(k, Launch.LaunchOutcome.FAILED), k, PROVIDERS_MESSAGE);
         }
-        return sortMapInDecreasingOrder(launchRate, k);
+        return snapshot().leastReliableLaunchServiceProviders(k);
     }
 
 
@@ -255,19 +525,12 @@ public class RocketMiner {
      */
     public List<Launch> mostExpensiveFailedLaunches(int k) {
         logger.info(String.format("find %d most expensive failed launches", k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Comparator<Launch> launchPriceComparator = (a, b) -> a.getPrice().compareTo(b.getPrice());
-
-        List<Launch> result = launches.stream()
-                .filter(launch -> launch.getLaunchOutcome().equals(Launch.LaunchOutcome.FAILED))
-                .sorted(Collections.reverseOrder(launchPriceComparator))
-                .limit(k)
-                .collect(Collectors.toList());
-
-        if (k < 0 || result.size() < k) {
-            throw new IllegalArgumentException("Less launches retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, LAUNCHES_MESSAGE);
+            return loadLaunches(aggregating.launchIdsByPrice(k, Launch.LaunchOutcome.FAILED, true), k);
         }
-        return result;
+        return snapshot().mostExpensiveFailedLaunches(k);
     }
 
 
@@ -281,16 +544,235 @@ public class RocketMiner {
      */
     public List<Launch> mostAffordableLaunches(int k) {
         logger.info(String.format("find %d most affordable successful launches" , k));
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Comparator<Launch> launchPriceComparator = (a, b) -> a.getPrice().compareTo(b.getPrice());
-        List<Launch> result = launches.stream()
-                .filter(launch -> launch.getLaunchOutcome().equals(Launch.LaunchOutcome.SUCCESSFUL))
-                .sorted(launchPriceComparator)
-                .limit(k)
-                .collect(Collectors.toList());
-        if (k < 0 || result.size() < k) {
-            throw new IllegalArgumentException("Less launches retrieved than requested");
+        AggregatingDAO aggregating = aggregatingDAO();
+        if (null != aggregating) {
+            requireNonNegative(k, LAUNCHES_MESSAGE);
+            return loadLaunches(aggregating.launchIdsByPrice(k, Launch.LaunchOutcome.SUCCESSFUL, false), k);
         }
-        return result;
+        return snapshot().mostAffordableLaunches(k);
+    }
+
+    /**
+     * Returns the top-k successful launches with the lowest price per kilogram
+     * their rocket can lift to LEO. Launches of rockets whose capacity to LEO is
+     * unknown are left out.
+     *
+     * @param k the number of launches to be returned.
+     * @return the list of k cheapest launches per kilogram to LEO.
+     */
+    public List<Launch> cheapestLaunchesPerKilogramToLEO(int k) {
+        logger.info(String.format("find %d cheapest launches per kilogram to LEO", k));
+        return snapshot().cheapestLaunchesPerKilogramToLEO(k);
+    }
+
+    /**
+     * Returns the top-k successful launches with the lowest price per kilogram
+     * their rocket can lift to GTO. Launches of rockets whose capacity to GTO is
+     * unknown are left out.
+     *
+     * @param k the number of launches to be returned.
+     * @return the list of k cheapest launches per kilogram to GTO.
+     */
+    public List<Launch> cheapestLaunchesPerKilogramToGTO(int k) {
+        logger.info(String.format("find %d cheapest launches per kilogram to GTO", k));
+        return snapshot().cheapestLaunchesPerKilogramToGTO(k);
+    }
+
+    /**
+     * Returns the top-k launch service providers ranked by their cheapest
+     * successful launch per kilogram to LEO.
+     *
+     * @param k the number of launch service providers to be returned.
+     * @return the list of k launch service providers, cheapest first.
+     */
+    public List<LaunchServiceProvider> cheapestLaunchServiceProvidersPerKilogramToLEO(int k) {
+        logger.info(String.format("find %d cheapest launch service providers per kilogram to LEO", k));
+        return snapshot().cheapestLaunchServiceProvidersPerKilogramToLEO(k);
+    }
+
+    /**
+     * Returns the top-k launch service providers ranked by their cheapest
+     * successful launch per kilogram to GTO.
+     *
+     * @param k the number of launch service providers to be returned.
+     * @return the list of k launch service providers, cheapest first.
+     */
+    public List<LaunchServiceProvider> cheapestLaunchServiceProvidersPerKilogramToGTO(int k) {
+        logger.info(String.format("find %d cheapest launch service providers per kilogram to GTO", k));
+        return snapshot().cheapestLaunchServiceProvidersPerKilogramToGTO(k);
+    }
+
+
+    /**
+     * Returns the launches between two dates, both inclusive, oldest first.
+     *
+     * @param from the first launch date
+     * @param to   the last launch date
+     * @return the launches in the date range.
+     */
+    public List<Launch> launchesBetween(LocalDate from, LocalDate to) {
+        logger.info(String.format("find launches between %s and %s", from, to));
+        return snapshot().dateIndex().launchesBetween(from, to);
+    }
+
+    /**
+     * Returns the number of launches in each year between two dates, both inclusive.
+     * Years without launches are left out.
+     */
+    public SortedMap<Integer, Long> launchCountsPerYear(LocalDate from, LocalDate to) {
+        logger.info(String.format("count launches per year between %s and %s", from, to));
+        return dateIndex().launchCountsPerYear(from, to);
+    }
+
+    /**
+     * Returns the number of launches in each month between two dates, both inclusive.
+     * Months without launches are left out.
+     */
+    public SortedMap<YearMonth, Long> launchCountsPerMonth(LocalDate from, LocalDate to) {
+        logger.info(String.format("count launches per month between %s and %s", from, to));
+        return dateIndex().launchCountsPerMonth(from, to);
+    }
+
+    /**
+     * Returns the total price of the launches in each year between two dates, both inclusive.
+     * Years without priced launches are left out.
+     */
+    public SortedMap<Integer, BigDecimal> revenuePerYear(LocalDate from, LocalDate to) {
+        logger.info(String.format("sum revenue per year between %s and %s", from, to));
+        return dateIndex().revenuePerYear(from, to);
+    }
+
+    /**
+     * Returns the total price of the launches in each month between two dates, both inclusive.
+     * Months without priced launches are left out.
+     */
+    public SortedMap<YearMonth, BigDecimal> revenuePerMonth(LocalDate from, LocalDate to) {
+        logger.info(String.format("sum revenue per month between %s and %s", from, to));
+        return dateIndex().revenuePerMonth(from, to);
+    }
+
+    /**
+     * Returns the launches matching every given filter, where a null filter matches
+     * every launch.
+     *
+     * @param outcome the launch outcome, or null
+     * @param orbit   the orbit, or null
+     * @param lsp     the launch service provider, or null
+     * @param year    the launch year, or null
+     * @return the matching launches.
+     */
+    public List<Launch> findLaunches(Launch.LaunchOutcome outcome, String orbit, LaunchServiceProvider lsp, Integer year) {
+        logger.info(String.format("find launches with outcome %s, orbit %s, provider %s and year %s", outcome, orbit, lsp, year));
+        LaunchBitmapIndex index = snapshot().bitmapIndex();
+        return index.launches(index.matching(outcome, orbit, lsp, year));
+    }
+
+    /**
+     * Returns the number of launches matching every given filter, where a null
+     * filter matches every launch.
+     */
+    public int countLaunches(Launch.LaunchOutcome outcome, String orbit, LaunchServiceProvider lsp, Integer year) {
+        logger.info(String.format("count launches with outcome %s, orbit %s, provider %s and year %s", outcome, orbit, lsp, year));
+        return snapshot().bitmapIndex().matching(outcome, orbit, lsp, year).cardinality();
+    }
+
+    /**
+     * Summarizes all launches into fixed-size sketches for approximate analytics.
+     * Like {@link #snapshot()}, the returned sketches can answer several queries
+     * from one load of the launches, and more launches can be added to them.
+     *
+     * @return sketches of the launches currently in the database.
+     */
+    public LaunchSketches sketch() {
+        logger.info("Stream launches for approximate mining");
+        LaunchSketches sketches = new LaunchSketches();
+        try (Stream<Launch> launches = dao.stream(Launch.class, SKETCH_BATCH_SIZE)) {
+            launches.forEach(sketches::add);
+        }
+        return sketches;
+    }
+
+    /**
+     * Returns the approximate top-k most launched rockets, see {@link LaunchSketches#mostLaunchedRockets(int)}.
+     */
+    public Map<Rocket, Estimate> approximateMostLaunchedRockets(int k) {
+        logger.info("approximate " + k + " most launched rockets");
+        return sketch().mostLaunchedRockets(k);
+    }
+
+    public Estimate approximateDistinctPayloads() {
+        logger.info("approximate distinct payloads");
+        return sketch().distinctPayloads();
+    }
+
+    public Estimate approximateDistinctLaunchSites() {
+        logger.info("approximate distinct launch sites");
+        return sketch().distinctLaunchSites();
+    }
+
+    public Estimate approximateDistinctRockets() {
+        logger.info("approximate distinct rockets");
+        return sketch().distinctRockets();
+    }
+
+    /**
+     * Returns the approximate launch price of a provider at a quantile, see
+     * {@link LaunchSketches#priceQuantile(LaunchServiceProvider, double)}.
+     */
+    public Estimate approximatePriceQuantile(LaunchServiceProvider lsp, double q) {
+        logger.info(String.format("approximate %s price quantile of %s", q, lsp));
+        return sketch().priceQuantile(lsp, q);
+    }
+
+    /**
+     * Returns the top-k most reliable launch service providers over each one's
+     * last given number of launches.
+     */
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProvidersOverLastLaunches(int k, int launches) {
+        logger.info(String.format("find most reliable %d launch service providers over their last %d launches", k, launches));
+        return reliabilityOverLastLaunches(launches).mostReliableLaunchServiceProviders(k);
+    }
+
+    /**
+     * Returns the top-k least reliable launch service providers over each one's
+     * last given number of launches.
+     */
+    public List<LaunchServiceProvider> leastReliableLaunchServiceProvidersOverLastLaunches(int k, int launches) {
+        logger.info(String.format("find least reliable %d launch service providers over their last %d launches", k, launches));
+        return reliabilityOverLastLaunches(launches).leastReliableLaunchServiceProviders(k);
+    }
+
+    /**
+     * Returns the top-k most reliable launch service providers over the last
+     * given number of years, among those that launched in them.
+     */
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProvidersOverLastYears(int k, int years) {
+        logger.info(String.format("find most reliable %d launch service providers over the last %d years", k, years));
+        return reliabilityOverLastYears(years).mostReliableLaunchServiceProviders(k);
+    }
+
+    /**
+     * Returns the top-k least reliable launch service providers over the last
+     * given number of years, among those that launched in them.
+     */
+    public List<LaunchServiceProvider> leastReliableLaunchServiceProvidersOverLastYears(int k, int years) {
+        logger.info(String.format("find least reliable %d launch service providers over the last %d years", k, years));
+        return reliabilityOverLastYears(years).leastReliableLaunchServiceProviders(k);
+    }
+
+    /**
+     * Runs a query over all launches, see {@link LaunchQuery}.
+     */
+    public <K> List<LaunchGroup<K>> query(LaunchQuery<K> query) {
+        logger.info("run launch query");
+        return snapshot().query(query);
+    }
+
+    /**
+     * Runs several queries over all launches in one load and one scan of them.
+     */
+    public LaunchQuery.Results queryAll(Collection<? extends LaunchQuery<?>> queries) {
+        logger.info("run launch queries");
+        return snapshot().queryAll(queries);
     }
 }
@@ -0,0 +1,336 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A compact binary file of the mining data: launches with their rockets and
+ * providers.
+ * <p>
+ * Strings are written once to a table and referenced by index, as are providers
+ * and rockets, so the file holds each entity once however many launches share
+ * it. The file is written to a temporary file that then replaces the old one,
+ * and ends with a CRC32 checksum, so a reader sees either a whole file or a
+ * corrupt one, never a torn one. It is read back through a memory-mapped
+ * buffer into detached entities.
+ */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x524B5453;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int NONE = -1;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final byte NO_PRICE = 0;
+
+    private static final byte UNSCALED_LONG_PRICE = 1;
+
+    private static final byte STRING_PRICE = 2;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes the launches, replacing the file if it exists.
+     */
+    public static void write(Path file, Collection<Launch> launches) throws IOException {
+        notNull(file, "File cannot be null");
+        notNull(launches, "Launches cannot be null");
+        Writer writer = new Writer(launches);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(temporary), crc)))) {
+            writer.write(out);
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the launches of a file, with their rockets and providers.
+     *
+     * @throws IOException if the file cannot be read, or is not a complete snapshot file.
+     */
+    public static List<Launch> read(Path file) throws IOException {
+        notNull(file, "File cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES * 2 + Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer content = buffer.duplicate();
+            content.limit((int) size - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            if (crc.getValue() != buffer.getLong((int) size - Long.BYTES)) {
+                throw new IOException("Corrupt snapshot file: " + file);
+            }
+            buffer.limit((int) size - Long.BYTES);
+            return new Reader(buffer).read(file);
+        }
+    }
+
+    private static class Writer {
+        private final Collection<Launch> launches;
+
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+        private final Map<LaunchServiceProvider, Integer> providers = new IdentityHashMap<>();
+
+        private final Map<Rocket, Integer> rockets = new IdentityHashMap<>();
+
+        private final List<LaunchServiceProvider> providerList = new ArrayList<>();
+
+        private final List<Rocket> rocketList = new ArrayList<>();
+
+        Writer(Collection<Launch> launches) {
+            this.launches = launches;
+            for (Launch launch : launches) {
+                index(launch.getLaunchVehicle());
+                index(launch.getLaunchServiceProvider());
+            }
+        }
+
+        private void index(LaunchServiceProvider lsp) {
+            if (null != lsp && !providers.containsKey(lsp)) {
+                providers.put(lsp, providerList.size());
+                providerList.add(lsp);
+            }
+        }
+
+        private void index(Rocket rocket) {
+            if (null != rocket && !rockets.containsKey(rocket)) {
+                index(rocket.getManufacturer());
+                rockets.put(rocket, rocketList.size());
+                rocketList.add(rocket);
+            }
+        }
+
+        private int string(String value) {
+            return null == value ? NONE : strings.computeIfAbsent(value, s -> strings.size());
+        }
+
+        private static void writeId(DataOutputStream out, Long id) throws IOException {
+            out.writeLong(null == id ? NONE : id);
+        }
+
+        // the entities are encoded first, so the string table is complete before it is written
+        void write(DataOutputStream out) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream entities = new DataOutputStream(bytes);
+
+            entities.writeInt(providerList.size());
+            for (LaunchServiceProvider lsp : providerList) {
+                writeId(entities, lsp.getId());
+                entities.writeInt(string(lsp.getWikilink()));
+                entities.writeInt(string(lsp.getName()));
+                entities.writeInt(lsp.getYearFounded());
+                entities.writeInt(string(lsp.getCountry()));
+                entities.writeInt(string(lsp.getHeadquarters()));
+            }
+
+            entities.writeInt(rocketList.size());
+            for (Rocket rocket : rocketList) {
+                writeId(entities, rocket.getId());
+                entities.writeInt(string(rocket.getWikilink()));
+                entities.writeInt(string(rocket.getName()));
+                entities.writeInt(string(rocket.getCountry()));
+                entities.writeInt(null == rocket.getManufacturer() ? NONE : providers.get(rocket.getManufacturer()));
+                entities.writeInt(string(rocket.getMassToLEO()));
+                entities.writeInt(string(rocket.getMassToGTO()));
+                entities.writeInt(string(rocket.getMassToOther()));
+                entities.writeInt(rocket.getFirstYearFlight());
+                entities.writeInt(rocket.getLatestYearFlight());
+            }
+
+            entities.writeInt(launches.size());
+            for (Launch launch : launches) {
+                writeId(entities, launch.getId());
+                entities.writeInt(string(launch.getWikilink()));
+                entities.writeLong(null == launch.getLaunchDate() ? NO_DATE : launch.getLaunchDate().toEpochDay());
+                entities.writeInt(null == launch.getLaunchVehicle() ? NONE : rockets.get(launch.getLaunchVehicle()));
+                entities.writeInt(null == launch.getLaunchServiceProvider() ? NONE : providers.get(launch.getLaunchServiceProvider()));
+                Set<String> payload = launch.getPayload();
+                entities.writeInt(null == payload ? NONE : payload.size());
+                if (null != payload) {
+                    for (String item : payload) {
+                        entities.writeInt(string(item));
+                    }
+                }
+                entities.writeInt(string(launch.getLaunchSite()));
+                entities.writeInt(string(launch.getOrbit()));
+                entities.writeInt(string(launch.getFunction()));
+                BigDecimal price = launch.getPrice();
+                if (null == price) {
+                    entities.writeByte(NO_PRICE);
+                } else if (price.unscaledValue().bitLength() < Long.SIZE) {
+                    entities.writeByte(UNSCALED_LONG_PRICE);
+                    entities.writeLong(price.unscaledValue().longValue());
+                    entities.writeInt(price.scale());
+                } else {
+                    entities.writeByte(STRING_PRICE);
+                    entities.writeInt(string(price.toString()));
+                }
+                entities.writeByte(null == launch.getLaunchOutcome() ? NONE : launch.getLaunchOutcome().ordinal());
+            }
+            entities.flush();
+
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(strings.size());
+            for (String value : strings.keySet()) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+            bytes.writeTo(out);
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer buffer;
+
+        private String[] strings;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private String string() {
+            int index = buffer.getInt();
+            return NONE == index ? null : strings[index];
+        }
+
+        private Long id() {
+            long id = buffer.getLong();
+            return NONE == id ? null : id;
+        }
+
+        List<Launch> read(Path file) throws IOException {
+            try {
+                if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                    throw new IOException("Not a snapshot file: " + file);
+                }
+                strings = new String[buffer.getInt()];
+                for (int i = 0; i < strings.length; i++) {
+                    byte[] utf8 = new byte[buffer.getInt()];
+                    buffer.get(utf8);
+                    strings[i] = new String(utf8, StandardCharsets.UTF_8);
+                }
+
+                LaunchServiceProvider[] providers = new LaunchServiceProvider[buffer.getInt()];
+                for (int i = 0; i < providers.length; i++) {
+                    Long id = id();
+                    String wikilink = string();
+                    providers[i] = new LaunchServiceProvider(string(), buffer.getInt(), string());
+                    providers[i].setId(id);
+                    providers[i].setWikilink(wikilink);
+                    String headquarters = string();
+                    if (null != headquarters) {
+                        providers[i].setHeadquarters(headquarters);
+                    }
+                }
+
+                Rocket[] rockets = new Rocket[buffer.getInt()];
+                for (int i = 0; i < rockets.length; i++) {
+                    Long id = id();
+                    String wikilink = string();
+                    String name = string();
+                    String country = string();
+                    int lsp = buffer.getInt();
+                    LaunchServiceProvider manufacturer = NONE == lsp ? null : providers[lsp];
+                    rockets[i] = Rocket.restored(name, country, manufacturer);
+                    rockets[i].setId(id);
+                    rockets[i].setWikilink(wikilink);
+                    String massToLEO = string();
+                    String massToGTO = string();
+                    String massToOther = string();
+                    if (null != massToLEO) {
+                        rockets[i].setMassToLEO(massToLEO);
+                    }
+                    if (null != massToGTO) {
+                        rockets[i].setMassToGTO(massToGTO);
+                    }
+                    if (null != massToOther) {
+                        rockets[i].setMassToOther(massToOther);
+                    }
+                    rockets[i].setFirstYearFlight(buffer.getInt());
+                    rockets[i].setLatestYearFlight(buffer.getInt());
+                    if (null != manufacturer) {
+                        manufacturer.getRockets().add(rockets[i]);
+                    }
+                }
+
+                Launch[] launches = new Launch[buffer.getInt()];
+                for (int i = 0; i < launches.length; i++) {
+                    Launch launch = new Launch();
+                    launch.setId(id());
+                    launch.setWikilink(string());
+                    long date = buffer.getLong();
+                    launch.setLaunchDate(NO_DATE == date ? null : LocalDate.ofEpochDay(date));
+                    int rocket = buffer.getInt();
+                    launch.setLaunchVehicle(NONE == rocket ? null : rockets[rocket]);
+                    int lsp = buffer.getInt();
+                    launch.setLaunchServiceProvider(NONE == lsp ? null : providers[lsp]);
+                    int items = buffer.getInt();
+                    if (NONE != items) {
+                        Set<String> payload = new LinkedHashSet<>();
+                        for (int item = 0; item < items; item++) {
+                            payload.add(string());
+                        }
+                        launch.setPayload(payload);
+                    }
+                    launch.setLaunchSite(string());
+                    launch.setOrbit(string());
+                    launch.setFunction(string());
+                    byte price = buffer.get();
+                    if (UNSCALED_LONG_PRICE == price) {
+                        long unscaled = buffer.getLong();
+                        launch.setPrice(new BigDecimal(BigInteger.valueOf(unscaled), buffer.getInt()));
+                    } else if (STRING_PRICE == price) {
+                        launch.setPrice(new BigDecimal(string()));
+                    }
+                    byte outcome = buffer.get();
+                    launch.setLaunchOutcome(NONE == outcome ? null : Launch.LaunchOutcome.values()[outcome]);
+                    if (null != launch.getLaunchVehicle()) {
+                        launch.getLaunchVehicle().getLaunches().add(launch);
+                    }
+                    launches[i] = launch;
+                }
+                if (buffer.hasRemaining()) {
+                    throw new IOException("Corrupt snapshot file: " + file);
+                }
+                return Arrays.asList(launches);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                    | IllegalArgumentException | NullPointerException e) {
+                throw new IOException("Corrupt snapshot file: " + file, e);
+            }
+        }
+    }
+}
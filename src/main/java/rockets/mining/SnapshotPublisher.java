@@ -0,0 +1,282 @@
+package rockets.mining;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.DAOListener;
+import rockets.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Publishes immutable mining snapshots that any number of threads can read
+ * without locking while the data is written to.
+ * <p>
+ * Each snapshot is built from {@link Detached detached} copies of the launches,
+ * rockets and providers, so it never shares entities with the DAO's session, and
+ * its indexes are built before it is published. It keeps only the ids of the
+ * launches, and the launches its queries return are loaded then and detached
+ * in turn. Writes of launches, rockets or
+ * providers through the DAO schedule a rebuild on the executor; writes arriving
+ * before a scheduled rebuild starts are coalesced into it. Readers keep getting
+ * the previous snapshot until the new one is swapped in, so they never wait for
+ * a rebuild, and a snapshot is never replaced by one built from older data.
+ * <p>
+ * Given a {@link SnapshotFile}, the publisher starts from the file if there is
+ * one, without loading, and rebuilds from the DAO in the background. The
+ * launches of rebuilt snapshots are saved to the file at most once per save
+ * period, while they are still loaded, and those of the latest one on
+ * {@link #close()}, which should be called on shutdown.
+ */
+public class SnapshotPublisher implements DAOListener {
+    private static Logger logger = LoggerFactory.getLogger(SnapshotPublisher.class);
+
+    public static final long DEFAULT_SAVE_PERIOD_MINUTES = 5;
+
+    // the version of a snapshot restored from the file, older than any data version
+    private static final long RESTORED = -1;
+
+    private final DAO dao;
+
+    private final Executor executor;
+
+    private final AtomicReference<Published> current = new AtomicReference<>();
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final Path file;
+
+    private final long savePeriodNanos;
+
+    // when the file was last saved, by System.nanoTime(), guarded by the file
+    private long lastSaved;
+
+    private boolean saved;
+
+    public SnapshotPublisher(DAO dao, Executor executor) {
+        this(dao, executor, null, 0, TimeUnit.MINUTES);
+    }
+
+    public SnapshotPublisher(DAO dao, Executor executor, Path file) {
+        this(dao, executor, file, DEFAULT_SAVE_PERIOD_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param file       the snapshot file to start from and save to
+     * @param savePeriod the least time between two saves of rebuilt snapshots
+     */
+    public SnapshotPublisher(DAO dao, Executor executor, Path file, long savePeriod, TimeUnit unit) {
+        notNull(dao, "DAO cannot be null");
+        notNull(executor, "Executor cannot be null");
+        notNull(unit, "Unit cannot be null");
+        if (savePeriod < 0) {
+            throw new IllegalArgumentException("Save period cannot be negative");
+        }
+        this.dao = dao;
+        this.executor = executor;
+        this.file = file;
+        savePeriodNanos = unit.toNanos(savePeriod);
+    }
+
+    /**
+     * Builds the first snapshot on the calling thread and subscribes to DAO writes.
+     * Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (null != current.get()) {
+            return;
+        }
+        // subscribes first, so writes during the first build schedule a rebuild
+        dao.addListener(this);
+        if (null != file && Files.isRegularFile(file)) {
+            try {
+                List<Launch> launches = SnapshotFile.read(file);
+                publish(new Published(indexed(new MiningSnapshot(launches)), RESTORED));
+                logger.info("Restored mining snapshot of " + launches.size() + " launches from " + file);
+                scheduleRebuild();
+                return;
+            } catch (IOException e) {
+                logger.warn("Cannot restore mining snapshot from " + file + ", loading launches instead", e);
+            }
+        }
+        publish(build());
+    }
+
+    /**
+     * Stops following DAO writes and saves the latest snapshot to the file, if
+     * any; the last snapshot stays published.
+     */
+    public void close() {
+        dao.removeListener(this);
+        if (null != file) {
+            try {
+                save();
+            } catch (IOException e) {
+                logger.error("Cannot save mining snapshot to " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Saves the latest snapshot to the file, unless it was restored from it or
+     * is already saved. The snapshot keeps no launches, so they are loaded again,
+     * as they are now.
+     *
+     * @throws IllegalStateException if the publisher has no file.
+     */
+    public void save() throws IOException {
+        if (null == file) {
+            throw new IllegalStateException("No snapshot file to save to");
+        }
+        synchronized (file) {
+            Published published = current.get();
+            if (null == published || RESTORED == published.version || published.saved) {
+                return;
+            }
+            write(published, dao.loadAll(Launch.class));
+        }
+    }
+
+    // saves the launches a snapshot was just built from, if it is still the latest and the period is over
+    private void saveIfDue(Published published, Collection<Launch> launches) {
+        synchronized (file) {
+            if (published != current.get() || published.saved
+                    || saved && System.nanoTime() - lastSaved < savePeriodNanos) {
+                return;
+            }
+            try {
+                write(published, launches);
+            } catch (IOException e) {
+                logger.error("Cannot save mining snapshot to " + file, e);
+            }
+        }
+    }
+
+    // called holding the file
+    private void write(Published published, Collection<Launch> launches) throws IOException {
+        SnapshotFile.write(file, launches);
+        published.saved = true;
+        lastSaved = System.nanoTime();
+        saved = true;
+        logger.info("Saved mining snapshot at data version " + published.version + " to " + file);
+    }
+
+    /**
+     * @return the latest published snapshot, starting the publisher if needed.
+     */
+    public MiningSnapshot get() {
+        Published published = current.get();
+        if (null == published) {
+            start();
+            published = current.get();
+        }
+        return published.snapshot;
+    }
+
+    /**
+     * @return the data version the latest snapshot was built from, or -1 if it was
+     * restored from the file or none was published yet.
+     */
+    public long getVersion() {
+        Published published = current.get();
+        return null == published ? -1 : published.version;
+    }
+
+    /**
+     * Schedules a rebuild unless one is already scheduled and not yet started.
+     */
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        // cleared before loading, so writes during the load schedule another rebuild
+        rebuildScheduled.set(false);
+        try {
+            long version = dao.getDataVersion();
+            List<Launch> launches = Detached.copyOf(dao.loadAll(Launch.class));
+            Published published = build(launches, version);
+            publish(published);
+            if (null != file) {
+                saveIfDue(published, launches);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Mining snapshot rebuild failed, keeping the previous snapshot", e);
+        }
+    }
+
+    private Published build() {
+        // the version is read first, so the snapshot is at least as recent as it
+        long version = dao.getDataVersion();
+        return build(Detached.copyOf(dao.loadAll(Launch.class)), version);
+    }
+
+    private Published build(List<Launch> launches, long version) {
+        MiningSnapshot snapshot = indexed(new MiningSnapshot(LaunchColumns.of(launches, this::load)));
+        logger.info("Built mining snapshot of " + launches.size() + " launches at data version " + version);
+        return new Published(snapshot, version);
+    }
+
+    // loads the launches a snapshot returns, detached like the ones it was built from
+    private List<Launch> load(List<Long> ids) {
+        List<Launch> launches = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Launch launch = dao.load(Launch.class, id);
+            if (null != launch) {
+                launches.add(launch);
+            }
+        }
+        return Detached.copyOf(launches);
+    }
+
+    private static MiningSnapshot indexed(MiningSnapshot snapshot) {
+        snapshot.dateIndex();
+        snapshot.revenueCube();
+        snapshot.bitmapIndex();
+        return snapshot;
+    }
+
+    private void publish(Published published) {
+        current.accumulateAndGet(published,
+                (previous, next) -> null == previous || next.version >= previous.version ? next : previous);
+    }
+
+    @Override
+    public void onSaved(Entity entity) {
+        if (entity instanceof Launch || entity instanceof Rocket || entity instanceof LaunchServiceProvider) {
+            scheduleRebuild();
+        }
+    }
+
+    @Override
+    public void onDeleted(Entity entity) {
+        onSaved(entity);
+    }
+
+    private static class Published {
+        private final MiningSnapshot snapshot;
+
+        private final long version;
+
+        // guarded by the file
+        private boolean saved;
+
+        private Published(MiningSnapshot snapshot, long version) {
+            this.snapshot = snapshot;
+            this.version = version;
+        }
+    }
+}
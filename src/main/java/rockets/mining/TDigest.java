@@ -0,0 +1,184 @@
+package rockets.mining;
+
+import java.util.Arrays;
+
+/**
+ * Approximate quantiles of a stream of values in a fixed amount of memory.
+ * <p>
+ * A merging t-digest: values are buffered and periodically merged into at most
+ * about {@code compression} weighted centroids, which are kept small near the
+ * tails so extreme quantiles stay accurate. The rank of a quantile is off by
+ * roughly the weight of the centroid it falls in, see {@link #rankError(double)}.
+ */
+public class TDigest {
+    private final double compression;
+
+    private double[] means;
+
+    private double[] weights;
+
+    private int centroids;
+
+    private final double[] buffer;
+
+    private int buffered;
+
+    private long count;
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression cannot be less than 10");
+        }
+        this.compression = compression;
+        // the k1 scale function allows at most compression / 2 full centroids, and
+        // greedy merging leaves at most one partial centroid per full one
+        int capacity = (int) Math.ceil(compression) + 2;
+        means = new double[capacity];
+        weights = new double[capacity];
+        buffer = new double[5 * capacity];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Value cannot be NaN");
+        }
+        if (buffered == buffer.length) {
+            merge();
+        }
+        buffer[buffered++] = value;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public long size() {
+        return count;
+    }
+
+    // the k1 scale function, in centroids from the lowest quantile
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private void merge() {
+        if (0 == buffered) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        int size = centroids + buffered;
+        double[] sortedMeans = new double[size];
+        double[] sortedWeights = new double[size];
+        int i = 0;
+        int j = 0;
+        for (int n = 0; n < size; n++) {
+            if (j == buffered || (i < centroids && means[i] <= buffer[j])) {
+                sortedMeans[n] = means[i];
+                sortedWeights[n] = weights[i++];
+            } else {
+                sortedMeans[n] = buffer[j++];
+                sortedWeights[n] = 1;
+            }
+        }
+
+        double total = count;
+        int merged = 0;
+        double before = 0;
+        double mean = sortedMeans[0];
+        double weight = sortedWeights[0];
+        double limit = k(0) + 1;
+        for (int n = 1; n < size; n++) {
+            if (k(Math.min(1, (before + weight + sortedWeights[n]) / total)) <= limit) {
+                weight += sortedWeights[n];
+                mean += (sortedMeans[n] - mean) * sortedWeights[n] / weight;
+            } else {
+                means[merged] = mean;
+                weights[merged++] = weight;
+                before += weight;
+                limit = k(before / total) + 1;
+                mean = sortedMeans[n];
+                weight = sortedWeights[n];
+            }
+        }
+        means[merged] = mean;
+        weights[merged++] = weight;
+        centroids = merged;
+        buffered = 0;
+    }
+
+    // the centroid holding the given rank, and the rank of its center
+    private int centroidAt(double rank) {
+        double before = 0;
+        for (int c = 0; c < centroids - 1; c++) {
+            if (rank < before + weights[c]) {
+                return c;
+            }
+            before += weights[c];
+        }
+        return centroids - 1;
+    }
+
+    /**
+     * @param q the quantile, between 0 and 1
+     * @return the approximate value at the quantile.
+     */
+    public double quantile(double q) {
+        requireQuantile(q);
+        merge();
+        if (1 == centroids) {
+            return means[0];
+        }
+        double rank = q * count;
+        // interpolates between centroid centers, and between min and max at the ends
+        double before = 0;
+        double previousCenter = 0;
+        double previousMean = min;
+        for (int c = 0; c < centroids; c++) {
+            double center = before + weights[c] / 2;
+            if (rank < center) {
+                double fraction = center == previousCenter ? 0 : (rank - previousCenter) / (center - previousCenter);
+                return previousMean + fraction * (means[c] - previousMean);
+            }
+            previousCenter = center;
+            previousMean = means[c];
+            before += weights[c];
+        }
+        double fraction = count == previousCenter ? 1 : (rank - previousCenter) / (count - previousCenter);
+        return previousMean + fraction * (max - previousMean);
+    }
+
+    /**
+     * @return the fraction of all values the rank of the given quantile may be off by.
+     */
+    public double rankError(double q) {
+        requireQuantile(q);
+        merge();
+        return weights[centroidAt(q * count)] / count;
+    }
+
+    public double min() {
+        requireValues();
+        return min;
+    }
+
+    public double max() {
+        requireValues();
+        return max;
+    }
+
+    private void requireQuantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        requireValues();
+    }
+
+    private void requireValues() {
+        if (0 == count) {
+            throw new IllegalArgumentException("No values added");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package rockets.mining;
+
+import java.util.*;
+import java.util.stream.Collector;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Keeps the k best elements offered to it in a bounded heap.
+ * <p>
+ * Offering n elements costs O(n log k) time and O(k) memory, instead of sorting
+ * all n elements and discarding everything past the first k. Elements that rank
+ * equally are kept in encounter order, so the result is the same as a stable sort
+ * followed by a limit.
+ *
+ * @param <T> the type of ranked elements
+ */
+public class TopK<T> {
+    private final int k;
+
+    private final Comparator<? super T> comparator;
+
+    private final Comparator<Ranked<T>> ranking;
+
+    // The head of the heap is the worst element kept so far.
+    private final PriorityQueue<Ranked<T>> heap;
+
+    private long seen;
+
+    /**
+     * @param k          the number of elements to keep
+     * @param comparator orders elements from the best to the worst
+     */
+    public TopK(int k, Comparator<? super T> comparator) {
+        notNull(comparator, "Comparator cannot be null");
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        this.k = k;
+        this.comparator = comparator;
+        Comparator<Ranked<T>> byElement = (a, b) -> comparator.compare(a.element, b.element);
+        this.ranking = byElement.thenComparingLong(ranked -> ranked.sequence);
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), ranking.reversed());
+    }
+
+    /**
+     * Returns a collector keeping the top-k elements of a stream.
+     * <p>
+     * Partial results are merged, so the collector can be used with parallel streams.
+     *
+     * @param k          the number of elements to keep
+     * @param comparator orders elements from the best to the worst
+     * @return the top-k elements, best first
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        return Collector.of(
+                () -> new TopK<T>(k, comparator),
+                TopK::offer,
+                TopK::merge,
+                TopK::toList);
+    }
+
+    public void offer(T element) {
+        offer(element, seen++);
+    }
+
+    private void offer(T element, long sequence) {
+        if (0 == k) {
+            return;
+        }
+        if (heap.size() == k) {
+            // compared before wrapping, so rejected elements allocate nothing
+            Ranked<T> worst = heap.peek();
+            int order = comparator.compare(element, worst.element);
+            if (order > 0 || 0 == order && sequence >= worst.sequence) {
+                return;
+            }
+            heap.poll();
+        }
+        heap.add(new Ranked<>(element, sequence));
+    }
+
+    /**
+     * Merges the elements kept by another instance, which must have seen its
+     * elements after all the elements seen by this one.
+     *
+     * @param other the top-k of the elements following this one's
+     * @return this instance
+     */
+    public TopK<T> merge(TopK<T> other) {
+        for (Ranked<T> ranked : other.heap) {
+            offer(ranked.element, seen + ranked.sequence);
+        }
+        seen += other.seen;
+        return this;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the elements kept so far, best first
+     */
+    public List<T> toList() {
+        List<Ranked<T>> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking);
+        List<T> results = new ArrayList<>(ranked.size());
+        for (Ranked<T> r : ranked) {
+            results.add(r.element);
+        }
+        return results;
+    }
+
+    private static class Ranked<T> {
+        private final T element;
+
+        private final long sequence;
+
+        private Ranked(T element, long sequence) {
+            this.element = element;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package rockets.model;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Copies of entities that are detached from the session they were loaded by.
+ * <p>
+ * Copying a graph keeps it connected: entities referenced from several places
+ * are copied once, and the rockets of providers and launches of rockets are the
+ * copies among those copied. Entities outside the copied graph are not
+ * referenced. The session never writes to the copies, so they stay as they were
+ * when copied for as long as their owner does not change them.
+ */
+public final class Detached {
+    private final Map<LaunchServiceProvider, LaunchServiceProvider> providers = new IdentityHashMap<>();
+
+    private final Map<Rocket, Rocket> rockets = new IdentityHashMap<>();
+
+    private Detached() {
+    }
+
+    /**
+     * @return copies of the launches, in the same order, with copies of their
+     * rockets and providers.
+     */
+    public static List<Launch> copyOf(Collection<Launch> launches) {
+        notNull(launches, "Launches cannot be null");
+        Detached detached = new Detached();
+        Map<Launch, Launch> copies = new IdentityHashMap<>();
+        List<Launch> results = new ArrayList<>(launches.size());
+        for (Launch launch : launches) {
+            Launch copy = copies.get(launch);
+            if (null == copy) {
+                copy = new Launch(launch, detached.copy(launch.getLaunchVehicle()), detached.copy(launch.getLaunchServiceProvider()));
+                copies.put(launch, copy);
+            }
+            results.add(copy);
+        }
+        detached.link(copies);
+        return results;
+    }
+
+    private LaunchServiceProvider copy(LaunchServiceProvider lsp) {
+        return null == lsp ? null : providers.computeIfAbsent(lsp, LaunchServiceProvider::new);
+    }
+
+    private Rocket copy(Rocket rocket) {
+        if (null == rocket) {
+            return null;
+        }
+        Rocket copy = rockets.get(rocket);
+        if (null == copy) {
+            copy = new Rocket(rocket, copy(rocket.getManufacturer()));
+            rockets.put(rocket, copy);
+        }
+        return copy;
+    }
+
+    // fills the rockets of the copied providers and the launches of the copied rockets
+    private void link(Map<Launch, Launch> launches) {
+        for (Map.Entry<LaunchServiceProvider, LaunchServiceProvider> lsp : providers.entrySet()) {
+            if (null != lsp.getKey().getRockets()) {
+                for (Rocket rocket : lsp.getKey().getRockets()) {
+                    Rocket copy = rockets.get(rocket);
+                    if (null != copy) {
+                        lsp.getValue().getRockets().add(copy);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<Rocket, Rocket> rocket : rockets.entrySet()) {
+            if (null != rocket.getKey().getLaunches()) {
+                for (Launch launch : rocket.getKey().getLaunches()) {
+                    Launch copy = launches.get(launch);
+                    if (null != copy) {
+                        rocket.getValue().getLaunches().add(copy);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -15,6 +15,11 @@ public abstract class Entity {
     public Entity() {
     }
 
+    Entity(Entity other) {
+        id = other.id;
+        wikilink = other.wikilink;
+    }
+
     public String getWikilink() {
         return wikilink;
     }
@@ -2,9 +2,11 @@ package rockets.model;
 
 import org.neo4j.ogm.annotation.NodeEntity;
 import org.neo4j.ogm.annotation.Relationship;
+import org.neo4j.ogm.annotation.Transient;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -34,6 +36,28 @@ public class Launch extends Entity {
 
     private LaunchOutcome launchOutcome;
 
+    // the price as money, recomputed whenever the price is replaced, including by the OGM
+    @Transient
+    private Money money;
+
+    public Launch() {
+    }
+
+    // copies the fields of another launch, with the given rocket and provider
+    Launch(Launch other, Rocket launchVehicle, LaunchServiceProvider launchServiceProvider) {
+        super(other);
+        launchDate = other.launchDate;
+        this.launchVehicle = launchVehicle;
+        this.launchServiceProvider = launchServiceProvider;
+        payload = null == other.payload ? null : new LinkedHashSet<>(other.payload);
+        launchSite = other.launchSite;
+        orbit = other.orbit;
+        function = other.function;
+        price = other.price;
+        launchOutcome = other.launchOutcome;
+        money = other.money;
+    }
+
     public LocalDate getLaunchDate() {
         return launchDate;
     }
@@ -98,6 +122,22 @@ public class Launch extends Entity {
         this.price = price;
     }
 
+    /**
+     * @return the price as money, or null if the launch has no price.
+     */
+    public Money getPriceAsMoney() {
+        BigDecimal price = this.price;
+        if (null == price) {
+            return null;
+        }
+        Money money = this.money;
+        if (null == money || money.source() != price) {
+            money = Money.of(price);
+            this.money = money;
+        }
+        return money;
+    }
+
     public LaunchOutcome getLaunchOutcome() {
         return launchOutcome;
     }
@@ -38,6 +38,16 @@ public class LaunchServiceProvider extends Entity {
         super();
     }
 
+    // copies the fields of another provider, but none of its rockets
+    LaunchServiceProvider(LaunchServiceProvider other) {
+        super(other);
+        name = other.name;
+        yearFounded = other.yearFounded;
+        country = other.country;
+        headquarters = other.headquarters;
+        rockets = new LinkedHashSet<>();
+    }
+
     public LaunchServiceProvider(String name, int yearFounded, String country) {
         notBlank(name, "Constructor param cannot be null or empty");
         if (name.length() >= 128) {
@@ -0,0 +1,76 @@
+package rockets.model;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A mass parsed once from its free-form description and normalized to kilograms.
+ * <p>
+ * Descriptions are a number, optionally with thousands separators, followed by
+ * an optional unit: kg (the default), t or tonnes, or lb. Anything else, e.g.
+ * "unknown", is kept as the description with an unknown mass.
+ */
+public final class Mass {
+    private static final Pattern MASS = Pattern.compile(
+            "\\s*(\\d{1,3}(?:,\\d{3})+|\\d+)(\\.\\d+)?\\s*(kg|kgs|kilograms?|t|tonnes?|tons?|lb|lbs|pounds?)?\\.?\\s*");
+
+    private static final double KILOGRAMS_PER_TONNE = 1000;
+
+    private static final double KILOGRAMS_PER_POUND = 0.45359237;
+
+    private final String description;
+
+    private final double kilograms;
+
+    private Mass(String description, double kilograms) {
+        this.description = description;
+        this.kilograms = kilograms;
+    }
+
+    public static Mass parse(String description) {
+        notNull(description, "Description cannot be null");
+        Matcher matcher = MASS.matcher(description.toLowerCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            return new Mass(description, Double.NaN);
+        }
+        String fraction = null == matcher.group(2) ? "" : matcher.group(2);
+        double value = Double.parseDouble(matcher.group(1).replace(",", "") + fraction);
+        String unit = null == matcher.group(3) ? "kg" : matcher.group(3);
+        if (unit.startsWith("t")) {
+            value *= KILOGRAMS_PER_TONNE;
+        } else if (unit.startsWith("l") || unit.startsWith("p")) {
+            value *= KILOGRAMS_PER_POUND;
+        }
+        return new Mass(description, value);
+    }
+
+    /**
+     * @return the cached mass if it was parsed from the description, otherwise the
+     * description parsed, or null if there is no description.
+     */
+    static Mass reparse(String description, Mass cached) {
+        if (null == description) {
+            return null;
+        }
+        return null != cached && cached.description == description ? cached : parse(description);
+    }
+
+    public boolean isKnown() {
+        return !Double.isNaN(kilograms);
+    }
+
+    /**
+     * @return the mass in kilograms, or NaN if it is unknown.
+     */
+    public double getKilograms() {
+        return kilograms;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,139 @@
+package rockets.model;
+
+import java.math.BigDecimal;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * An exact amount of money held as a long scaled by {@link #SCALE} decimal
+ * digits, i.e. in cents, whenever it fits, and as a BigDecimal otherwise.
+ * <p>
+ * Comparing and adding amounts that fit uses only long arithmetic; amounts that
+ * do not fit, or sums that overflow, fall back to BigDecimal, so results are
+ * always exact. Amounts are immutable.
+ */
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0, null, null);
+
+    private final long scaled;
+
+    // the amount if it does not fit a scaled long, otherwise null
+    private final BigDecimal exact;
+
+    // the amount this was created from, if any, returned as is by toBigDecimal()
+    private final BigDecimal amount;
+
+    private Money(long scaled, BigDecimal exact, BigDecimal amount) {
+        this.scaled = scaled;
+        this.exact = exact;
+        this.amount = amount;
+    }
+
+    public static Money of(BigDecimal amount) {
+        notNull(amount, "Amount cannot be null");
+        try {
+            return new Money(amount.movePointRight(SCALE).longValueExact(), null, amount);
+        } catch (ArithmeticException e) {
+            return new Money(0, amount, amount);
+        }
+    }
+
+    /**
+     * @param scaled an amount in units of 10^-{@link #SCALE}
+     */
+    public static Money ofScaled(long scaled) {
+        return new Money(scaled, null, null);
+    }
+
+    private static Money ofExact(BigDecimal exact) {
+        try {
+            return new Money(exact.movePointRight(SCALE).longValueExact(), null, null);
+        } catch (ArithmeticException e) {
+            return new Money(0, exact, null);
+        }
+    }
+
+    BigDecimal source() {
+        return amount;
+    }
+
+    /**
+     * @return whether the amount is available as a scaled long.
+     */
+    public boolean isScaled() {
+        return null == exact;
+    }
+
+    /**
+     * @return the amount scaled by {@link #SCALE} digits; only valid if {@link #isScaled()}.
+     */
+    public long scaled() {
+        return scaled;
+    }
+
+    public BigDecimal toBigDecimal() {
+        if (null != amount) {
+            return amount;
+        }
+        return null == exact ? BigDecimal.valueOf(scaled, SCALE) : exact;
+    }
+
+    public double doubleValue() {
+        return null == amount && null == exact ? scaled / Math.pow(10, SCALE) : toBigDecimal().doubleValue();
+    }
+
+    public Money add(Money other) {
+        notNull(other, "Amount cannot be null");
+        if (null == exact && null == other.exact) {
+            try {
+                return ofScaled(Math.addExact(scaled, other.scaled));
+            } catch (ArithmeticException e) {
+                // falls back to BigDecimal below
+            }
+        }
+        return ofExact(toBigDecimal().add(other.toBigDecimal()));
+    }
+
+    public Money subtract(Money other) {
+        notNull(other, "Amount cannot be null");
+        if (null == exact && null == other.exact) {
+            try {
+                return ofScaled(Math.subtractExact(scaled, other.scaled));
+            } catch (ArithmeticException e) {
+                // falls back to BigDecimal below
+            }
+        }
+        return ofExact(toBigDecimal().subtract(other.toBigDecimal()));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (null == exact && null == other.exact) {
+            return Long.compare(scaled, other.scaled);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    /**
+     * Amounts are equal if they have the same value, whatever their scale, e.g.
+     * 1.5 and 1.50.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return compareTo((Money) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return null == exact ? Long.hashCode(scaled) : exact.stripTrailingZeros().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toString();
+    }
+}
@@ -1,5 +1,7 @@
 package rockets.model;
 
+import org.neo4j.ogm.annotation.Transient;
+
 import java.util.Objects;
 
 import static org.apache.commons.lang3.Validate.notBlank;
@@ -9,6 +11,10 @@ public class Payload extends Entity {
     private String type;
     private String mass;
 
+    // the parsed mass, reparsed whenever its description is replaced
+    @Transient
+    private Mass parsedMass;
+
     private String payloadConstructorNullMessage = "Payload constructor parameters cannot be null or empty";
 
     public Payload(String name, String type) {
@@ -44,6 +50,16 @@ public class Payload extends Entity {
             throw new IllegalArgumentException("mass cannot be a negative value");
         }
         this.mass = mass;
+        this.parsedMass = Mass.parse(mass);
+    }
+
+    /**
+     * @return the mass in kilograms, or NaN if it is not set or cannot be parsed.
+     */
+    public double getKilograms() {
+        Mass parsed = Mass.reparse(mass, parsedMass);
+        parsedMass = parsed;
+        return null == parsed ? Double.NaN : parsed.getKilograms();
     }
 
     @Override
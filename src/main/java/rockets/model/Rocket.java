@@ -5,6 +5,7 @@ import org.neo4j.ogm.annotation.CompositeIndex;
 import org.neo4j.ogm.annotation.NodeEntity;
 import org.neo4j.ogm.annotation.Property;
 import org.neo4j.ogm.annotation.Relationship;
+import org.neo4j.ogm.annotation.Transient;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -36,6 +37,16 @@ public class Rocket extends Entity {
     @Property(name="massToOther")
     private String massToOther;
 
+    // the parsed masses, reparsed whenever their description is replaced, including by the OGM
+    @Transient
+    private Mass parsedMassToLEO;
+
+    @Transient
+    private Mass parsedMassToGTO;
+
+    @Transient
+    private Mass parsedMassToOther;
+
     @Property(name="firstYearFlight")
     private int firstYearFlight;
 
@@ -50,6 +61,20 @@ public class Rocket extends Entity {
         super();
     }
 
+    // copies the fields of another rocket, with the given manufacturer and none of its launches
+    Rocket(Rocket other, LaunchServiceProvider manufacturer) {
+        super(other);
+        name = other.name;
+        country = other.country;
+        this.manufacturer = manufacturer;
+        massToLEO = other.massToLEO;
+        massToGTO = other.massToGTO;
+        massToOther = other.massToOther;
+        firstYearFlight = other.firstYearFlight;
+        latestYearFlight = other.latestYearFlight;
+        launches = new LinkedHashSet<>();
+    }
+
     private String rocketConstructorNullMessage = "Rocket constructor parameters cannot be null or empty";
 
     public Rocket(String name, String country, LaunchServiceProvider manufacturer) {
@@ -64,6 +89,20 @@ public class Rocket extends Entity {
         this.launches = new LinkedHashSet<>();
     }
 
+    /**
+     * @return a rocket read back from storage with the fields it was stored with,
+     * where the manufacturer is null if it was not loaded with the rocket, as for
+     * rockets reached through their launches.
+     */
+    public static Rocket restored(String name, String country, LaunchServiceProvider manufacturer) {
+        Rocket rocket = new Rocket();
+        rocket.name = name;
+        rocket.country = country;
+        rocket.manufacturer = manufacturer;
+        rocket.launches = new LinkedHashSet<>();
+        return rocket;
+    }
+
 
     public String getName() {
         return name;
@@ -89,6 +128,40 @@ public class Rocket extends Entity {
         return massToOther;
     }
 
+    private static double kilograms(Mass mass) {
+        return null == mass ? Double.NaN : mass.getKilograms();
+    }
+
+    /**
+     * @return the mass to LEO in kilograms, or NaN if it is not set or cannot be parsed.
+     */
+    @JsonIgnore
+    public double getKilogramsToLEO() {
+        Mass mass = Mass.reparse(massToLEO, parsedMassToLEO);
+        parsedMassToLEO = mass;
+        return kilograms(mass);
+    }
+
+    /**
+     * @return the mass to GTO in kilograms, or NaN if it is not set or cannot be parsed.
+     */
+    @JsonIgnore
+    public double getKilogramsToGTO() {
+        Mass mass = Mass.reparse(massToGTO, parsedMassToGTO);
+        parsedMassToGTO = mass;
+        return kilograms(mass);
+    }
+
+    /**
+     * @return the mass to other orbits in kilograms, or NaN if it is not set or cannot be parsed.
+     */
+    @JsonIgnore
+    public double getKilogramsToOther() {
+        Mass mass = Mass.reparse(massToOther, parsedMassToOther);
+        parsedMassToOther = mass;
+        return kilograms(mass);
+    }
+
 
     public int getFirstYearFlight() {
         return firstYearFlight;
@@ -104,6 +177,7 @@ public class Rocket extends Entity {
             throw new IllegalArgumentException("massToLEO cannot be a negative value");
         }
         this.massToLEO = massToLEO;
+        this.parsedMassToLEO = Mass.parse(massToLEO);
     }
 
     public void setMassToGTO(String massToGTO) throws IllegalArgumentException {
@@ -112,6 +186,7 @@ public class Rocket extends Entity {
             throw new IllegalArgumentException("massToGTO cannot be a negative value");
         }
         this.massToGTO = massToGTO;
+        this.parsedMassToGTO = Mass.parse(massToGTO);
     }
 
     public void setMassToOther(String massToOther) throws IllegalArgumentException {
@@ -120,6 +195,7 @@ public class Rocket extends Entity {
             throw new IllegalArgumentException("massToOther cannot be a negative value");
         }
         this.massToOther = massToOther;
+        this.parsedMassToOther = Mass.parse(massToOther);
     }
 
     public void setFirstYearFlight(int firstYearFlight) {
@@ -2,7 +2,9 @@ package rockets.web;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import rockets.dataaccess.CachingDAO;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.Page;
 import rockets.dataaccess.neo4j.Neo4jDAO;
 import rockets.model.Rocket;
 import rockets.model.User;
@@ -28,6 +30,9 @@ import static spark.Spark.post;
 public class App {
     private static Logger logger = LoggerFactory.getLogger(App.class);
 
+    // entities listed per page, with a link to the next page after the last one
+    private static final int PAGE_SIZE = 50;
+
     private static DAO dao;
 
     public static void setDao(DAO dao) {
@@ -42,7 +47,8 @@ public class App {
 
         String dbAddress = properties.getProperty("neo4j.dir");
         if (null == dao) {
-            dao = new Neo4jDAO(dbAddress);
+            // users are looked up by id and email on every page view and login
+            dao = new CachingDAO(new Neo4jDAO(dbAddress));
         }
 
         // "/"
@@ -97,7 +103,9 @@ public class App {
         get("/users", (req, res) -> {
             Map<String, Object> attributes = new HashMap<String, Object>();
             try {
-                attributes.put("users", dao.loadAll(User.class));
+                Page<User> page = dao.loadPage(User.class, cursor(req), PAGE_SIZE, DAO.DEPTH_PROPERTIES);
+                attributes.put("users", page.getEntities());
+                attributes.put("nextCursor", page.getNextCursor());
                 return new ModelAndView(attributes, "users.html.ftl");
             } catch (Exception e) {
                 return handleException(res, attributes, e, "users.html.ftl");
@@ -288,7 +296,9 @@ public class App {
         get("/rockets", (req, res) -> {
             Map<String, Object> attributes = new HashMap<>();
             try {
-                attributes.put("missions", dao.loadAll(Rocket.class));
+                Page<Rocket> page = dao.loadPage(Rocket.class, cursor(req), PAGE_SIZE, DAO.DEPTH_PROPERTIES);
+                attributes.put("rockets", page.getEntities());
+                attributes.put("nextCursor", page.getNextCursor());
                 return new ModelAndView(attributes, "rockets.html.ftl");
             } catch (Exception e) {
                 return handleException(res, attributes, e, "rockets.html.ftl");
@@ -296,6 +306,14 @@ public class App {
         }, new FreeMarkerEngine());
     }
 
+    /**
+     * @return the cursor in the "after" query parameter, or null for the first page.
+     */
+    private static Long cursor(Request req) {
+        String after = req.queryParams("after");
+        return null == after || after.isEmpty() ? null : Long.parseLong(after);
+    }
+
     private static Properties loadProperties() throws IOException {
         ClassPathResource resource = new ClassPathResource("app.properties");
         Properties properties = new Properties();
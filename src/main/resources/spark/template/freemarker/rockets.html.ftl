@@ -1,4 +1,5 @@
 <#-- @ftlvariable name="errorMsg" type="java.lang.String" -->
+<#-- @ftlvariable name="nextCursor" type="java.lang.Long" -->
 <#-- @ftlvariable name="rockets" type="java.util.Collection<rockets.model.Rocket>" -->
 
 <!doctype html public "-//W3C//DTD HTML 4.01 Transitional//EN" "http://www.w3.org/TR/html4/loose.dtd">
@@ -26,6 +27,9 @@
         </#list>
 
     </ul>
+    <#if nextCursor??>
+        <p><a href="/rockets?after=${nextCursor?c}">Next</a></p>
+    </#if>
 <#else>
     <p>No rocket yet in the system. <a href="/rocket/create">Create one</a> now!</p>
 </#if>
@@ -1,4 +1,5 @@
 <#-- @ftlvariable name="errorMsg" type="java.lang.String" -->
+<#-- @ftlvariable name="nextCursor" type="java.lang.Long" -->
 <#-- @ftlvariable name="users" type="java.util.List<rockets.model.User>" -->
 
 <!doctype html public "-//W3C//DTD HTML 4.01 Transitional//EN" "http://www.w3.org/TR/html4/loose.dtd">
@@ -26,6 +27,9 @@
         </#list>
 
     </ul>
+    <#if nextCursor??>
+        <p><a href="/users?after=${nextCursor?c}">Next</a></p>
+    </#if>
 <#else>
     <p>Nobody in the system. <a href="/register">Register</a> now!</p>
 </#if>
@@ -0,0 +1,182 @@
+package rockets.dataaccess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+import rockets.model.User;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingDAOUnitTest {
+    private DAO dao;
+
+    private DAOListener listener;
+
+    private CachingDAO cachingDAO;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        dao = mock(DAO.class);
+        cachingDAO = new CachingDAO(dao, 100, Duration.ofMinutes(1));
+        ArgumentCaptor<DAOListener> captor = ArgumentCaptor.forClass(DAOListener.class);
+        verify(dao).addListener(captor.capture());
+        listener = captor.getValue();
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("abc@example.com");
+        when(dao.load(User.class, 1L, DAO.DEPTH_RELATED)).thenReturn(user);
+        when(dao.getUserByEmail("abc@example.com")).thenReturn(user);
+    }
+
+    @Test
+    public void shouldServeRepeatedLoadsByIdFromCache() {
+        assertSame(user, cachingDAO.load(User.class, 1L));
+        assertSame(user, cachingDAO.load(User.class, 1L));
+
+        verify(dao, times(1)).load(User.class, 1L, DAO.DEPTH_RELATED);
+        assertEquals(1, cachingDAO.getHits());
+        assertEquals(1, cachingDAO.getMisses());
+        assertEquals(0.5, cachingDAO.getHitRate());
+    }
+
+    @Test
+    public void shouldCacheLoadsAtDifferentDepthsSeparately() {
+        User properties = new User();
+        properties.setId(1L);
+        when(dao.load(User.class, 1L, DAO.DEPTH_PROPERTIES)).thenReturn(properties);
+
+        assertSame(user, cachingDAO.load(User.class, 1L));
+        assertSame(properties, cachingDAO.load(User.class, 1L, DAO.DEPTH_PROPERTIES));
+    }
+
+    @Test
+    public void shouldServeRepeatedLookupsByEmailFromCache() {
+        assertSame(user, cachingDAO.getUserByEmail("abc@example.com"));
+        assertSame(user, cachingDAO.getUserByEmail("abc@example.com"));
+
+        verify(dao, times(1)).getUserByEmail("abc@example.com");
+    }
+
+    @Test
+    public void shouldNotCacheMissingEntities() {
+        assertNull(cachingDAO.getUserByEmail("nobody@example.com"));
+        assertNull(cachingDAO.getUserByEmail("nobody@example.com"));
+
+        verify(dao, times(2)).getUserByEmail("nobody@example.com");
+        assertEquals(0, cachingDAO.size());
+    }
+
+    @Test
+    public void shouldDropCachedEntityWhenItIsSaved() {
+        cachingDAO.load(User.class, 1L);
+        cachingDAO.getUserByEmail("abc@example.com");
+
+        listener.onSaved(user);
+
+        assertEquals(0, cachingDAO.size());
+        assertEquals(2, cachingDAO.getInvalidations());
+        cachingDAO.getUserByEmail("abc@example.com");
+        verify(dao, times(2)).getUserByEmail("abc@example.com");
+    }
+
+    @Test
+    public void shouldDropCachedEntityWhenItIsDeleted() {
+        cachingDAO.load(User.class, 1L);
+
+        cachingDAO.delete(user);
+
+        verify(dao).delete(user);
+        assertEquals(0, cachingDAO.size());
+    }
+
+    @Test
+    public void shouldDropCachedEntitiesRelatedToTheSavedEntity() {
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        spacex.setId(10L);
+        Rocket falcon = new Rocket("Falcon 9", "USA", spacex);
+        falcon.setId(11L);
+        when(dao.load(Rocket.class, 11L, DAO.DEPTH_RELATED)).thenReturn(falcon);
+        cachingDAO.load(Rocket.class, 11L);
+        cachingDAO.load(User.class, 1L);
+
+        Launch launch = new Launch();
+        launch.setId(12L);
+        launch.setLaunchVehicle(falcon);
+        listener.onSaved(launch);
+
+        assertEquals(1, cachingDAO.size());
+        assertSame(user, cachingDAO.load(User.class, 1L));
+        cachingDAO.load(Rocket.class, 11L);
+        verify(dao, times(2)).load(Rocket.class, 11L, DAO.DEPTH_RELATED);
+    }
+
+    @Test
+    public void shouldKeepCachedEntitiesOnlyConnectedToTheSavedEntityFurtherAway() {
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        spacex.setId(10L);
+        Rocket falcon = new Rocket("Falcon 9", "USA", spacex);
+        falcon.setId(11L);
+        Rocket heavy = new Rocket("Falcon Heavy", "USA", spacex);
+        heavy.setId(13L);
+        when(dao.load(Rocket.class, 11L, DAO.DEPTH_RELATED)).thenReturn(falcon);
+        cachingDAO.load(Rocket.class, 11L);
+
+        Launch launch = new Launch();
+        launch.setId(12L);
+        launch.setLaunchVehicle(heavy);
+        launch.setLaunchServiceProvider(spacex);
+        listener.onSaved(launch);
+
+        assertEquals(1, cachingDAO.size());
+        assertEquals(0, cachingDAO.getInvalidations());
+    }
+
+    @Test
+    public void shouldStillInvalidateAfterEvictions() {
+        CachingDAO small = new CachingDAO(dao, 1, Duration.ofMinutes(1));
+        User other = new User();
+        other.setId(2L);
+        when(dao.load(User.class, 2L, DAO.DEPTH_RELATED)).thenReturn(other);
+        ArgumentCaptor<DAOListener> captor = ArgumentCaptor.forClass(DAOListener.class);
+        verify(dao, times(2)).addListener(captor.capture());
+
+        small.load(User.class, 1L);
+        small.load(User.class, 2L);
+        captor.getValue().onSaved(other);
+
+        assertEquals(0, small.size());
+        assertEquals(1, small.getInvalidations());
+    }
+
+    @Test
+    public void shouldNotCacheEntityLoadedWhileTheDataChanged() {
+        when(dao.getDataVersion()).thenReturn(1L, 2L);
+
+        cachingDAO.load(User.class, 1L);
+
+        assertEquals(0, cachingDAO.size());
+    }
+
+    @Test
+    public void shouldStopListeningWhenClosed() {
+        cachingDAO.close();
+
+        verify(dao).removeListener(listener);
+        verify(dao).close();
+    }
+
+    @Test
+    public void shouldOnlySupportAggregationWhenTheOtherDAODoes() {
+        assertFalse(cachingDAO.isAggregationSupported());
+        assertThrows(UnsupportedOperationException.class, () -> cachingDAO.mostLaunchedRocketIds(3));
+    }
+}
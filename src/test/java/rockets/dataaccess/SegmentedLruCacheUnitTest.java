@@ -0,0 +1,102 @@
+package rockets.dataaccess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedLruCacheUnitTest {
+    private AtomicLong now;
+
+    private SegmentedLruCache<String, String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        now = new AtomicLong();
+        cache = new SegmentedLruCache<>(5, Duration.ofSeconds(10), now::get);
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        cache.put("a", "A");
+
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedEntryOnProbation() {
+        for (String key : new String[]{"a", "b", "c", "d", "e", "f"}) {
+            cache.put(key, key.toUpperCase());
+        }
+
+        assertEquals(5, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("a"));
+        assertEquals("B", cache.get("b"));
+    }
+
+    @Test
+    public void shouldKeepEntriesHitAgainThroughAScan() {
+        cache.put("hot", "HOT");
+        cache.get("hot");
+        for (int i = 0; i < 20; i++) {
+            cache.put("scan" + i, "SCAN");
+        }
+
+        assertEquals("HOT", cache.get("hot"));
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    public void shouldExpireEntriesAfterTheTimeToLive() {
+        cache.put("a", "A");
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("A", cache.get("a"));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldRemoveEntriesFromBothSegments() {
+        cache.put("a", "A");
+        cache.get("a");
+        cache.put("b", "B");
+
+        assertEquals("A", cache.remove("a"));
+        assertEquals("B", cache.remove("b"));
+        assertNull(cache.remove("c"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldWorkWithASingleEntry() {
+        SegmentedLruCache<String, String> single = new SegmentedLruCache<>(1, Duration.ofSeconds(10), now::get);
+        single.put("a", "A");
+        assertEquals("A", single.get("a"));
+        single.put("b", "B");
+
+        assertNull(single.get("a"));
+        assertEquals("B", single.get("b"));
+        assertEquals(1, single.size());
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenMaximumSizeIsLessThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedLruCache<>(0, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenTimeToLiveIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedLruCache<>(1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,107 @@
+package rockets.dataaccess.neo4j;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NaturalKeyIndexUnitTest {
+    private NaturalKeyIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new NaturalKeyIndex(2, 1000);
+    }
+
+    private static Map<String, Object> rocket(String name) {
+        Map<String, Object> key = new HashMap<>();
+        key.put("name", name);
+        key.put("country", "USA");
+        return key;
+    }
+
+    @Test
+    public void shouldMapNaturalKeysToIdsPerClass() {
+        index.put(Rocket.class, rocket("F9"), 1L);
+        assertEquals(Long.valueOf(1), index.get(Rocket.class, rocket("F9")));
+        assertNull(index.get(Rocket.class, rocket("F1")));
+        assertNull(index.get(LaunchServiceProvider.class, rocket("F9")));
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedKeysBeyondTheCapacity() {
+        index.put(Rocket.class, rocket("F1"), 1L);
+        index.put(Rocket.class, rocket("F9"), 2L);
+        index.get(Rocket.class, rocket("F1"));
+        index.put(Rocket.class, rocket("FH"), 3L);
+
+        assertEquals(2, index.size());
+        assertEquals(Long.valueOf(1), index.get(Rocket.class, rocket("F1")));
+        assertNull(index.get(Rocket.class, rocket("F9")));
+        assertEquals(Long.valueOf(3), index.get(Rocket.class, rocket("FH")));
+    }
+
+    @Test
+    public void shouldForgetTheOldKeyWhenTheKeyOfAnIdChanges() {
+        index.put(Rocket.class, rocket("F9"), 1L);
+        index.put(Rocket.class, rocket("Falcon 9"), 1L);
+        assertNull(index.get(Rocket.class, rocket("F9")));
+        assertEquals(Long.valueOf(1), index.get(Rocket.class, rocket("Falcon 9")));
+
+        index.remove(1L);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shouldOnlyRuleOutKeysOfCompletedClasses() {
+        assertTrue(index.mightExist(Rocket.class, rocket("F9")));
+
+        index.complete(Rocket.class, Arrays.asList(rocket("F9")));
+        assertTrue(index.isComplete(Rocket.class));
+        assertTrue(index.mightExist(Rocket.class, rocket("F9")));
+        assertFalse(index.mightExist(Rocket.class, rocket("F1")));
+        assertFalse(index.isComplete(LaunchServiceProvider.class));
+    }
+
+    @Test
+    public void shouldKeepKeysThatMightExistAfterEviction() {
+        index.complete(Rocket.class, Arrays.asList());
+        index.put(Rocket.class, rocket("F1"), 1L);
+        index.put(Rocket.class, rocket("F9"), 2L);
+        index.put(Rocket.class, rocket("FH"), 3L);
+        assertTrue(index.mightExist(Rocket.class, rocket("F1")));
+    }
+
+    @Test
+    public void shouldMatchNumbersReadBackAsLongs() {
+        Map<String, Object> saved = new HashMap<>();
+        saved.put("name", "SpaceX");
+        saved.put("yearFounded", 2002);
+        Map<String, Object> read = new HashMap<>();
+        read.put("name", "SpaceX");
+        read.put("yearFounded", 2002L);
+
+        index.complete(LaunchServiceProvider.class, Arrays.asList(read));
+        assertTrue(index.mightExist(LaunchServiceProvider.class, saved));
+    }
+
+    @Test
+    public void shouldForgetEverythingWhenCleared() {
+        index.complete(Rocket.class, Arrays.asList());
+        index.put(Rocket.class, rocket("F9"), 1L);
+        index.clear();
+        assertNull(index.get(Rocket.class, rocket("F9")));
+        assertFalse(index.isComplete(Rocket.class));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCapacityIsLessThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> new NaturalKeyIndex(0, 1000));
+    }
+}
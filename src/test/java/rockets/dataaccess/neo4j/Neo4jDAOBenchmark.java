@@ -0,0 +1,118 @@
+package rockets.dataaccess.neo4j;
+
+import org.apache.commons.io.FileUtils;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.drivers.embedded.driver.EmbeddedDriver;
+import org.neo4j.ogm.session.SessionFactory;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+import rockets.model.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the throughput of saving launches one by one with createOrUpdate, all
+ * at once with createOrUpdateAll, and in a single unit of work with
+ * inTransaction, each into a fresh embedded database.
+ * <p>
+ * Each database is first loaded with as many other launches, so that Cypher
+ * plans the writes for a populated graph rather than an empty one, where it
+ * scans all nodes to match a node by id.
+ * <p>
+ * Usage: Neo4jDAOBenchmark [launches] [batch size]
+ */
+public class Neo4jDAOBenchmark {
+    private static final int PROVIDERS = 10;
+
+    private static final int ROCKETS = 50;
+
+    private enum Mode {PER_ENTITY, BULK, UNIT_OF_WORK}
+
+    public static void main(String[] args) throws IOException {
+        int launches = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : Neo4jDAO.DEFAULT_BATCH_SIZE;
+
+        // warms up every path before measuring
+        for (Mode mode : Mode.values()) {
+            run(launches / 10, batchSize, mode);
+        }
+
+        double perEntity = run(launches, batchSize, Mode.PER_ENTITY);
+        double bulk = run(launches, batchSize, Mode.BULK);
+        double unitOfWork = run(launches, batchSize, Mode.UNIT_OF_WORK);
+        System.out.printf("%d launches, %d rockets, %d providers, batch size %d%n", launches, ROCKETS, PROVIDERS, batchSize);
+        System.out.printf("createOrUpdate:    %10.1f launches/s%n", perEntity);
+        System.out.printf("createOrUpdateAll: %10.1f launches/s (%.1fx)%n", bulk, bulk / perEntity);
+        System.out.printf("inTransaction:     %10.1f launches/s (%.1fx)%n", unitOfWork, unitOfWork / perEntity);
+    }
+
+    private static double run(int n, int batchSize, Mode mode) throws IOException {
+        Path dir = Files.createTempDirectory("neo4j-benchmark");
+        Configuration configuration = new Configuration.Builder()
+                .uri(dir.toUri().toString())
+                .build();
+        EmbeddedDriver driver = new EmbeddedDriver();
+        driver.configure(configuration);
+        SessionFactory sessionFactory = new SessionFactory(driver, User.class.getPackage().getName());
+        try {
+            // loaded through another session, so the measured one starts empty
+            new Neo4jDAO(sessionFactory).createOrUpdateAll(launches(n, LocalDate.of(1860, 1, 1)));
+            Neo4jDAO dao = new Neo4jDAO(sessionFactory);
+            dao.setBatchSize(batchSize);
+            List<Launch> launches = launches(n, LocalDate.of(1960, 1, 1));
+            long start = System.nanoTime();
+            switch (mode) {
+                case PER_ENTITY:
+                    launches.forEach(dao::createOrUpdate);
+                    break;
+                case BULK:
+                    dao.createOrUpdateAll(launches);
+                    break;
+                case UNIT_OF_WORK:
+                    dao.inTransaction(unit -> {
+                        launches.forEach(unit::createOrUpdate);
+                        return null;
+                    });
+                    break;
+            }
+            return n / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            // closes the driver, so the store can be deleted
+            sessionFactory.close();
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+    }
+
+    private static List<Launch> launches(int n, LocalDate first) {
+        List<LaunchServiceProvider> lsps = new ArrayList<>();
+        for (int i = 0; i < PROVIDERS; i++) {
+            lsps.add(new LaunchServiceProvider("Provider" + i, 1950 + i, "Country" + i));
+        }
+        List<Rocket> rockets = new ArrayList<>();
+        for (int i = 0; i < ROCKETS; i++) {
+            LaunchServiceProvider lsp = lsps.get(i % PROVIDERS);
+            rockets.add(new Rocket("Rocket" + i, lsp.getCountry(), lsp));
+        }
+        List<Launch> launches = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Rocket rocket = rockets.get(i % ROCKETS);
+            Launch launch = new Launch();
+            launch.setLaunchDate(first.plusDays(i));
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(rocket.getManufacturer());
+            launch.setLaunchSite("Site" + i % 20);
+            launch.setOrbit(i % 3 == 0 ? "GTO" : "LEO");
+            launch.setPrice(BigDecimal.valueOf(1_000_000L + i));
+            launch.setLaunchOutcome(i % 10 == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            launches.add(launch);
+        }
+        return launches;
+    }
+}
@@ -0,0 +1,113 @@
+package rockets.dataaccess.neo4j;
+
+import org.apache.commons.io.FileUtils;
+import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.drivers.embedded.driver.EmbeddedDriver;
+import org.neo4j.ogm.session.SessionFactory;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+import rockets.model.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the throughput of loading launches by id from a growing number of
+ * threads, first through a DAO with a single session, which the threads take
+ * turns using, and then through a DAO with a session per thread.
+ * <p>
+ * Usage: Neo4jDAOConcurrencyBenchmark [launches] [seconds per run] [most threads]
+ */
+public class Neo4jDAOConcurrencyBenchmark {
+    private static final int ROCKETS = 50;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int launches = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 2 * Runtime.getRuntime().availableProcessors();
+
+        Path dir = Files.createTempDirectory("neo4j-concurrency-benchmark");
+        Configuration configuration = new Configuration.Builder()
+                .uri(dir.toUri().toString())
+                .build();
+        EmbeddedDriver driver = new EmbeddedDriver();
+        driver.configure(configuration);
+        SessionFactory sessionFactory = new SessionFactory(driver, User.class.getPackage().getName());
+        try {
+            new Neo4jDAO(sessionFactory).createOrUpdateAll(launches(launches));
+            List<Long> ids = new ArrayList<>();
+            for (Map<String, Object> row : new Neo4jDAO(sessionFactory).loadProperties(Launch.class)) {
+                ids.add((Long) row.get("id"));
+            }
+
+            // warms up both paths before measuring
+            run(new Neo4jDAO(sessionFactory, 1), ids, maxThreads, seconds);
+            run(new Neo4jDAO(sessionFactory, maxThreads), ids, maxThreads, seconds);
+
+            System.out.printf("%d launches, %d cores, %d s per run%n", launches,
+                    Runtime.getRuntime().availableProcessors(), seconds);
+            System.out.printf("%8s %18s %18s%n", "threads", "1 session", "session per thread");
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double shared = run(new Neo4jDAO(sessionFactory, 1), ids, threads, seconds);
+                double pooled = run(new Neo4jDAO(sessionFactory, threads), ids, threads, seconds);
+                System.out.printf("%8d %13.1f/s %13.1f/s (%.1fx)%n", threads, shared, pooled, pooled / shared);
+            }
+        } finally {
+            // closes the driver, so the store can be deleted
+            sessionFactory.close();
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+    }
+
+    private static double run(DAO dao, List<Long> ids, int threads, int seconds) throws InterruptedException {
+        LongAdder loads = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    dao.load(Launch.class, ids.get(random.nextInt(ids.size())));
+                    loads.increment();
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return loads.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static List<Launch> launches(int n) {
+        List<Rocket> rockets = new ArrayList<>();
+        for (int i = 0; i < ROCKETS; i++) {
+            LaunchServiceProvider lsp = new LaunchServiceProvider("Provider" + i % 10, 1950 + i % 10, "Country" + i % 10);
+            rockets.add(new Rocket("Rocket" + i, lsp.getCountry(), lsp));
+        }
+        List<Launch> launches = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Rocket rocket = rockets.get(i % ROCKETS);
+            Launch launch = new Launch();
+            launch.setLaunchDate(LocalDate.of(1960, 1, 1).plusDays(i));
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(rocket.getManufacturer());
+            launch.setLaunchSite("Site" + i % 20);
+            launch.setOrbit(i % 3 == 0 ? "GTO" : "LEO");
+            launch.setPrice(BigDecimal.valueOf(1_000_000L + i));
+            launch.setLaunchOutcome(i % 10 == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            launches.add(launch);
+        }
+        return launches;
+    }
+}
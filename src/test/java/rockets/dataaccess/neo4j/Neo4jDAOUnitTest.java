@@ -2,22 +2,61 @@ package rockets.dataaccess.neo4j;
 
 import com.google.common.collect.Sets;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentMatchers;
 import org.neo4j.ogm.config.Configuration;
+import org.neo4j.ogm.cypher.Filters;
 import org.neo4j.ogm.drivers.embedded.driver.EmbeddedDriver;
 import org.neo4j.ogm.session.Session;
 import org.neo4j.ogm.session.SessionFactory;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.DAOListener;
+import rockets.dataaccess.Page;
+import rockets.dataaccess.Score;
+import rockets.dataaccess.UnitOfWork;
+import rockets.mining.MiningSnapshot;
+import rockets.mining.RocketMiner;
+import rockets.mining.SnapshotFile;
+import rockets.model.Entity;
 import rockets.model.Launch;
 import rockets.model.LaunchServiceProvider;
 import rockets.model.Rocket;
 import rockets.model.User;
 
 import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class Neo4jDAOUnitTest {
@@ -194,8 +233,629 @@ public class Neo4jDAOUnitTest {
         assertEquals(1, dao.loadAll(Rocket.class).size());
     }
 
+    @Test
+    public void shouldNotifyListenersOfCascadedSavesAndDeletes() {
+        List<Entity> saved = new ArrayList<>();
+        List<Entity> deleted = new ArrayList<>();
+        DAOListener listener = new DAOListener() {
+            @Override
+            public void onSaved(Entity entity) {
+                saved.add(entity);
+            }
+
+            @Override
+            public void onDeleted(Entity entity) {
+                deleted.add(entity);
+            }
+        };
+        dao.addListener(listener);
+        try {
+            spacex.getRockets().add(rocket);
+            dao.createOrUpdate(spacex);
+            assertTrue(saved.contains(rocket));
+            assertTrue(saved.contains(spacex));
+
+            dao.delete(rocket);
+            assertEquals(1, deleted.size());
+            assertEquals(rocket, deleted.get(0));
+        } finally {
+            dao.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void shouldBumpDataVersionOnEveryWrite() {
+        long version = dao.getDataVersion();
+        dao.createOrUpdate(rocket);
+        long saved = dao.getDataVersion();
+        assertTrue(saved > version);
+        dao.loadAll(Rocket.class);
+        assertEquals(saved, dao.getDataVersion());
+        dao.delete(rocket);
+        assertTrue(dao.getDataVersion() > saved);
+    }
+
+    private List<Launch> saveLaunches() {
+        LaunchServiceProvider ula = new LaunchServiceProvider("ULA", 2006, "USA");
+        Rocket ariane = new Rocket("Ariane5", "France", esa);
+        Rocket atlas = new Rocket("AtlasV", "USA", ula);
+        Rocket[] vehicles = new Rocket[]{rocket, rocket, rocket, ariane, ariane, atlas};
+        int[] prices = new int[]{60, 62, 55, 180, 175, 110};
+        String[] orbits = new String[]{"LEO", "LEO", "GTO", "GTO", "GTO", "LEO"};
+        boolean[] successful = new boolean[]{true, true, false, true, false, true};
+
+        List<Launch> launches = new ArrayList<>();
+        for (int i = 0; i < vehicles.length; i++) {
+            Launch launch = new Launch();
+            launch.setLaunchDate(LocalDate.of(2017 + i % 2, i + 1, 1));
+            launch.setLaunchVehicle(vehicles[i]);
+            launch.setLaunchServiceProvider(vehicles[i].getManufacturer());
+            launch.setLaunchSite("Site" + i);
+            launch.setOrbit(orbits[i]);
+            launch.setPrice(BigDecimal.valueOf(prices[i]));
+            launch.setLaunchOutcome(successful[i] ? Launch.LaunchOutcome.SUCCESSFUL : Launch.LaunchOutcome.FAILED);
+            launches.add(dao.createOrUpdate(launch));
+        }
+        return launches;
+    }
+
+    @Test
+    public void shouldAggregateLaunchesInsideTheDatabase() {
+        saveLaunches();
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        assertTrue(neo4jDAO.isAggregationSupported());
+
+        List<Score<Long>> rockets = neo4jDAO.mostLaunchedRocketIds(10);
+        assertEquals(3, rockets.size());
+        assertEquals(2.0, rockets.get(0).getScore());
+        assertEquals(rocket, dao.load(Rocket.class, rockets.get(0).getKey()));
+
+        List<Score<Long>> revenue = neo4jDAO.highestRevenueLaunchServiceProviderIds(1, 2017);
+        assertEquals(1, revenue.size());
+        assertEquals(175.0, revenue.get(0).getScore());
+        assertEquals(esa, dao.load(LaunchServiceProvider.class, revenue.get(0).getKey()));
+
+        assertEquals(new Score<>("Europe", 1.0), neo4jDAO.dominantCountries("GTO", 5).get(0));
+        assertTrue(neo4jDAO.dominantCountries("MEO", 5).isEmpty());
+    }
+
+    @Test
+    public void shouldRankPricesAndRevenueExactlyInsideTheDatabase() {
+        // 2^53 and 2^53 + 1 are the same double, so only exact ranking tells them apart either way
+        BigDecimal even = new BigDecimal("9007199254740992");
+        BigDecimal odd = even.add(BigDecimal.ONE);
+        List<Launch> launches = newLaunches(3, new Rocket("Ariane5", "France", esa), rocket);
+        launches.get(0).setPrice(even);
+        launches.get(1).setPrice(odd);
+        launches.get(2).setPrice(new BigDecimal("0.5"));
+        dao.createOrUpdateAll(launches);
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+
+        assertEquals(Collections.singletonList(launches.get(1).getId()), neo4jDAO.launchIdsByPrice(1, null, true));
+        assertEquals(Collections.singletonList(launches.get(2).getId()), neo4jDAO.launchIdsByPrice(1, null, false));
+        assertEquals(spacex.getId(), neo4jDAO.highestRevenueLaunchServiceProviderIds(1, 2017).get(0).getKey());
+
+        launches.get(0).setPrice(odd);
+        launches.get(1).setPrice(even);
+        dao.createOrUpdateAll(launches.subList(0, 2));
+
+        assertEquals(Collections.singletonList(launches.get(0).getId()), neo4jDAO.launchIdsByPrice(1, null, true));
+        assertEquals(esa.getId(), neo4jDAO.highestRevenueLaunchServiceProviderIds(1, 2017).get(0).getKey());
+    }
+
+    @Test
+    public void shouldRankLikeTheInMemorySnapshotWhenAggregatingInsideTheDatabase() {
+        saveLaunches();
+        RocketMiner miner = new RocketMiner(dao);
+        MiningSnapshot snapshot = miner.snapshot();
+
+        assertEquals(snapshot.mostLaunchedRockets(3), miner.mostLaunchedRockets(3));
+        assertEquals(snapshot.mostReliableLaunchServiceProviders(3), miner.mostReliableLaunchServiceProviders(3));
+        assertEquals(snapshot.leastReliableLaunchServiceProviders(3), miner.leastReliableLaunchServiceProviders(3));
+        assertEquals(snapshot.highestRevenueLaunchServiceProviders(2, 2018), miner.highestRevenueLaunchServiceProviders(2, 2018));
+        assertEquals(snapshot.dominantCountry("LEO"), miner.dominantCountry("LEO"));
+        assertEquals(snapshot.mostRecentLaunches(4), miner.mostRecentLaunches(4));
+        assertEquals(snapshot.mostRecentFailedLaunches(2), miner.mostRecentFailedLaunches(2));
+        assertEquals(snapshot.mostExpensiveLaunches(6), miner.mostExpensiveLaunches(6));
+        assertEquals(snapshot.mostExpensiveFailedLaunches(2), miner.mostExpensiveFailedLaunches(2));
+        assertEquals(snapshot.mostAffordableLaunches(4), miner.mostAffordableLaunches(4));
+        assertThrows(IllegalArgumentException.class, () -> miner.mostLaunchedRockets(4));
+        assertThrows(IllegalArgumentException.class, () -> miner.mostRecentFailedLaunches(-1));
+    }
+
+    @Test
+    public void shouldAggregateDatesLikeTheInMemorySnapshotFromProjectedLaunches() {
+        dao.createOrUpdateAll(newLaunches(30, rocket));
+        RocketMiner miner = new RocketMiner(new Neo4jDAO(sessionFactory.openSession()));
+        MiningSnapshot snapshot = new RocketMiner(dao).snapshot();
+        LocalDate from = LocalDate.of(2017, 1, 1);
+        LocalDate to = LocalDate.of(2017, 12, 31);
+
+        assertEquals(snapshot.dateIndex().launchCountsPerYear(from, to), miner.launchCountsPerYear(from, to));
+        assertEquals(snapshot.dateIndex().launchCountsPerMonth(from, to), miner.launchCountsPerMonth(from, to));
+        assertEquals(snapshot.dateIndex().revenuePerYear(from, to), miner.revenuePerYear(from, to));
+        assertEquals(snapshot.dateIndex().revenuePerMonth(from, to), miner.revenuePerMonth(from, to));
+    }
+
+    @Test
+    public void shouldWriteAndReadBackASnapshotFileOfLoadedLaunches() throws IOException {
+        Rocket ariane = new Rocket("Ariane5", "France", esa);
+        dao.createOrUpdateAll(newLaunches(6, rocket, ariane));
+        Collection<Launch> loaded = new Neo4jDAO(sessionFactory.openSession()).loadAll(Launch.class);
+        assertTrue(loaded.stream().allMatch(launch -> null == launch.getLaunchVehicle().getManufacturer()));
+
+        Path file = Files.createTempFile("mining", ".snapshot");
+        try {
+            SnapshotFile.write(file, loaded);
+            List<Launch> read = SnapshotFile.read(file);
+
+            assertEquals(new ArrayList<>(loaded), read);
+            MiningSnapshot original = new MiningSnapshot(loaded);
+            MiningSnapshot restored = new MiningSnapshot(read);
+            assertEquals(original.mostLaunchedRockets(2), restored.mostLaunchedRockets(2));
+            assertEquals(original.mostExpensiveLaunches(3), restored.mostExpensiveLaunches(3));
+            assertEquals(original.highestRevenueLaunchServiceProviders(2, 2017), restored.highestRevenueLaunchServiceProviders(2, 2017));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private List<Launch> newLaunches(int n, Rocket... vehicles) {
+        List<Launch> launches = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Launch launch = new Launch();
+            launch.setLaunchDate(LocalDate.of(2017, 1 + i % 12, 1 + i / 12));
+            launch.setLaunchVehicle(vehicles[i % vehicles.length]);
+            launch.setLaunchServiceProvider(vehicles[i % vehicles.length].getManufacturer());
+            launch.setLaunchSite("Site" + i);
+            launch.setPrice(BigDecimal.valueOf(i));
+            launch.setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+            launches.add(launch);
+        }
+        return launches;
+    }
+
+    @Test
+    public void shouldSaveSharedRocketsAndProvidersOnceWhenCreatingAll() {
+        Rocket ariane = new Rocket("Ariane5", "France", esa);
+        List<Launch> launches = newLaunches(7, rocket, ariane);
+        ((Neo4jDAO) dao).setBatchSize(3);
+
+        assertSame(launches, dao.createOrUpdateAll(launches));
+        launches.forEach(launch -> assertNotNull(launch.getId()));
+        assertEquals(7, dao.loadAll(Launch.class).size());
+        assertEquals(2, dao.loadAll(Rocket.class).size());
+        assertEquals(2, dao.loadAll(LaunchServiceProvider.class).size());
+
+        List<Score<Long>> rockets = ((Neo4jDAO) dao).mostLaunchedRocketIds(2);
+        assertEquals(new Score<>(rocket.getId(), 4.0), rockets.get(0));
+        assertEquals(new Score<>(ariane.getId(), 3.0), rockets.get(1));
+        assertEquals(esa, dao.load(Rocket.class, ariane.getId()).getManufacturer());
+    }
+
+    @Test
+    public void shouldSaveEntitiesWithTheSameNaturalKeyAsOneWhenCreatingAll() {
+        Rocket copy = new Rocket("F9", "USA", new LaunchServiceProvider("SpaceX", 2002, "USA"));
+        List<Launch> launches = newLaunches(4, rocket, copy);
+
+        dao.createOrUpdateAll(launches);
+        assertEquals(1, dao.loadAll(Rocket.class).size());
+        assertEquals(1, dao.loadAll(LaunchServiceProvider.class).size());
+        assertEquals(rocket.getId(), copy.getId());
+        assertEquals(spacex.getId(), copy.getManufacturer().getId());
+        assertEquals(new Score<>(rocket.getId(), 4.0), ((Neo4jDAO) dao).mostLaunchedRocketIds(1).get(0));
+    }
+
+    @Test
+    public void shouldKeepTheRelationshipsOfEveryDuplicateWhenSavedInSeparateBatches() {
+        Rocket copy = new Rocket("F9", "USA", new LaunchServiceProvider("SpaceX", 2002, "USA"));
+        List<Launch> launches = newLaunches(4, rocket, copy);
+        rocket.setLaunches(Sets.newHashSet(launches.get(0), launches.get(2)));
+        copy.setLaunches(Sets.newHashSet(launches.get(1), launches.get(3)));
+        Neo4jDAO neo4jDAO = new Neo4jDAO(sessionFactory);
+        neo4jDAO.setBatchSize(1);
+
+        neo4jDAO.createOrUpdateAll(Arrays.asList(rocket, copy));
+
+        Rocket loaded = new Neo4jDAO(sessionFactory.openSession()).load(Rocket.class, rocket.getId());
+        assertEquals(4, loaded.getLaunches().size());
+        assertEquals(new Score<>(rocket.getId(), 4.0), neo4jDAO.mostLaunchedRocketIds(1).get(0));
+    }
+
+    @Test
+    public void shouldUpdateExistingEntitiesByNaturalKeyWhenCreatingAll() {
+        List<Launch> saved = newLaunches(3, rocket);
+        saved.forEach(dao::createOrUpdate);
+
+        LaunchServiceProvider otherSpacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        List<Launch> launches = newLaunches(5, new Rocket("F9", "USA", otherSpacex));
+        launches.get(0).setOrbit("LEO");
+        dao.createOrUpdateAll(launches);
+
+        assertEquals(5, dao.loadAll(Launch.class).size());
+        assertEquals(1, dao.loadAll(Rocket.class).size());
+        assertEquals(1, dao.loadAll(LaunchServiceProvider.class).size());
+        assertEquals(saved.get(0).getId(), launches.get(0).getId());
+        assertEquals(spacex.getId(), otherSpacex.getId());
+        assertEquals("LEO", dao.load(Launch.class, saved.get(0).getId()).getOrbit());
+    }
+
+    @Test
+    public void shouldNotifyListenersOfEveryEntityWhenCreatingAll() {
+        List<Entity> saved = new ArrayList<>();
+        DAOListener listener = new DAOListener() {
+            @Override
+            public void onSaved(Entity entity) {
+                saved.add(entity);
+            }
+
+            @Override
+            public void onDeleted(Entity entity) {
+            }
+        };
+        List<Launch> launches = newLaunches(2, rocket);
+        long version = dao.getDataVersion();
+        dao.addListener(listener);
+        try {
+            dao.createOrUpdateAll(launches);
+            assertEquals(4, saved.size());
+            assertTrue(saved.containsAll(launches));
+            assertTrue(saved.contains(rocket));
+            assertTrue(saved.contains(spacex));
+            assertTrue(dao.getDataVersion() > version);
+        } finally {
+            dao.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenBatchSizeIsLessThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> ((Neo4jDAO) dao).setBatchSize(0));
+    }
+
+    @Test
+    public void shouldNotQueryForEntitiesAlreadySavedWhenUpsertingAgain() {
+        Session spied = spy(sessionFactory.openSession());
+        Neo4jDAO neo4jDAO = new Neo4jDAO(spied);
+        List<Launch> launches = newLaunches(3, rocket);
+        launches.forEach(neo4jDAO::createOrUpdate);
+        reset(spied);
+
+        rocket.setWikilink("https://en.wikipedia.org/wiki/Falcon_9");
+        neo4jDAO.createOrUpdate(rocket);
+        neo4jDAO.createOrUpdate(new Rocket("F9", "USA", spacex));
+        neo4jDAO.createOrUpdate(launches.get(0));
+        neo4jDAO.createOrUpdate(new Rocket("Falcon Heavy", "USA", spacex));
+        verify(spied, never()).loadAll(ArgumentMatchers.<Class<Entity>>any(), any(Filters.class));
+        verify(spied, never()).query(anyString(), anyMap());
+
+        assertEquals(2, neo4jDAO.loadAll(Rocket.class).size());
+        assertEquals(3, neo4jDAO.loadAll(Launch.class).size());
+        assertEquals("https://en.wikipedia.org/wiki/Falcon_9",
+                neo4jDAO.load(Rocket.class, rocket.getId()).getWikilink());
+    }
+
+    @Test
+    public void shouldRollBackAFailedBatchWhenCreatingAll() {
+        Session spied = spy(sessionFactory.openSession());
+        Neo4jDAO neo4jDAO = new Neo4jDAO(spied);
+        doThrow(new IllegalStateException("Write failed"))
+                .when(spied).save(argThat(batch -> batch instanceof List), eq(DAO.DEPTH_RELATED));
+
+        assertThrows(IllegalStateException.class, () -> neo4jDAO.createOrUpdateAll(newLaunches(3, rocket)));
+        assertNull(spied.getTransaction());
+
+        reset(spied);
+        User user = new User();
+        user.setEmail("rollback@example.com");
+        neo4jDAO.createOrUpdate(user);
+        assertEquals(user, new Neo4jDAO(sessionFactory.openSession()).getUserByEmail("rollback@example.com"));
+    }
+
+    @Test
+    public void shouldFindEntitiesSavedBeforeTheDAOWasCreated() {
+        List<Launch> launches = newLaunches(2, rocket);
+        dao.createOrUpdateAll(launches);
+
+        Neo4jDAO neo4jDAO = new Neo4jDAO(sessionFactory.openSession());
+        Rocket copy = new Rocket("F9", "USA", new LaunchServiceProvider("SpaceX", 2002, "USA"));
+        neo4jDAO.createOrUpdate(copy);
+        assertEquals(rocket.getId(), copy.getId());
+        assertEquals(1, neo4jDAO.loadAll(Rocket.class).size());
+    }
+
+    @Test
+    public void shouldCommitAUnitOfWorkOnce() {
+        Session spied = spy(sessionFactory.openSession());
+        Neo4jDAO neo4jDAO = new Neo4jDAO(spied);
+        List<Launch> launches = newLaunches(6, rocket, new Rocket("Ariane5", "France", esa));
+        long version = neo4jDAO.getDataVersion();
+
+        int registered = neo4jDAO.inTransaction(unit -> {
+            launches.forEach(unit::createOrUpdate);
+            unit.createOrUpdate(spacex);
+            return launches.size() + 1;
+        });
+        assertEquals(7, registered);
+        verify(spied, times(1)).beginTransaction();
+        assertEquals(version + 1, neo4jDAO.getDataVersion());
+        launches.forEach(launch -> assertNotNull(launch.getId()));
+        assertEquals(6, neo4jDAO.loadAll(Launch.class).size());
+        assertEquals(2, neo4jDAO.loadAll(Rocket.class).size());
+        assertEquals(2, neo4jDAO.loadAll(LaunchServiceProvider.class).size());
+    }
+
+    @Test
+    public void shouldSaveAndDeleteInAUnitOfWork() {
+        List<Launch> launches = newLaunches(2, rocket);
+        dao.createOrUpdateAll(launches);
+        List<Entity> saved = new ArrayList<>();
+        List<Entity> deleted = new ArrayList<>();
+        DAOListener listener = new DAOListener() {
+            @Override
+            public void onSaved(Entity entity) {
+                saved.add(entity);
+            }
+
+            @Override
+            public void onDeleted(Entity entity) {
+                deleted.add(entity);
+            }
+        };
+        dao.addListener(listener);
+        try {
+            dao.inTransaction(unit -> {
+                Launch launch = unit.load(Launch.class, launches.get(0).getId());
+                launch.setOrbit("GTO");
+                unit.createOrUpdate(launch);
+                unit.delete(launches.get(1));
+                return null;
+            });
+            assertEquals("GTO", dao.load(Launch.class, launches.get(0).getId()).getOrbit());
+            assertEquals(1, dao.loadAll(Launch.class).size());
+            assertEquals(Arrays.asList(launches.get(1)), deleted);
+            assertFalse(saved.isEmpty());
+            assertFalse(saved.contains(launches.get(1)));
+        } finally {
+            dao.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void shouldWriteNothingWhenTheUnitOfWorkFails() {
+        long version = dao.getDataVersion();
+        assertThrows(IllegalStateException.class, () -> dao.inTransaction(unit -> {
+            unit.createOrUpdate(rocket);
+            throw new IllegalStateException();
+        }));
+        assertTrue(dao.loadAll(Rocket.class).isEmpty());
+        assertEquals(version, dao.getDataVersion());
+    }
+
+    @Test
+    public void shouldThrowIllegalStateExceptionWhenAFlushedUnitOfWorkIsUsed() {
+        UnitOfWork flushed = dao.inTransaction(unit -> unit);
+        assertThrows(IllegalStateException.class, () -> flushed.createOrUpdate(rocket));
+    }
+
+    @Test
+    public void shouldLoadOnlyThePropertiesOfEntitiesAtDepthZero() {
+        dao.createOrUpdateAll(newLaunches(3, rocket));
+        // a new session, since the saving one already holds the related entities
+        DAO fresh = new Neo4jDAO(sessionFactory.openSession());
+
+        Collection<Launch> launches = fresh.loadAll(Launch.class, DAO.DEPTH_PROPERTIES);
+        assertEquals(3, launches.size());
+        for (Launch launch : launches) {
+            assertNotNull(launch.getLaunchDate());
+            assertNotNull(launch.getPrice());
+            assertNull(launch.getLaunchVehicle());
+            assertNull(launch.getLaunchServiceProvider());
+        }
+        Rocket loaded = fresh.load(Rocket.class, rocket.getId(), DAO.DEPTH_PROPERTIES);
+        assertEquals("F9", loaded.getName());
+        assertNull(loaded.getManufacturer());
+        assertNull(fresh.loadPage(Launch.class, null, 10, DAO.DEPTH_PROPERTIES)
+                .getEntities().get(0).getLaunchVehicle());
+    }
+
+    @Test
+    public void shouldLoadRelatedEntitiesAtDepthOne() {
+        dao.createOrUpdateAll(newLaunches(3, rocket));
+        DAO fresh = new Neo4jDAO(sessionFactory.openSession());
+
+        for (Launch launch : fresh.loadAll(Launch.class, DAO.DEPTH_RELATED)) {
+            assertEquals("F9", launch.getLaunchVehicle().getName());
+            assertEquals(spacex, launch.getLaunchServiceProvider());
+        }
+        assertEquals(spacex, fresh.load(Rocket.class, rocket.getId(), DAO.DEPTH_RELATED).getManufacturer());
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenDepthIsLessThanMinusOne() {
+        assertThrows(IllegalArgumentException.class, () -> dao.load(Rocket.class, 0L, -2));
+        assertThrows(IllegalArgumentException.class, () -> dao.loadAll(Rocket.class, -2));
+        assertThrows(IllegalArgumentException.class, () -> dao.loadPage(Rocket.class, null, 10, -2));
+    }
+
+    @Test
+    public void shouldLoadOnlyTheProjectedPropertiesConverted() {
+        List<Launch> launches = newLaunches(3, rocket);
+        launches.get(1).setPrice(null);
+        dao.createOrUpdateAll(launches);
+        dao.createOrUpdate(esa);
+
+        launches.sort(Comparator.comparing(Launch::getId));
+
+        List<Map<String, Object>> rows = dao.loadProperties(Launch.class, "launchDate", "price", "launchOutcome");
+        assertEquals(3, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            assertEquals(Arrays.asList("id", "launchDate", "price", "launchOutcome"), new ArrayList<>(row.keySet()));
+            assertEquals(launches.get(i).getId(), row.get("id"));
+            assertEquals(launches.get(i).getLaunchDate(), row.get("launchDate"));
+            assertEquals(launches.get(i).getPrice(), row.get("price"));
+            assertEquals(Launch.LaunchOutcome.SUCCESSFUL, row.get("launchOutcome"));
+        }
+        List<Map<String, Object>> providers = dao.loadProperties(LaunchServiceProvider.class, "yearFounded");
+        assertTrue(providers.stream().anyMatch(row -> Integer.valueOf(1970).equals(row.get("yearFounded"))));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenProjectingAnUnknownProperty() {
+        assertThrows(IllegalArgumentException.class, () -> dao.loadProperties(Launch.class, "launchVehicle"));
+        assertThrows(IllegalArgumentException.class, () -> dao.loadProperties(Launch.class, "color"));
+    }
+
+    @Test
+    public void shouldSaveAndLoadFromSeveralThreadsAtOnce() throws Exception {
+        Neo4jDAO pooled = new Neo4jDAO(sessionFactory, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> loaded = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                LaunchServiceProvider lsp = new LaunchServiceProvider("Provider" + i, 2000 + i, "Country" + i);
+                Rocket vehicle = new Rocket("Rocket" + i, lsp.getCountry(), lsp);
+                loaded.add(executor.submit(() -> {
+                    pooled.createOrUpdateAll(newLaunches(10, vehicle));
+                    return pooled.loadAll(Launch.class).size();
+                }));
+            }
+            for (Future<Integer> future : loaded) {
+                assertTrue(future.get(60, TimeUnit.SECONDS) >= 10);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(40, dao.loadAll(Launch.class).size());
+        assertEquals(4, dao.loadAll(Rocket.class).size());
+    }
+
+    @Test
+    public void shouldLoadWhatAnotherThreadWroteThroughAnotherSession() throws Exception {
+        List<Launch> launches = newLaunches(2, rocket);
+        rocket.setLaunches(Sets.newHashSet(launches));
+        dao.createOrUpdate(rocket);
+        Neo4jDAO pooled = new Neo4jDAO(sessionFactory, 2);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // holds the session released last, so the write goes through another one
+            Future<Integer> before = executor.submit(() -> pooled.inTransaction(work -> {
+                int size = pooled.load(Rocket.class, rocket.getId()).getLaunches().size();
+                read.countDown();
+                try {
+                    written.await(60, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return size;
+            }));
+            assertTrue(read.await(60, TimeUnit.SECONDS));
+            pooled.delete(launches.get(0));
+            written.countDown();
+            assertEquals(2, before.get(60, TimeUnit.SECONDS).intValue());
+
+            Future<Integer> after = executor.submit(() -> pooled.load(Rocket.class, rocket.getId()).getLaunches().size());
+            assertEquals(1, after.get(60, TimeUnit.SECONDS).intValue());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldLoadPagesInIdOrderUntilNoEntityIsLeft() {
+        dao.createOrUpdateAll(newLaunches(5, rocket));
+        List<Long> ids = new ArrayList<>();
+        Page<Launch> page = dao.loadPage(Launch.class, null, 2);
+        List<Integer> sizes = new ArrayList<>();
+        while (true) {
+            sizes.add(page.getEntities().size());
+            page.getEntities().forEach(launch -> ids.add(launch.getId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = dao.loadPage(Launch.class, page.getNextCursor(), 2);
+        }
+
+        assertEquals(Arrays.asList(2, 2, 1), sizes);
+        List<Long> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(sorted, ids);
+        assertEquals(5, Sets.newHashSet(ids).size());
+        assertEquals(rocket, dao.loadPage(Launch.class, null, 1).getEntities().get(0).getLaunchVehicle());
+    }
+
+    @Test
+    public void shouldEndOnAFullPageWhenEntitiesAreAMultipleOfTheLimit() {
+        dao.createOrUpdateAll(newLaunches(4, rocket));
+        Page<Launch> first = dao.loadPage(Launch.class, null, 2);
+        assertTrue(first.hasNext());
+
+        Page<Launch> second = dao.loadPage(Launch.class, first.getNextCursor(), 2);
+        assertEquals(2, second.getEntities().size());
+        assertFalse(second.hasNext());
+        assertNull(second.getNextCursor());
+        assertEquals(4, dao.stream(Launch.class, 2).count());
+    }
+
+    @Test
+    public void shouldLoadAnEmptyLastPage() {
+        Page<Rocket> page = dao.loadPage(Rocket.class, null, 10);
+        assertTrue(page.getEntities().isEmpty());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenPageLimitIsLessThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> dao.loadPage(Launch.class, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> dao.stream(Launch.class, 0));
+    }
+
+    @Test
+    public void shouldStreamAllEntitiesInBatches() {
+        List<Launch> launches = newLaunches(7, rocket);
+        dao.createOrUpdateAll(launches);
+
+        List<Launch> streamed;
+        try (Stream<Launch> stream = dao.stream(Launch.class, 3)) {
+            streamed = stream.collect(Collectors.toList());
+        }
+        assertEquals(7, streamed.size());
+        Set<Long> ids = Sets.newHashSet();
+        launches.forEach(launch -> ids.add(launch.getId()));
+        for (int i = 0; i < streamed.size(); i++) {
+            assertTrue(ids.contains(streamed.get(i).getId()));
+            assertEquals(rocket.getName(), streamed.get(i).getLaunchVehicle().getName());
+            if (i > 0) {
+                assertTrue(streamed.get(i - 1).getId() < streamed.get(i).getId());
+            }
+        }
+    }
+
+    @Test
+    public void shouldOnlyLoadTheBatchesThatAreConsumed() {
+        dao.createOrUpdateAll(newLaunches(7, rocket));
+        Session spied = spy(sessionFactory.openSession());
+        Neo4jDAO neo4jDAO = new Neo4jDAO(spied);
+
+        try (Stream<Launch> stream = neo4jDAO.stream(Launch.class, 3)) {
+            Iterator<Launch> iterator = stream.iterator();
+            for (int i = 0; i < 3; i++) {
+                assertNotNull(iterator.next());
+            }
+            verify(spied, times(1)).query(anyString(), anyMap());
+            assertNotNull(iterator.next());
+            verify(spied, times(2)).query(anyString(), anyMap());
+        }
+    }
+
     @AfterEach
     public void tearDown() {
+        ((Neo4jDAO) dao).clearNaturalKeys();
+        ((Neo4jDAO) dao).setBatchSize(Neo4jDAO.DEFAULT_BATCH_SIZE);
         session.purgeDatabase();
     }
 
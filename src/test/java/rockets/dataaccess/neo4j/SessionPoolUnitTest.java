@@ -0,0 +1,143 @@
+package rockets.dataaccess.neo4j;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SessionPoolUnitTest {
+    private SessionFactory sessionFactory;
+
+    private AtomicLong version;
+
+    private SessionPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.openSession()).thenAnswer(invocation -> mock(Session.class));
+        version = new AtomicLong();
+        pool = new SessionPool(sessionFactory, 2, version::get);
+    }
+
+    @Test
+    public void shouldLendTheSameSessionToNestedAcquires() {
+        Session session = pool.acquire();
+        assertSame(session, pool.acquire());
+        pool.release();
+        assertSame(session, pool.current());
+        pool.release();
+        assertThrows(IllegalStateException.class, () -> pool.current());
+    }
+
+    @Test
+    public void shouldKeepLendingTheLastReleasedSessionToASingleThread() {
+        Session session = pool.acquire();
+        pool.release();
+        for (int i = 0; i < 3; i++) {
+            assertSame(session, pool.acquire());
+            pool.release();
+        }
+        assertEquals(1, pool.opened());
+        verify(session, never()).clear();
+    }
+
+    @Test
+    public void shouldKeepASessionThatTheDataWasWrittenThrough() {
+        Session session = pool.acquire();
+        pool.written();
+        version.incrementAndGet();
+        pool.release();
+
+        assertSame(session, pool.acquire());
+        pool.release();
+        verify(session, never()).clear();
+    }
+
+    @Test
+    public void shouldClearASessionLentAgainAfterTheDataWasWrittenElsewhere() {
+        Session session = pool.acquire();
+        pool.release();
+        version.incrementAndGet();
+
+        assertSame(session, pool.acquire());
+        pool.release();
+        assertSame(session, pool.acquire());
+        pool.release();
+        verify(session).clear();
+    }
+
+    @Test
+    public void shouldLendDifferentSessionsToConcurrentThreads() throws Exception {
+        Session session = pool.acquire();
+        Session other = CompletableFuture.supplyAsync(() -> {
+            Session acquired = pool.acquire();
+            pool.release();
+            return acquired;
+        }).get(5, TimeUnit.SECONDS);
+
+        assertNotSame(session, other);
+        assertEquals(2, pool.opened());
+        pool.release();
+    }
+
+    @Test
+    public void shouldWaitForASessionWhenAllAreLent() throws Exception {
+        pool.acquire();
+        CountDownLatch lent = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        new Thread(() -> {
+            pool.acquire();
+            lent.countDown();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool.release();
+        }).start();
+        assertTrue(lent.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Session> waiting = CompletableFuture.supplyAsync(() -> {
+            Session acquired = pool.acquire();
+            pool.release();
+            return acquired;
+        });
+        assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+        done.countDown();
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(2, pool.opened());
+        pool.release();
+    }
+
+    @Test
+    public void shouldLendOnlyTheGivenSession() {
+        Session session = mock(Session.class);
+        SessionPool single = new SessionPool(session, version::get);
+        assertSame(session, single.acquire());
+        single.release();
+        assertEquals(1, single.size());
+    }
+
+    @Test
+    public void shouldThrowIllegalStateExceptionWhenReleasingWithoutAcquiring() {
+        assertThrows(IllegalStateException.class, () -> pool.release());
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenSizeIsLessThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionPool(sessionFactory, 0, version::get));
+    }
+}
@@ -0,0 +1,113 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.neo4j.Neo4jDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class CachingRocketMinerUnitTest {
+    private DAO dao;
+    private CachingRocketMiner miner;
+    private List<Launch> launches;
+
+    @BeforeEach
+    public void setUp() {
+        dao = mock(Neo4jDAO.class);
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        launches = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Launch launch = new Launch();
+            launch.setLaunchServiceProvider(spacex);
+            launch.setLaunchVehicle(new Rocket("rocket_" + i, "USA", spacex));
+            launch.setLaunchDate(LocalDate.of(2017, i + 1, 1));
+            launch.setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+            launch.setPrice(BigDecimal.valueOf(100 * (i + 1)));
+            launch.setOrbit("LEO");
+            launches.add(launch);
+        }
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        miner = new CachingRocketMiner(dao, 3);
+    }
+
+    @Test
+    public void shouldServeRepeatedCallsFromCacheWhileDataVersionIsUnchanged() {
+        List<Launch> first = miner.mostRecentLaunches(2);
+        List<Launch> second = miner.mostRecentLaunches(2);
+
+        assertSame(first, second);
+        assertEquals(1, miner.getHits());
+        verify(dao, times(1)).loadAll(Launch.class);
+    }
+
+    @Test
+    public void shouldShareOneSnapshotBetweenDifferentQueries() {
+        miner.mostRecentLaunches(2);
+        miner.mostExpensiveLaunches(2);
+        miner.dominantCountry("LEO");
+
+        verify(dao, times(1)).loadAll(Launch.class);
+    }
+
+    @Test
+    public void shouldRecomputeAfterDataVersionChanges() {
+        AtomicLong version = new AtomicLong();
+        when(dao.getDataVersion()).thenAnswer(invocation -> version.get());
+        assertEquals(launches.get(4), miner.mostRecentLaunches(1).get(0));
+        launches.remove(4);
+        version.incrementAndGet();
+        assertEquals(launches.get(3), miner.mostRecentLaunches(1).get(0));
+
+        assertEquals(1, miner.getInvalidations());
+        assertEquals(0, miner.getHits());
+        verify(dao, times(2)).loadAll(Launch.class);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResultsBeyondMaximumSize() {
+        miner.mostRecentLaunches(1);
+        miner.mostRecentLaunches(2);
+        miner.mostRecentLaunches(3);
+        miner.mostRecentLaunches(1);
+        miner.mostRecentLaunches(4);
+
+        // k = 3 and k = 1 were used after k = 2, so k = 2 is evicted
+        assertEquals(1, miner.getEvictions());
+        assertEquals(3, miner.size());
+        long misses = miner.getMisses();
+        miner.mostRecentLaunches(1);
+        assertEquals(misses, miner.getMisses());
+        miner.mostRecentLaunches(2);
+        assertEquals(misses + 1, miner.getMisses());
+    }
+
+    @Test
+    public void shouldNotAllowCachedResultsToBeModified() {
+        List<Launch> recent = miner.mostRecentLaunches(2);
+        assertThrows(UnsupportedOperationException.class, () -> recent.clear());
+        assertThrows(UnsupportedOperationException.class, () -> miner.dominantCountryByOrbit().clear());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 6})
+    public void shouldNotCacheExceptions(int k) {
+        assertThrows(IllegalArgumentException.class, () -> miner.mostRecentLaunches(k));
+        assertThrows(IllegalArgumentException.class, () -> miner.mostRecentLaunches(k));
+        assertEquals(0, miner.size());
+    }
+}
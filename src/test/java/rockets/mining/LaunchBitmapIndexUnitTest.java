@@ -0,0 +1,75 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LaunchBitmapIndexUnitTest {
+    private LaunchServiceProvider spacex;
+    private LaunchServiceProvider esa;
+    private List<Launch> launches;
+    private LaunchBitmapIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        esa = new LaunchServiceProvider("ESA", 1975, "Europe");
+        launches = new ArrayList<>();
+        add(spacex, 2017, "LEO", "KSC", Launch.LaunchOutcome.SUCCESSFUL);
+        add(spacex, 2018, "GTO", "KSC", Launch.LaunchOutcome.FAILED);
+        add(esa, 2018, "GTO", "Kourou", Launch.LaunchOutcome.FAILED);
+        add(esa, 2018, "LEO", "Kourou", Launch.LaunchOutcome.SUCCESSFUL);
+        add(spacex, 2018, "GTO", "VAFB", Launch.LaunchOutcome.SUCCESSFUL);
+        add(null, 0, null, null, null);
+        index = new LaunchBitmapIndex(LaunchColumns.of(launches));
+    }
+
+    private void add(LaunchServiceProvider lsp, int year, String orbit, String site, Launch.LaunchOutcome outcome) {
+        Launch launch = new Launch();
+        launch.setLaunchServiceProvider(lsp);
+        launch.setLaunchDate(0 == year ? null : LocalDate.of(year, 1, 1));
+        launch.setOrbit(orbit);
+        launch.setLaunchSite(site);
+        launch.setLaunchOutcome(outcome);
+        launches.add(launch);
+    }
+
+    @Test
+    public void shouldIndexRowsOfEachDimension() {
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, index.all().toArray());
+        assertArrayEquals(new int[]{0, 3, 4}, index.successful().toArray());
+        assertArrayEquals(new int[]{1, 2}, index.outcome(Launch.LaunchOutcome.FAILED).toArray());
+        assertArrayEquals(new int[]{1, 2, 4}, index.orbit("GTO").toArray());
+        assertArrayEquals(new int[]{2, 3}, index.site("Kourou").toArray());
+        assertArrayEquals(new int[]{0, 1, 4}, index.provider(spacex).toArray());
+        assertArrayEquals(new int[]{1, 2, 3, 4}, index.year(2018).toArray());
+        assertTrue(index.orbit("Polar Orbit").isEmpty());
+        assertTrue(index.year(1990).isEmpty());
+    }
+
+    @Test
+    public void shouldCombineFilters() {
+        RoaringBitmap failedToGto = index.failed().and(index.orbit("GTO"));
+        assertEquals(Arrays.asList(launches.get(1), launches.get(2)), index.launches(failedToGto));
+        assertEquals(1, failedToGto.andCardinality(index.provider(esa)));
+        assertArrayEquals(new int[]{0, 1, 3, 4}, index.site("KSC").or(index.orbit("LEO")).or(index.site("VAFB")).toArray());
+    }
+
+    @Test
+    public void shouldMatchEveryGivenFilterAndIgnoreNullOnes() {
+        assertArrayEquals(new int[]{1}, index.matching(Launch.LaunchOutcome.FAILED, "GTO", spacex, 2018).toArray());
+        assertArrayEquals(new int[]{1, 2, 4}, index.matching(null, "GTO", null, 2018).toArray());
+        assertEquals(6, index.matching(null, null, null, null).cardinality());
+        assertTrue(index.matching(Launch.LaunchOutcome.SUCCESSFUL, "GTO", esa, null).isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LaunchColumnsUnitTest {
+    private LaunchServiceProvider esa;
+    private Rocket ariane;
+    private Launch launch;
+
+    @BeforeEach
+    public void setUp() {
+        esa = new LaunchServiceProvider("ESA", 1975, "Europe");
+        ariane = new Rocket("Ariane 5", "France", esa);
+        launch = new Launch();
+        launch.setLaunchDate(LocalDate.of(2018, 12, 19));
+        launch.setLaunchVehicle(ariane);
+        launch.setLaunchServiceProvider(esa);
+        launch.setLaunchSite("Kourou");
+        launch.setOrbit("GTO");
+        launch.setPrice(new BigDecimal("178000000.50"));
+        launch.setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+    }
+
+    @Test
+    public void shouldEncodeEveryColumnOfALaunch() {
+        LaunchColumns columns = LaunchColumns.of(Collections.singletonList(launch));
+
+        assertEquals(1, columns.size());
+        assertSame(launch, columns.launches(0).get(0));
+        assertEquals(LocalDate.of(2018, 12, 19).toEpochDay(), columns.launchDate(0));
+        assertEquals(2018, columns.launchYear(0));
+        assertTrue(columns.hasScaledPrice(0));
+        assertEquals(17800000050L, columns.scaledPrice(0));
+        assertEquals(0, new BigDecimal("178000000.50").compareTo(columns.price(0)));
+        assertTrue(columns.isSuccessful(0));
+        assertFalse(columns.isFailed(0));
+        assertEquals("GTO", columns.orbits().decode(columns.orbit(0)));
+        assertEquals("Kourou", columns.sites().decode(columns.site(0)));
+        assertEquals(ariane, columns.rockets().decode(columns.rocket(0)));
+        assertEquals(esa, columns.providers().decode(columns.provider(0)));
+        assertEquals("Europe", columns.countries().decode(columns.providerCountry(columns.provider(0))));
+    }
+
+    @Test
+    public void shouldKeepOnlyLaunchesWithoutIdsAndLoadTheOthersInOneCall() {
+        Launch saved = new Launch();
+        saved.setId(4L);
+        Launch deleted = new Launch();
+        deleted.setId(5L);
+        List<List<Long>> calls = new ArrayList<>();
+        Launch loaded = new Launch();
+        loaded.setId(4L);
+
+        LaunchColumns columns = LaunchColumns.of(Arrays.asList(launch, deleted, saved), ids -> {
+            calls.add(ids);
+            return Collections.singletonList(loaded);
+        });
+
+        assertEquals(4, columns.id(0));
+        assertEquals(LaunchColumns.NO_ID, columns.id(2));
+        assertEquals(Collections.singletonList(launch), columns.launches(2));
+        assertTrue(calls.isEmpty());
+        List<Launch> launches = columns.launches(2, 1, 0);
+        assertEquals(2, launches.size());
+        assertSame(launch, launches.get(0));
+        assertSame(loaded, launches.get(1));
+        assertEquals(Collections.singletonList(Arrays.asList(5L, 4L)), calls);
+    }
+
+    @Test
+    public void shouldOrderRowsAndEntityCodesByIdWithEntitiesWithoutIdsLast() {
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        spacex.setId(1L);
+        Rocket falcon = new Rocket("Falcon 9", "USA", spacex);
+        falcon.setId(2L);
+        Launch later = new Launch();
+        later.setId(5L);
+        later.setLaunchVehicle(falcon);
+        later.setLaunchServiceProvider(spacex);
+        Launch earlier = new Launch();
+        earlier.setId(4L);
+        earlier.setLaunchVehicle(ariane);
+        earlier.setLaunchServiceProvider(esa);
+
+        LaunchColumns columns = LaunchColumns.of(Arrays.asList(launch, later, earlier));
+
+        assertEquals(Arrays.asList(earlier, later, launch), columns.launches());
+        assertEquals(Arrays.asList(falcon, ariane), columns.rockets().values());
+        assertEquals(Arrays.asList(spacex, esa), columns.providers().values());
+        assertEquals("USA", columns.countries().decode(columns.providerCountry(columns.provider(1))));
+    }
+
+    @Test
+    public void shouldShareDictionaryCodesBetweenLaunches() {
+        Launch other = new Launch();
+        other.setLaunchVehicle(ariane);
+        other.setLaunchServiceProvider(esa);
+        other.setOrbit("GTO");
+        LaunchColumns columns = LaunchColumns.of(Arrays.asList(launch, other));
+
+        assertEquals(columns.rocket(0), columns.rocket(1));
+        assertEquals(columns.provider(0), columns.provider(1));
+        assertEquals(columns.orbit(0), columns.orbit(1));
+        assertEquals(1, columns.providers().size());
+        assertEquals(Dictionary.NONE, columns.site(1));
+        assertEquals(LaunchColumns.NO_DATE, columns.launchDate(1));
+        assertFalse(columns.hasPrice(1));
+        assertNull(columns.price(1));
+        assertFalse(columns.isSuccessful(1) || columns.isFailed(1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.001", "92233720368547758.08", "1E+30"})
+    public void shouldKeepPricesThatDoNotFitAScaledLongExact(String price) {
+        launch.setPrice(new BigDecimal(price));
+        LaunchColumns columns = LaunchColumns.of(Collections.singletonList(launch));
+
+        assertTrue(columns.hasPrice(0));
+        assertFalse(columns.hasScaledPrice(0));
+        assertEquals(new BigDecimal(price), columns.price(0));
+    }
+
+    @Test
+    public void shouldComparePricesAcrossScaledAndExactRows() {
+        Launch cheap = new Launch();
+        cheap.setPrice(new BigDecimal("0.005"));
+        LaunchColumns columns = LaunchColumns.of(Arrays.asList(launch, cheap));
+
+        assertTrue(columns.comparePrices(0, 1) > 0);
+        assertTrue(columns.comparePrices(1, 0) < 0);
+        assertEquals(0, columns.comparePrices(0, 0));
+    }
+}
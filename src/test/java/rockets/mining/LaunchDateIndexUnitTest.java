@@ -0,0 +1,84 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.model.Launch;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LaunchDateIndexUnitTest {
+    private List<Launch> launches;
+    private LaunchDateIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        LocalDate[] dates = new LocalDate[]{
+                LocalDate.of(2018, 3, 1), LocalDate.of(2016, 7, 4), LocalDate.of(2018, 3, 1),
+                LocalDate.of(2017, 12, 31), null, LocalDate.of(2018, 1, 15)};
+        launches = IntStream.range(0, dates.length).mapToObj(i -> {
+            Launch launch = new Launch();
+            launch.setLaunchDate(dates[i]);
+            launch.setPrice(BigDecimal.valueOf(10 * (i + 1)));
+            launch.setLaunchOutcome(i % 2 == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            return launch;
+        }).collect(Collectors.toList());
+        index = new LaunchDateIndex(LaunchColumns.of(launches));
+    }
+
+    @Test
+    public void shouldIndexOnlyDatedLaunches() {
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    public void shouldReturnLaunchesInADateRangeOldestFirst() {
+        assertEquals(Arrays.asList(launches.get(3), launches.get(5), launches.get(0), launches.get(2)),
+                index.launchesBetween(LocalDate.of(2017, 1, 1), LocalDate.of(2018, 3, 1)));
+        assertEquals(1, index.countBetween(LocalDate.of(2016, 7, 4), LocalDate.of(2016, 7, 4)));
+        assertEquals(0, index.countBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2020, 1, 1)));
+    }
+
+    @Test
+    public void shouldScanMostRecentFirstKeepingSameDayLaunchesInOrder() {
+        assertEquals(Arrays.asList(0, 2, 5, 3), index.mostRecentRows(4, row -> true));
+        assertEquals(Arrays.asList(0, 2, 1), index.mostRecentRows(10, row -> row % 2 == 0 || row == 1));
+    }
+
+    @Test
+    public void shouldBucketLaunchCountsAndRevenueByYearAndMonth() {
+        LocalDate from = LocalDate.of(2016, 1, 1);
+        LocalDate to = LocalDate.of(2018, 12, 31);
+
+        SortedMap<Integer, Long> perYear = index.launchCountsPerYear(from, to);
+        assertEquals(Arrays.asList(2016, 2017, 2018), Arrays.asList(perYear.keySet().toArray()));
+        assertEquals(Arrays.asList(1L, 1L, 3L), Arrays.asList(perYear.values().toArray()));
+
+        SortedMap<YearMonth, Long> perMonth = index.launchCountsPerMonth(from, to);
+        assertEquals(2L, (long) perMonth.get(YearMonth.of(2018, 3)));
+        assertEquals(4, perMonth.size());
+
+        SortedMap<Integer, BigDecimal> revenue = index.revenuePerYear(from, to);
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(revenue.get(2018)));
+        SortedMap<YearMonth, BigDecimal> monthlyRevenue = index.revenuePerMonth(from, to);
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(monthlyRevenue.get(YearMonth.of(2018, 3))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30, 365})
+    public void shouldThrowIllegalArgumentExceptionWhenRangeIsReversed(int days) {
+        LocalDate to = LocalDate.of(2018, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> index.launchesBetween(to.plusDays(days), to));
+    }
+}
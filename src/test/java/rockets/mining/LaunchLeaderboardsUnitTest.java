@@ -0,0 +1,127 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LaunchLeaderboardsUnitTest {
+    private List<LaunchServiceProvider> lsps;
+    private List<Rocket> rockets;
+    private List<Launch> launches;
+    private LaunchLeaderboards leaderboards;
+
+    @BeforeEach
+    public void setUp() {
+        lsps = Arrays.asList(
+                new LaunchServiceProvider("ULA", 1990, "USA"),
+                new LaunchServiceProvider("SpaceX", 2002, "USA"),
+                new LaunchServiceProvider("ESA", 1975, "Europe")
+        );
+        rockets = Arrays.asList(
+                new Rocket("Atlas V", "USA", lsps.get(0)),
+                new Rocket("Falcon 9", "USA", lsps.get(1)),
+                new Rocket("Ariane 5", "France", lsps.get(2))
+        );
+        int[] rocketIndex = new int[]{0, 0, 1, 1, 1, 2};
+        Launch.LaunchOutcome[] outcomes = new Launch.LaunchOutcome[]{
+                Launch.LaunchOutcome.SUCCESSFUL, Launch.LaunchOutcome.FAILED, Launch.LaunchOutcome.SUCCESSFUL,
+                Launch.LaunchOutcome.SUCCESSFUL, Launch.LaunchOutcome.SUCCESSFUL, Launch.LaunchOutcome.SUCCESSFUL};
+        launches = IntStream.range(0, 6).mapToObj(i -> {
+            Launch l = new Launch();
+            l.setId((long) i);
+            l.setLaunchDate(LocalDate.of(2018, i + 1, 1));
+            l.setLaunchVehicle(rockets.get(rocketIndex[i]));
+            l.setLaunchServiceProvider(rockets.get(rocketIndex[i]).getManufacturer());
+            l.setLaunchOutcome(outcomes[i]);
+            l.setPrice(BigDecimal.valueOf(100 * (i + 1)));
+            l.setOrbit(i == 5 ? "GTO" : "LEO");
+            return l;
+        }).collect(Collectors.toList());
+
+        leaderboards = new LaunchLeaderboards();
+        leaderboards.rebuild(launches);
+    }
+
+    @Test
+    public void shouldAgreeWithASnapshotAfterRebuild() {
+        MiningSnapshot snapshot = new MiningSnapshot(launches);
+        assertEquals(snapshot.mostLaunchedRockets(3), leaderboards.mostLaunchedRockets(3));
+        assertEquals(snapshot.mostReliableLaunchServiceProviders(3), leaderboards.mostReliableLaunchServiceProviders(3));
+        assertEquals(snapshot.leastReliableLaunchServiceProviders(3), leaderboards.leastReliableLaunchServiceProviders(3));
+        assertEquals(snapshot.highestRevenueLaunchServiceProviders(3, 2018), leaderboards.highestRevenueLaunchServiceProviders(3, 2018));
+        assertEquals(snapshot.dominantCountry("GTO"), leaderboards.dominantCountry("GTO"));
+    }
+
+    @Test
+    public void shouldReplaceTheContributionOfAnUpdatedLaunch() {
+        assertEquals(lsps.get(1), leaderboards.mostReliableLaunchServiceProviders(1).get(0));
+
+        Launch launch = launches.get(2);
+        launch.setLaunchOutcome(Launch.LaunchOutcome.FAILED);
+        launches.get(3).setLaunchOutcome(Launch.LaunchOutcome.FAILED);
+        leaderboards.onSaved(launch);
+        leaderboards.onSaved(launches.get(3));
+        assertEquals(lsps.get(2), leaderboards.mostReliableLaunchServiceProviders(1).get(0));
+        assertEquals(lsps.get(1), leaderboards.leastReliableLaunchServiceProviders(1).get(0));
+
+        launches.get(0).setPrice(BigDecimal.valueOf(10000));
+        leaderboards.onSaved(launches.get(0));
+        assertEquals(lsps.get(0), leaderboards.highestRevenueLaunchServiceProviders(1, 2018).get(0));
+
+        launches.get(5).setOrbit("LEO");
+        leaderboards.onSaved(launches.get(5));
+        assertEquals("No Rocket in this Orbit", leaderboards.dominantCountry("GTO"));
+        assertEquals("USA", leaderboards.dominantCountry("LEO"));
+    }
+
+    @Test
+    public void shouldRankRevenueExactlyWhenItOverflowsALong() {
+        BigDecimal huge = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+        launches.get(0).setPrice(huge);
+        launches.get(1).setPrice(huge);
+        launches.get(5).setPrice(huge.add(new BigDecimal("0.01")));
+        leaderboards.rebuild(launches);
+        assertEquals(Arrays.asList(lsps.get(0), lsps.get(2), lsps.get(1)),
+                leaderboards.highestRevenueLaunchServiceProviders(3, 2018));
+
+        leaderboards.onDeleted(launches.get(1));
+        assertEquals(Arrays.asList(lsps.get(2), lsps.get(0), lsps.get(1)),
+                leaderboards.highestRevenueLaunchServiceProviders(3, 2018));
+    }
+
+    @Test
+    public void shouldRemoveTheContributionOfADeletedLaunch() {
+        leaderboards.onDeleted(launches.get(5));
+        assertEquals("No Rocket in this Orbit", leaderboards.dominantCountry("GTO"));
+        assertEquals(2, leaderboards.mostLaunchedRockets(2).size());
+        assertThrows(IllegalArgumentException.class, () -> leaderboards.mostLaunchedRockets(3));
+        assertThrows(IllegalArgumentException.class, () -> leaderboards.mostReliableLaunchServiceProviders(3));
+    }
+
+    @Test
+    public void shouldIgnoreEntitiesOtherThanLaunches() {
+        leaderboards.onSaved(rockets.get(0));
+        leaderboards.onDeleted(lsps.get(0));
+        assertEquals(rockets.get(1), leaderboards.mostLaunchedRockets(1).get(0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 4})
+    public void shouldThrowIllegalArgumentExceptionWhenLessRocketsThanRequested(int k) {
+        assertThrows(IllegalArgumentException.class, () -> leaderboards.mostLaunchedRockets(k));
+    }
+}
@@ -0,0 +1,124 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LaunchQueryUnitTest {
+    private LaunchServiceProvider ula;
+    private LaunchServiceProvider spacex;
+    private LaunchServiceProvider esa;
+    private List<Launch> launches;
+    private LaunchColumns columns;
+
+    @BeforeEach
+    public void setUp() {
+        ula = new LaunchServiceProvider("ULA", 2006, "USA");
+        spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        esa = new LaunchServiceProvider("ESA", 1975, "Europe");
+        List<LaunchServiceProvider> lsps = Arrays.asList(ula, spacex, esa);
+        String[] orbits = new String[]{"LEO", "GTO", "SSO"};
+        Random random = new Random(3);
+        launches = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            LaunchServiceProvider lsp = lsps.get(random.nextInt(3));
+            Launch launch = new Launch();
+            launch.setLaunchServiceProvider(lsp);
+            launch.setLaunchVehicle(new Rocket("rocket_" + random.nextInt(5), lsp.getCountry(), lsp));
+            launch.setLaunchDate(LocalDate.of(2010 + random.nextInt(8), 1 + random.nextInt(12), 1));
+            launch.setOrbit(orbits[random.nextInt(3)]);
+            launch.setLaunchOutcome(random.nextInt(5) == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            if (random.nextBoolean()) {
+                launch.setPrice(BigDecimal.valueOf(random.nextInt(100000), 2));
+            }
+            launches.add(launch);
+        }
+        columns = LaunchColumns.of(launches);
+    }
+
+    private static BigDecimal revenue(List<Launch> launches) {
+        return launches.stream().map(Launch::getPrice).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Test
+    public void shouldAggregateLikeGroupingWithStreams() {
+        List<LaunchGroup<LaunchServiceProvider>> groups = LaunchQuery.groupBy(LaunchDimension.PROVIDER)
+                .filter(LaunchFilter.orbit("GTO"))
+                .run(columns);
+
+        Map<LaunchServiceProvider, List<Launch>> expected = launches.stream()
+                .filter(l -> "GTO".equals(l.getOrbit()))
+                .collect(Collectors.groupingBy(Launch::getLaunchServiceProvider));
+        assertEquals(expected.size(), groups.size());
+        for (LaunchGroup<LaunchServiceProvider> group : groups) {
+            List<Launch> own = expected.get(group.getKey());
+            assertEquals(own.size(), group.getLaunches());
+            assertEquals(own.stream().filter(l -> Launch.LaunchOutcome.SUCCESSFUL == l.getLaunchOutcome()).count(),
+                    group.getSuccessfulLaunches());
+            assertEquals(0, revenue(own).compareTo(group.getRevenue()));
+        }
+        for (int i = 1; i < groups.size(); i++) {
+            assertTrue(groups.get(i - 1).getLaunches() >= groups.get(i).getLaunches());
+        }
+    }
+
+    @Test
+    public void shouldRankByAggregateAndKeepTopK() {
+        List<LaunchGroup<Integer>> byRevenue = LaunchQuery.groupBy(LaunchDimension.YEAR)
+                .filter(LaunchFilter.provider(spacex))
+                .orderBy(LaunchAggregate.SUM_PRICE)
+                .top(3)
+                .run(columns);
+
+        Map<Integer, BigDecimal> expected = launches.stream()
+                .filter(l -> spacex.equals(l.getLaunchServiceProvider()))
+                .collect(Collectors.groupingBy(l -> l.getLaunchDate().getYear(),
+                        Collectors.reducing(BigDecimal.ZERO, l -> null == l.getPrice() ? BigDecimal.ZERO : l.getPrice(), BigDecimal::add)));
+        List<BigDecimal> top = expected.values().stream().sorted(Comparator.reverseOrder()).limit(3).collect(Collectors.toList());
+        assertEquals(top, byRevenue.stream().map(LaunchGroup::getRevenue).collect(Collectors.toList()));
+
+        List<LaunchGroup<String>> leastReliable = LaunchQuery.groupBy(LaunchDimension.COUNTRY)
+                .orderBy(LaunchAggregate.SUCCESS_RATE)
+                .ascending()
+                .run(columns);
+        assertEquals(2, leastReliable.size());
+        assertTrue(leastReliable.get(0).getSuccessRate() <= leastReliable.get(1).getSuccessRate());
+    }
+
+    @Test
+    public void shouldRunSeveralQueriesInOneScan() {
+        LaunchQuery<Rocket> rockets = LaunchQuery.groupBy(LaunchDimension.ROCKET).filter(LaunchFilter.successful()).top(2);
+        LaunchQuery<String> orbits = LaunchQuery.groupBy(LaunchDimension.ORBIT)
+                .filter(LaunchFilter.country("USA").and(LaunchFilter.years(2012, 2014)));
+        LaunchQuery<LaunchServiceProvider> none = LaunchQuery.groupBy(LaunchDimension.PROVIDER).filter(LaunchFilter.orbit("Polar"));
+
+        LaunchQuery.Results results = LaunchQuery.runAll(columns, Arrays.asList(rockets, orbits, none));
+
+        assertEquals(rockets.run(columns), results.get(rockets));
+        assertEquals(orbits.run(columns), results.get(orbits));
+        assertEquals(2, results.get(rockets).size());
+        assertEquals(launches.stream().filter(l -> !"Europe".equals(l.getLaunchServiceProvider().getCountry())
+                        && l.getLaunchDate().getYear() >= 2012 && l.getLaunchDate().getYear() <= 2014).count(),
+                results.get(orbits).stream().mapToLong(LaunchGroup::getLaunches).sum());
+        assertTrue(results.get(none).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> results.get(LaunchQuery.groupBy(LaunchDimension.ORBIT)));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenQueryIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> LaunchQuery.groupBy(LaunchDimension.ORBIT).top(-1));
+        assertThrows(IllegalArgumentException.class, () -> LaunchFilter.years(2018, 2017));
+        assertThrows(NullPointerException.class, () -> LaunchQuery.groupBy(null));
+    }
+}
@@ -0,0 +1,104 @@
+package rockets.mining;
+
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LaunchSketchesUnitTest {
+    private static final int LAUNCHES = 20000;
+
+    private LaunchServiceProvider spacex;
+    private List<Rocket> rockets;
+    private Map<Rocket, Long> successfulLaunches;
+    private List<Double> prices;
+    private LaunchSketches sketches;
+
+    @BeforeEach
+    public void setUp() {
+        spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        rockets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rockets.add(new Rocket("rocket_" + i, "USA", spacex));
+        }
+        successfulLaunches = new HashMap<>();
+        prices = new ArrayList<>();
+        sketches = new LaunchSketches();
+
+        Random random = new Random(42);
+        for (int i = 0; i < LAUNCHES; i++) {
+            // a few rockets fly far more often than the rest
+            Rocket rocket = rockets.get((int) (rockets.size() * Math.pow(random.nextDouble(), 4)));
+            Launch launch = new Launch();
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(spacex);
+            launch.setLaunchSite("site_" + (i % 300));
+            launch.setPayload(Sets.newHashSet("payload_" + i, "payload_" + (i / 2)));
+            launch.setLaunchOutcome(random.nextInt(10) < 9 ? Launch.LaunchOutcome.SUCCESSFUL : Launch.LaunchOutcome.FAILED);
+            double price = Math.round(random.nextGaussian() * 1000 + 60000);
+            launch.setPrice(BigDecimal.valueOf(price));
+            prices.add(price);
+            if (Launch.LaunchOutcome.SUCCESSFUL == launch.getLaunchOutcome()) {
+                successfulLaunches.merge(rocket, 1L, Long::sum);
+            }
+            sketches.add(launch);
+        }
+        Collections.sort(prices);
+    }
+
+    @Test
+    public void shouldBoundLaunchCountsOfMostLaunchedRockets() {
+        Map<Rocket, Estimate> top = sketches.mostLaunchedRockets(10);
+
+        List<Rocket> exact = new ArrayList<>(successfulLaunches.keySet());
+        exact.sort((a, b) -> Long.compare(successfulLaunches.get(b), successfulLaunches.get(a)));
+        assertEquals(10, top.size());
+        assertEquals(new HashSet<>(exact.subList(0, 5)), new HashSet<>(new ArrayList<>(top.keySet()).subList(0, 5)));
+        for (Map.Entry<Rocket, Estimate> entry : top.entrySet()) {
+            assertTrue(entry.getValue().contains(successfulLaunches.get(entry.getKey())));
+        }
+    }
+
+    @Test
+    public void shouldBoundDistinctCounts() {
+        assertTrue(sketches.distinctPayloads().contains(LAUNCHES));
+        assertTrue(sketches.distinctLaunchSites().contains(300));
+        assertTrue(sketches.distinctRockets().contains(successfulLaunches.size()));
+        assertEquals(20000, sketches.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, 0.01, 0.25, 0.5, 0.75, 0.99, 1})
+    public void shouldBoundPriceQuantiles(double q) {
+        Estimate price = sketches.priceQuantile(spacex, q);
+        double exact = prices.get((int) Math.min(prices.size() - 1, Math.floor(q * prices.size())));
+        assertTrue(price.contains(exact), price + " does not contain " + exact);
+        if (q >= 0.25 && q <= 0.75) {
+            assertTrue(price.getUpper() - price.getLower() < 200, price + " is too wide");
+        }
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenMoreRocketsThanTrackedAreRequested() {
+        assertThrows(IllegalArgumentException.class, () -> sketches.mostLaunchedRockets(LaunchSketches.DEFAULT_HEAVY_HITTERS + 1));
+        assertThrows(IllegalArgumentException.class, () -> new LaunchSketches().mostLaunchedRockets(1));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenProviderHasNoPrices() {
+        LaunchServiceProvider esa = new LaunchServiceProvider("ESA", 1975, "Europe");
+        assertThrows(IllegalArgumentException.class, () -> sketches.priceQuantile(esa, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> sketches.priceQuantile(spacex, 1.5));
+    }
+}
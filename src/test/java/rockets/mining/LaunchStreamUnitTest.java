@@ -0,0 +1,172 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LaunchStreamUnitTest {
+    private List<LaunchServiceProvider> lsps;
+    private List<Rocket> rockets;
+    private List<Launch> launches;
+    private LaunchStream stream;
+
+    @BeforeEach
+    public void setUp() {
+        lsps = Arrays.asList(
+                new LaunchServiceProvider("ULA", 1990, "USA"),
+                new LaunchServiceProvider("SpaceX", 2002, "USA"),
+                new LaunchServiceProvider("ESA", 1975, "Europe")
+        );
+        rockets = Arrays.asList(
+                new Rocket("Atlas V", "USA", lsps.get(0)),
+                new Rocket("Falcon 9", "USA", lsps.get(1)),
+                new Rocket("Ariane 5", "France", lsps.get(2))
+        );
+        int[] rocketIndex = new int[]{0, 0, 1, 1, 1, 2};
+        Launch.LaunchOutcome[] outcomes = new Launch.LaunchOutcome[]{
+                Launch.LaunchOutcome.SUCCESSFUL, Launch.LaunchOutcome.FAILED, Launch.LaunchOutcome.SUCCESSFUL,
+                Launch.LaunchOutcome.SUCCESSFUL, Launch.LaunchOutcome.FAILED, Launch.LaunchOutcome.SUCCESSFUL};
+        launches = IntStream.range(0, 6).mapToObj(i -> {
+            Launch l = new Launch();
+            l.setId((long) i);
+            l.setLaunchDate(LocalDate.of(2018, i + 1, 1));
+            l.setLaunchVehicle(rockets.get(rocketIndex[i]));
+            l.setLaunchServiceProvider(rockets.get(rocketIndex[i]).getManufacturer());
+            l.setLaunchOutcome(outcomes[i]);
+            l.setPrice(BigDecimal.valueOf(100 * (i + 1)));
+            l.setOrbit(i == 5 ? "GTO" : "LEO");
+            return l;
+        }).collect(Collectors.toList());
+
+        stream = new LaunchStream();
+    }
+
+    @Test
+    public void shouldAgreeWithASnapshotOfTheSameLaunches() {
+        launches.forEach(stream::add);
+        MiningSnapshot snapshot = new MiningSnapshot(launches);
+        assertEquals(6, stream.size());
+        assertEquals(snapshot.mostLaunchedRockets(3), stream.top(LaunchRanking.MOST_LAUNCHED_ROCKETS, 3));
+        assertEquals(snapshot.mostReliableLaunchServiceProviders(3),
+                stream.top(LaunchRanking.MOST_RELIABLE_LAUNCH_SERVICE_PROVIDERS, 3));
+        assertEquals(snapshot.leastReliableLaunchServiceProviders(3),
+                stream.top(LaunchRanking.LEAST_RELIABLE_LAUNCH_SERVICE_PROVIDERS, 3));
+        assertEquals(snapshot.highestRevenueLaunchServiceProviders(3, 2018),
+                stream.top(LaunchRanking.highestRevenueLaunchServiceProviders(2018), 3));
+        assertEquals(snapshot.mostRecentLaunches(4), stream.top(LaunchRanking.MOST_RECENT_LAUNCHES, 4));
+        assertEquals(snapshot.mostRecentFailedLaunches(2), stream.top(LaunchRanking.MOST_RECENT_FAILED_LAUNCHES, 2));
+        assertEquals(snapshot.mostExpensiveLaunches(4), stream.top(LaunchRanking.MOST_EXPENSIVE_LAUNCHES, 4));
+        assertEquals(snapshot.mostExpensiveFailedLaunches(2), stream.top(LaunchRanking.MOST_EXPENSIVE_FAILED_LAUNCHES, 2));
+        assertEquals(snapshot.mostAffordableLaunches(4), stream.top(LaunchRanking.MOST_AFFORDABLE_LAUNCHES, 4));
+        assertEquals(Arrays.asList(snapshot.dominantCountry("GTO")), stream.top(LaunchRanking.dominantCountry("GTO"), 1));
+    }
+
+    @Test
+    public void shouldReturnFewerElementsWhenFewerAreRanked() {
+        stream.add(launches.get(0));
+        assertEquals(Arrays.asList(rockets.get(0)), stream.top(LaunchRanking.MOST_LAUNCHED_ROCKETS, 3));
+        assertEquals(Arrays.asList(launches.get(0)), stream.top(LaunchRanking.MOST_RECENT_LAUNCHES, 3));
+        assertTrue(stream.top(LaunchRanking.dominantCountry("GTO"), 1).isEmpty());
+    }
+
+    @Test
+    public void shouldKeepOnlyTheBestLaunchesUpToTheCapacity() {
+        LaunchStream small = new LaunchStream(2);
+        launches.forEach(small::add);
+        assertEquals(Arrays.asList(launches.get(5), launches.get(4)), small.top(LaunchRanking.MOST_RECENT_LAUNCHES, 2));
+        assertEquals(Arrays.asList(launches.get(0), launches.get(2)), small.top(LaunchRanking.MOST_AFFORDABLE_LAUNCHES, 2));
+        assertThrows(IllegalArgumentException.class, () -> small.top(LaunchRanking.MOST_RECENT_LAUNCHES, 3));
+    }
+
+    @Test
+    public void shouldNotifyListenersOnlyWhenTheirTopKChanges() {
+        List<List<Rocket>> changes = new ArrayList<>();
+        stream.addListener(LaunchRanking.MOST_LAUNCHED_ROCKETS, 1, changes::add);
+
+        stream.add(launches.get(0));
+        stream.add(launches.get(1));
+        stream.add(launches.get(2));
+        stream.add(launches.get(3));
+        assertEquals(Arrays.asList(Arrays.asList(rockets.get(0)), Arrays.asList(rockets.get(1))), changes);
+    }
+
+    @Test
+    public void shouldStopNotifyingRemovedListeners() {
+        List<List<Launch>> changes = new ArrayList<>();
+        RankingListener<Launch> listener = changes::add;
+        stream.addListener(LaunchRanking.MOST_RECENT_LAUNCHES, 2, listener);
+        stream.add(launches.get(0));
+        stream.removeListener(listener);
+        stream.add(launches.get(1));
+        assertEquals(Arrays.asList(Arrays.asList(launches.get(0))), changes);
+    }
+
+    @Test
+    public void shouldRequestLaunchesInBatchesFromAPublisher() {
+        FakeSubscription subscription = new FakeSubscription();
+        Flow.Subscriber<Launch> subscriber = stream.subscriber();
+        subscriber.onSubscribe(subscription);
+        long batch = subscription.requested;
+        assertTrue(batch > 0);
+
+        for (int i = 0; i < batch; i++) {
+            subscriber.onNext(launches.get(i % launches.size()));
+        }
+        assertEquals(2 * batch, subscription.requested);
+        assertEquals(batch, stream.size());
+        subscriber.onComplete();
+    }
+
+    @Test
+    public void shouldCancelASecondSubscription() {
+        FakeSubscription first = new FakeSubscription();
+        FakeSubscription second = new FakeSubscription();
+        Flow.Subscriber<Launch> subscriber = stream.subscriber();
+        subscriber.onSubscribe(first);
+        subscriber.onSubscribe(second);
+        assertFalse(first.cancelled);
+        assertTrue(second.cancelled);
+        assertEquals(0, second.requested);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 101})
+    public void shouldThrowIllegalArgumentExceptionWhenMoreLaunchesThanCapacityRequested(int k) {
+        assertThrows(IllegalArgumentException.class, () -> stream.top(LaunchRanking.MOST_EXPENSIVE_LAUNCHES, k));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCapacityIsLessThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> new LaunchStream(0));
+    }
+
+    private static class FakeSubscription implements Flow.Subscription {
+        private long requested;
+
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReliabilityWindowUnitTest {
+    private List<LaunchServiceProvider> lsps;
+    private List<Launch> launches;
+
+    @BeforeEach
+    public void setUp() {
+        lsps = Arrays.asList(
+                new LaunchServiceProvider("ULA", 1990, "USA"),
+                new LaunchServiceProvider("SpaceX", 2002, "USA"),
+                new LaunchServiceProvider("ESA", 1975, "Europe"));
+        launches = new ArrayList<>();
+        Random random = new Random(7);
+        LocalDate date = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < 300; i++) {
+            date = date.plusDays(random.nextInt(40));
+            launches.add(launch(i, lsps.get(random.nextInt(3)), date,
+                    random.nextInt(4) == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL));
+        }
+    }
+
+    private static Launch launch(long id, LaunchServiceProvider lsp, LocalDate date, Launch.LaunchOutcome outcome) {
+        Launch launch = new Launch();
+        launch.setId(id);
+        launch.setLaunchServiceProvider(lsp);
+        launch.setLaunchDate(date);
+        launch.setLaunchOutcome(outcome);
+        return launch;
+    }
+
+    // ranks providers by rescanning the launches in the window
+    private List<LaunchServiceProvider> bruteForce(List<Launch> window, Launch.LaunchOutcome outcome) {
+        Map<LaunchServiceProvider, Double> rates = window.stream().collect(Collectors.groupingBy(
+                Launch::getLaunchServiceProvider, Collectors.averagingDouble(l -> outcome == l.getLaunchOutcome() ? 1 : 0)));
+        List<LaunchServiceProvider> ranked = lsps.stream().filter(rates::containsKey).collect(Collectors.toList());
+        ranked.sort((a, b) -> Double.compare(rates.get(b), rates.get(a)));
+        return ranked;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20, 1000})
+    public void shouldMatchRescanningLastLaunchesOfEachProvider(int size) {
+        ReliabilityWindow window = ReliabilityWindow.lastLaunches(size);
+        for (int i = 0; i < launches.size(); i++) {
+            window.add(launches.get(i));
+            List<Launch> inWindow = new ArrayList<>();
+            for (LaunchServiceProvider lsp : lsps) {
+                List<Launch> own = launches.subList(0, i + 1).stream()
+                        .filter(l -> lsp.equals(l.getLaunchServiceProvider())).collect(Collectors.toList());
+                inWindow.addAll(own.subList(Math.max(0, own.size() - size), own.size()));
+            }
+            List<LaunchServiceProvider> expected = bruteForce(inWindow, Launch.LaunchOutcome.SUCCESSFUL);
+            assertEquals(new HashSet<>(expected), new HashSet<>(window.mostReliableLaunchServiceProviders(expected.size())));
+            assertEquals(rates(inWindow, expected), rates(inWindow, window.mostReliableLaunchServiceProviders(expected.size())));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 5})
+    public void shouldMatchRescanningLastYears(int years) {
+        ReliabilityWindow window = ReliabilityWindow.lastYears(years);
+        for (int i = 0; i < launches.size(); i++) {
+            window.add(launches.get(i));
+            int fromYear = launches.get(i).getLaunchDate().getYear() - years + 1;
+            List<Launch> inWindow = launches.subList(0, i + 1).stream()
+                    .filter(l -> l.getLaunchDate().getYear() >= fromYear).collect(Collectors.toList());
+            List<LaunchServiceProvider> expected = bruteForce(inWindow, Launch.LaunchOutcome.FAILED);
+            assertEquals(rates(inWindow, expected), rates(inWindow, window.leastReliableLaunchServiceProviders(expected.size())));
+        }
+    }
+
+    // the failure rate of each ranked provider, so ties may be ranked either way
+    private static List<Double> rates(List<Launch> window, List<LaunchServiceProvider> ranked) {
+        return ranked.stream().map(lsp -> window.stream().filter(l -> lsp.equals(l.getLaunchServiceProvider()))
+                .mapToDouble(l -> Launch.LaunchOutcome.FAILED == l.getLaunchOutcome() ? 1 : 0).average().getAsDouble())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldEvictProvidersWithoutLaunchesInTheLastYears() {
+        ReliabilityWindow window = ReliabilityWindow.lastYears(2);
+        window.add(launch(1, lsps.get(0), LocalDate.of(2010, 1, 1), Launch.LaunchOutcome.SUCCESSFUL));
+        window.add(launch(2, lsps.get(1), LocalDate.of(2015, 1, 1), Launch.LaunchOutcome.FAILED));
+
+        assertEquals(0, window.launches(lsps.get(0)));
+        assertEquals(Collections.singletonList(lsps.get(1)), window.mostReliableLaunchServiceProviders(1));
+        assertThrows(IllegalArgumentException.class, () -> window.mostReliableLaunchServiceProviders(2));
+    }
+
+    @Test
+    public void shouldFollowSavedLaunchesAndGoStaleOnChangesItCannotFollow() {
+        ReliabilityWindow window = ReliabilityWindow.lastLaunches(2);
+        window.rebuild(launches.subList(0, 10));
+        window.onSaved(launches.get(10));
+        assertFalse(window.isStale());
+
+        window.onSaved(launches.get(3));
+        assertTrue(window.isStale());
+        window.rebuild(launches);
+        assertFalse(window.isStale());
+        window.onDeleted(launches.get(0));
+        assertTrue(window.isStale());
+    }
+
+    @Test
+    public void shouldTakeBackALaunchSavedAgainOnlyOnceItLeftTheWindow() {
+        ReliabilityWindow window = ReliabilityWindow.lastLaunches(1);
+        Launch launch = launch(1, lsps.get(0), LocalDate.of(2020, 1, 1), Launch.LaunchOutcome.FAILED);
+        window.add(launch);
+        window.onSaved(launch);
+        assertTrue(window.isStale());
+
+        window.rebuild(Collections.singletonList(launch));
+        window.add(launch(2, lsps.get(0), LocalDate.of(2020, 1, 1), Launch.LaunchOutcome.FAILED));
+        launch.setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+        launch.setLaunchDate(LocalDate.of(2020, 1, 2));
+        window.onSaved(launch);
+        assertFalse(window.isStale());
+        assertEquals(1, window.launches(lsps.get(0)));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenLaunchesAreOutOfOrder() {
+        ReliabilityWindow window = ReliabilityWindow.lastLaunches(3);
+        window.add(launch(1, lsps.get(0), LocalDate.of(2020, 1, 1), Launch.LaunchOutcome.SUCCESSFUL));
+        Launch earlier = launch(2, lsps.get(0), LocalDate.of(2019, 12, 31), Launch.LaunchOutcome.SUCCESSFUL);
+        assertThrows(IllegalArgumentException.class, () -> window.add(earlier));
+        assertThrows(IllegalArgumentException.class, () -> ReliabilityWindow.lastYears(0));
+    }
+}
@@ -0,0 +1,92 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RevenueCubeUnitTest {
+    private LaunchServiceProvider ula;
+    private LaunchServiceProvider spacex;
+    private LaunchServiceProvider esa;
+    private List<Launch> launches;
+
+    @BeforeEach
+    public void setUp() {
+        ula = new LaunchServiceProvider("ULA", 2006, "USA");
+        spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        esa = new LaunchServiceProvider("ESA", 1975, "Europe");
+        launches = new ArrayList<>();
+        add(ula, 2010, "150.25");
+        add(ula, 2011, "150.25");
+        add(spacex, 2012, "60");
+        add(spacex, 2015, "62");
+        add(spacex, 2016, "62");
+        add(esa, 2010, "180");
+        add(esa, 2016, "100");
+    }
+
+    private void add(LaunchServiceProvider lsp, int year, String price) {
+        Launch launch = new Launch();
+        launch.setLaunchServiceProvider(lsp);
+        launch.setLaunchDate(LocalDate.of(year, 6, 1));
+        launch.setPrice(new BigDecimal(price));
+        launches.add(launch);
+    }
+
+    private BigDecimal bruteForce(LaunchServiceProvider lsp, int fromYear, int toYear) {
+        return launches.stream()
+                .filter(l -> l.getLaunchServiceProvider().equals(lsp))
+                .filter(l -> l.getLaunchDate().getYear() >= fromYear && l.getLaunchDate().getYear() <= toYear)
+                .map(Launch::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2010, 2010", "2010, 2016", "2011, 2015", "1990, 2030", "2013, 2014", "2020, 2025"})
+    public void shouldSumRevenueOverYearRangesFromPrefixSums(int fromYear, int toYear) {
+        RevenueCube cube = new RevenueCube(LaunchColumns.of(launches));
+        for (LaunchServiceProvider lsp : Arrays.asList(ula, spacex, esa)) {
+            assertEquals(0, bruteForce(lsp, fromYear, toYear).compareTo(cube.revenue(lsp, fromYear, toYear)));
+        }
+    }
+
+    @Test
+    public void shouldRankProvidersOverYearRanges() {
+        RevenueCube cube = new RevenueCube(LaunchColumns.of(launches));
+        assertEquals(Arrays.asList(ula, esa, spacex), cube.highestRevenueLaunchServiceProviders(3, 2010, 2016));
+        assertEquals(Arrays.asList(spacex, esa), cube.highestRevenueLaunchServiceProviders(2, 2012, 2016));
+        assertEquals(2, cube.pricedLaunches(spacex, 2015, 2016));
+        assertThrows(IllegalArgumentException.class, () -> cube.highestRevenueLaunchServiceProviders(3, 2012, 2016));
+    }
+
+    @Test
+    public void shouldFallBackToBigDecimalWhenRevenueOverflows() {
+        add(esa, 2016, "92233720368547758.07");
+        add(esa, 2017, "92233720368547758.07");
+        add(ula, 2016, "0.001");
+        RevenueCube cube = new RevenueCube(LaunchColumns.of(launches));
+
+        assertEquals(0, bruteForce(esa, 2010, 2017).compareTo(cube.revenue(esa, 2010, 2017)));
+        assertEquals(0, bruteForce(ula, 2010, 2017).compareTo(cube.revenue(ula, 2010, 2017)));
+        assertEquals(Arrays.asList(esa, ula, spacex), cube.highestRevenueLaunchServiceProviders(3, 2010, 2017));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenYearRangeIsReversed() {
+        RevenueCube cube = new RevenueCube(LaunchColumns.of(launches));
+        assertThrows(IllegalArgumentException.class, () -> cube.highestRevenueLaunchServiceProviders(1, 2016, 2010));
+        assertThrows(IllegalArgumentException.class, () -> cube.revenue(ula, 2016, 2010));
+    }
+}
@@ -0,0 +1,92 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoaringBitmapUnitTest {
+    private static RoaringBitmap toBitmap(BitSet bits) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        // adds out of order, so inserts are covered as well as appends
+        int[] values = bits.stream().toArray();
+        for (int i = values.length - 1; i >= 0; i -= 2) {
+            bitmap.add(values[i]);
+        }
+        for (int i = values.length - 2; i >= 0; i -= 2) {
+            bitmap.add(values[i]);
+        }
+        return bitmap;
+    }
+
+    private static BitSet random(Random random, int values, int range) {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < values; i++) {
+            bits.set(random.nextInt(range));
+        }
+        return bits;
+    }
+
+    // densities on both sides of the array chunk limit, over several chunks
+    @ParameterizedTest
+    @ValueSource(ints = {10, 3000, 20000, 60000})
+    public void shouldMatchBitSetForSetOperations(int values) {
+        Random random = new Random(values);
+        BitSet a = random(random, values, 3 << 16);
+        BitSet b = random(random, values / 2 + 1, 3 << 16);
+        RoaringBitmap x = toBitmap(a);
+        RoaringBitmap y = toBitmap(b);
+
+        BitSet and = (BitSet) a.clone();
+        and.and(b);
+        BitSet or = (BitSet) a.clone();
+        or.or(b);
+        BitSet andNot = (BitSet) a.clone();
+        andNot.andNot(b);
+
+        assertArrayEquals(a.stream().toArray(), x.toArray());
+        assertEquals(a.cardinality(), x.cardinality());
+        assertArrayEquals(and.stream().toArray(), x.and(y).toArray());
+        assertEquals(and.cardinality(), x.andCardinality(y));
+        assertArrayEquals(or.stream().toArray(), x.or(y).toArray());
+        assertArrayEquals(andNot.stream().toArray(), x.andNot(y).toArray());
+        assertArrayEquals(b.stream().toArray(), y.toArray());
+    }
+
+    @Test
+    public void shouldNotModifyOperands() {
+        RoaringBitmap x = RoaringBitmap.of(1, 2, 70000);
+        RoaringBitmap y = RoaringBitmap.of(2, 3);
+        RoaringBitmap union = x.or(y);
+        union.add(4);
+        union.add(70001);
+
+        assertArrayEquals(new int[]{1, 2, 70000}, x.toArray());
+        assertArrayEquals(new int[]{2, 3}, y.toArray());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 70000, 70001}, union.toArray());
+    }
+
+    @Test
+    public void shouldAnswerMembership() {
+        RoaringBitmap bitmap = RoaringBitmap.of(0, 5, 1 << 20, Integer.MAX_VALUE);
+        assertTrue(bitmap.contains(Integer.MAX_VALUE));
+        assertTrue(bitmap.contains(1 << 20));
+        assertFalse(bitmap.contains(6));
+        assertFalse(bitmap.contains(-1));
+        assertTrue(new RoaringBitmap().isEmpty());
+        assertTrue(bitmap.and(RoaringBitmap.of(6)).isEmpty());
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenValueIsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap().add(-1));
+    }
+}
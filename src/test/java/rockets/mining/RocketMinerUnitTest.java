@@ -9,9 +9,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.params.shadow.com.univocity.parsers.conversions.BigDecimalConversion;
+import org.mockito.ArgumentCaptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.DAOListener;
 import rockets.dataaccess.neo4j.Neo4jDAO;
 import rockets.model.Launch;
 import rockets.model.LaunchServiceProvider;
@@ -19,15 +21,19 @@ import rockets.model.Rocket;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class RocketMinerUnitTest {
@@ -409,4 +415,262 @@ public class RocketMinerUnitTest {
 
 
 
+
+    //MINING SNAPSHOT
+
+    @Test
+    public void shouldLoadLaunchesOnceForAllSnapshotLeaderboards() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        MiningSnapshot snapshot = miner.snapshot();
+
+        assertEquals(Arrays.asList(rockets.get(0), rockets.get(1)), snapshot.mostLaunchedRockets(2));
+        assertEquals(lsps.get(0), snapshot.mostReliableLaunchServiceProviders(1).get(0));
+        assertEquals(lsps.get(2), snapshot.leastReliableLaunchServiceProviders(1).get(0));
+        assertEquals(lsps.get(0), snapshot.highestRevenueLaunchServiceProviders(1, 2017).get(0));
+        assertEquals("USA", snapshot.dominantCountry("Low Earth Orbit"));
+        assertEquals(launches.get(8), snapshot.mostRecentLaunches(1).get(0));
+        assertEquals(launches.get(0), snapshot.mostExpensiveLaunches(1).get(0));
+
+        verify(dao, times(1)).loadAll(Launch.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2015, 2018})
+    public void shouldThrowIllegalArgumentExceptionWhenSnapshotHasNoRevenueInYear(int year) {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        MiningSnapshot snapshot = miner.snapshot();
+        assertThrows(IllegalArgumentException.class, () -> snapshot.highestRevenueLaunchServiceProviders(1, year));
+    }
+
+    //MATERIALIZED LEADERBOARDS
+
+    @Test
+    public void shouldSubscribeLeaderboardsToDAOWritesOnce() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        LaunchLeaderboards leaderboards = miner.leaderboards();
+        assertEquals(leaderboards, miner.leaderboards());
+        assertEquals(Arrays.asList(rockets.get(0), rockets.get(1)), leaderboards.mostLaunchedRockets(2));
+
+        verify(dao, times(1)).loadAll(Launch.class);
+        verify(dao, times(1)).addListener(leaderboards);
+    }
+
+    @Test
+    public void shouldRankRevenueExactlyWhenItOverflowsScaledLongs() {
+        launches.get(9).setPrice(new BigDecimal("92233720368547758.07"));
+        launches.get(8).setPrice(new BigDecimal("92233720368547758.07"));
+        launches.get(0).setPrice(new BigDecimal("0.001"));
+        MiningSnapshot snapshot = new MiningSnapshot(launches);
+
+        assertEquals(Arrays.asList(lsps.get(2), lsps.get(0), lsps.get(1)),
+                snapshot.highestRevenueLaunchServiceProviders(3, 2017));
+        assertEquals(Arrays.asList(launches.get(8), launches.get(9)), snapshot.mostExpensiveLaunches(2));
+        assertEquals(launches.get(0), snapshot.mostAffordableLaunches(1).get(0));
+    }
+
+    //DATE RANGES
+
+    @Test
+    public void shouldReturnLaunchesBetweenDates() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        List<Launch> between = miner.launchesBetween(LocalDate.of(2017, 11, 1), LocalDate.of(2017, 12, 31));
+        assertEquals(Arrays.asList(launches.get(5), launches.get(8)), between);
+        assertEquals(10L, (long) miner.launchCountsPerYear(LocalDate.of(2017, 1, 1), LocalDate.of(2017, 12, 31)).get(2017));
+        assertEquals(2L, (long) miner.launchCountsPerMonth(LocalDate.of(2017, 1, 1), LocalDate.of(2017, 12, 31))
+                .get(YearMonth.of(2017, 6)));
+    }
+
+    //FILTER COMBINATIONS
+
+    @Test
+    public void shouldFindAndCountLaunchesMatchingFilterCombinations() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        assertEquals(Arrays.asList(launches.get(5), launches.get(9)),
+                miner.findLaunches(Launch.LaunchOutcome.FAILED, "Medium Earth Orbit", null, 2017));
+        assertEquals(4, miner.countLaunches(Launch.LaunchOutcome.SUCCESSFUL, null, lsps.get(0), null));
+        assertEquals(0, miner.countLaunches(null, null, null, 2018));
+        assertEquals(10, miner.countLaunches(null, null, null, null));
+    }
+
+    @Test
+    public void shouldReuseTheSnapshotUntilTheDataVersionChanges() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        when(dao.getDataVersion()).thenReturn(1L);
+        assertEquals(10, miner.countLaunches(null, null, null, null));
+        assertEquals(4, miner.countLaunches(Launch.LaunchOutcome.SUCCESSFUL, null, lsps.get(0), null));
+        verify(dao, times(1)).loadAll(Launch.class);
+
+        when(dao.loadAll(Launch.class)).thenReturn(launches.subList(0, 5));
+        when(dao.getDataVersion()).thenReturn(2L);
+        assertEquals(5, miner.countLaunches(null, null, null, null));
+    }
+
+    //SLIDING WINDOWS
+
+    @Test
+    public void shouldRankProvidersOverTheirLastLaunches() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        // ULA's last two launches succeeded while SpaceX's and ESA's last two failed
+        assertEquals(Arrays.asList(lsps.get(0), lsps.get(1), lsps.get(2)),
+                miner.mostReliableLaunchServiceProvidersOverLastLaunches(3, 2));
+        assertEquals(Arrays.asList(lsps.get(1), lsps.get(2)),
+                miner.leastReliableLaunchServiceProvidersOverLastLaunches(2, 2));
+        // over the whole of 2017, all of ESA's launches failed but only two of SpaceX's three
+        assertEquals(Arrays.asList(lsps.get(2), lsps.get(1)),
+                miner.leastReliableLaunchServiceProvidersOverLastYears(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> miner.mostReliableLaunchServiceProvidersOverLastYears(4, 1));
+    }
+
+    @Test
+    public void shouldBuildEachReliabilityWindowOnceAndFollowWritesUntilDropped() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        miner.mostReliableLaunchServiceProvidersOverLastLaunches(1, 2);
+        miner.leastReliableLaunchServiceProvidersOverLastLaunches(1, 2);
+        ReliabilityWindow window = miner.reliabilityOverLastLaunches(2);
+        ReliabilityWindow years = miner.reliabilityOverLastYears(1);
+
+        verify(dao, times(2)).loadAll(Launch.class);
+        ArgumentCaptor<DAOListener> listener = ArgumentCaptor.forClass(DAOListener.class);
+        verify(dao, times(1)).addListener(listener.capture());
+
+        listener.getValue().onDeleted(launches.get(0));
+        assertTrue(window.isStale());
+        assertTrue(years.isStale());
+        miner.mostReliableLaunchServiceProvidersOverLastLaunches(1, 2);
+        verify(dao, times(3)).loadAll(Launch.class);
+
+        miner.dropReliabilityWindow(window);
+        verify(dao, never()).removeListener(any());
+        miner.dropReliabilityWindow(years);
+        verify(dao).removeListener(listener.getValue());
+        assertNotSame(window, miner.reliabilityOverLastLaunches(2));
+    }
+
+    //QUERIES
+
+    @Test
+    public void shouldRunSeveralQueriesFromOneLoad() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        LaunchQuery<LaunchServiceProvider> reliable = LaunchQuery.groupBy(LaunchDimension.PROVIDER)
+                .orderBy(LaunchAggregate.SUCCESS_RATE).top(1);
+        LaunchQuery<String> countries = LaunchQuery.groupBy(LaunchDimension.COUNTRY).filter(LaunchFilter.successful());
+        LaunchQuery.Results results = miner.queryAll(Arrays.asList(reliable, countries));
+
+        assertEquals(lsps.get(0), results.get(reliable).get(0).getKey());
+        assertEquals("USA", results.get(countries).get(0).getKey());
+        assertEquals(5, results.get(countries).get(0).getLaunches());
+        verify(dao, times(1)).loadAll(Launch.class);
+    }
+
+    //PRICE PER KILOGRAM
+
+    @Test
+    public void shouldRankLaunchesAndProvidersByPricePerKilogramToLEO() {
+        rockets.get(0).setMassToLEO("10 t");
+        rockets.get(1).setMassToLEO("1,000 kg");
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+
+        assertEquals(Arrays.asList(launches.get(4), launches.get(3), launches.get(2)),
+                miner.cheapestLaunchesPerKilogramToLEO(3));
+        assertEquals(Arrays.asList(lsps.get(1), lsps.get(0)), miner.cheapestLaunchServiceProvidersPerKilogramToLEO(2));
+        assertThrows(IllegalArgumentException.class, () -> miner.cheapestLaunchServiceProvidersPerKilogramToLEO(3));
+    }
+
+    @Test
+    public void shouldLeaveOutRocketsWithUnknownCapacity() {
+        rockets.get(0).setMassToGTO("unknown");
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+
+        assertTrue(miner.cheapestLaunchesPerKilogramToGTO(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> miner.cheapestLaunchesPerKilogramToGTO(1));
+        assertThrows(IllegalArgumentException.class, () -> miner.cheapestLaunchServiceProvidersPerKilogramToGTO(1));
+    }
+
+    //PUBLISHED SNAPSHOTS
+
+    @Test
+    public void shouldQueryPublishedSnapshotsWithoutLoadingAgain() {
+        List<Runnable> rebuilds = new ArrayList<>();
+        RocketMiner published = new RocketMiner(dao, rebuilds::add);
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+
+        assertEquals(Arrays.asList(rockets.get(0), rockets.get(1)), published.mostLaunchedRockets(2));
+        assertEquals(launches.get(0), published.mostExpensiveLaunches(1).get(0));
+        assertEquals(lsps.get(0), published.mostReliableLaunchServiceProviders(1).get(0));
+        verify(dao, times(1)).loadAll(Launch.class);
+        assertTrue(rebuilds.isEmpty());
+    }
+
+    //STREAMING
+
+    @Test
+    public void shouldRankLaunchesPushedThroughASubscriberWithoutLoading() {
+        Flow.Subscriber<Launch> subscriber = miner.subscribe();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        launches.forEach(subscriber::onNext);
+        subscriber.onComplete();
+
+        assertEquals(launches.size(), miner.stream().size());
+        assertEquals(Arrays.asList(launches.get(8), launches.get(5)),
+                miner.stream().top(LaunchRanking.MOST_RECENT_FAILED_LAUNCHES, 2));
+        assertEquals(lsps.get(0), miner.stream().top(LaunchRanking.MOST_RELIABLE_LAUNCH_SERVICE_PROVIDERS, 1).get(0));
+        verify(dao, never()).loadAll(Launch.class);
+    }
+
+    //APPROXIMATE MODE
+
+    @Test
+    public void shouldApproximateFromSketchesOfAllLaunches() {
+        when(dao.stream(eq(Launch.class), anyInt())).thenAnswer(invocation -> launches.stream());
+        Map<Rocket, Estimate> top = miner.approximateMostLaunchedRockets(2);
+
+        assertEquals(Arrays.asList(rockets.get(0), rockets.get(1)), new ArrayList<>(top.keySet()));
+        assertTrue(top.get(rockets.get(0)).contains(4));
+        assertTrue(miner.approximateDistinctRockets().contains(4));
+        assertTrue(miner.approximateDistinctLaunchSites().contains(1));
+        assertTrue(miner.approximatePriceQuantile(lsps.get(0), 1).contains(999999999));
+        verify(dao, never()).loadAll(Launch.class);
+    }
+
+    @Test
+    public void shouldReturnDominantCountriesOfSeveralOrbitsFromOneLoad() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        Map<String, String> countries = miner.dominantCountries(Arrays.asList("Low Earth Orbit", "Polar Orbit", "High Earth Orbit"));
+
+        assertEquals(Arrays.asList("Low Earth Orbit", "Polar Orbit", "High Earth Orbit"), new ArrayList<>(countries.keySet()));
+        assertEquals("USA", countries.get("Low Earth Orbit"));
+        assertEquals("No Rocket in this Orbit", countries.get("Polar Orbit"));
+        assertEquals("USA", countries.get("High Earth Orbit"));
+        verify(dao, times(1)).loadAll(Launch.class);
+    }
+
+    @Test
+    public void shouldReturnDominantCountryOfEveryOrbitWithASuccessfulLaunch() {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        launches.get(9).setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+        launches.get(5).setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+        launches.get(1).setLaunchOutcome(Launch.LaunchOutcome.FAILED);
+        launches.get(4).setOrbit("Medium Earth Orbit");
+        Map<String, String> countries = miner.dominantCountryByOrbit();
+
+        assertEquals(4, countries.size());
+        assertEquals("USA", countries.get("Medium Earth Orbit"));
+        assertEquals("USA", countries.get("Low Earth Orbit"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " "})
+    public void shouldThrowExceptionWhenOneOfSeveralOrbitsIsEmpty(String orbit) {
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        assertThrows(IllegalArgumentException.class, () -> miner.dominantCountries(Arrays.asList("Low Earth Orbit", orbit)));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotFileUnitTest {
+    private Path file;
+    private List<Launch> launches;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("mining", ".snapshot");
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        spacex.setHeadquarters("Hawthorne");
+        spacex.setId(7L);
+        LaunchServiceProvider ula = new LaunchServiceProvider("ULA", 1990, "USA");
+        Rocket falcon = new Rocket("Falcon 9", "USA", spacex);
+        falcon.setMassToLEO("22.8 t");
+        falcon.setFirstYearFlight(2010);
+        falcon.setWikilink("https://en.wikipedia.org/wiki/Falcon_9");
+        Rocket atlas = new Rocket("Atlas V", "USA", ula);
+
+        launches = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Launch launch = new Launch();
+            launch.setId(100L + i);
+            launch.setLaunchDate(LocalDate.of(2018, i + 1, 1));
+            launch.setLaunchVehicle(i < 3 ? falcon : atlas);
+            launch.setLaunchServiceProvider(launch.getLaunchVehicle().getManufacturer());
+            launch.setLaunchOutcome(i % 2 == 0 ? Launch.LaunchOutcome.SUCCESSFUL : Launch.LaunchOutcome.FAILED);
+            launch.setPrice(new BigDecimal("61.25").movePointRight(i));
+            launch.setOrbit("LEO");
+            launch.setLaunchSite("Cape Canaveral");
+            launch.setPayload(new LinkedHashSet<>(Arrays.asList("Dragon", "Starlink")));
+            launches.add(launch);
+        }
+        // a launch with every optional field missing, and a price too large for a long
+        Launch bare = new Launch();
+        launches.add(bare);
+        launches.get(3).setPrice(new BigDecimal("123456789012345678901234567890.5"));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldReadBackTheLaunchesItWrote() throws IOException {
+        SnapshotFile.write(file, launches);
+        List<Launch> read = SnapshotFile.read(file);
+
+        assertEquals(launches, read);
+        for (int i = 0; i < launches.size(); i++) {
+            Launch expected = launches.get(i);
+            Launch actual = read.get(i);
+            assertNotSame(expected, actual);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getLaunchOutcome(), actual.getLaunchOutcome());
+            assertEquals(expected.getPayload(), actual.getPayload());
+            assertEquals(expected.getLaunchSite(), actual.getLaunchSite());
+        }
+        Rocket falcon = read.get(0).getLaunchVehicle();
+        assertSame(falcon, read.get(2).getLaunchVehicle());
+        assertSame(falcon.getManufacturer(), read.get(0).getLaunchServiceProvider());
+        assertEquals(22800, falcon.getKilogramsToLEO(), 1e-9);
+        assertEquals(2010, falcon.getFirstYearFlight());
+        assertEquals("https://en.wikipedia.org/wiki/Falcon_9", falcon.getWikilink());
+        assertEquals(3, falcon.getLaunches().size());
+        assertEquals("Hawthorne", falcon.getManufacturer().getHeadquarters());
+        assertEquals(Long.valueOf(7), falcon.getManufacturer().getId());
+        assertTrue(falcon.getManufacturer().getRockets().contains(falcon));
+    }
+
+    @Test
+    public void shouldReadBackARocketWithoutAManufacturer() throws IOException {
+        // rockets reached through their launches are loaded without their manufacturer
+        Rocket soyuz = new Rocket();
+        soyuz.setId(3L);
+        soyuz.setMassToLEO("7 t");
+        Launch launch = new Launch();
+        launch.setLaunchVehicle(soyuz);
+        launch.setLaunchDate(LocalDate.of(2018, 5, 1));
+
+        SnapshotFile.write(file, Collections.singletonList(launch));
+        List<Launch> read = SnapshotFile.read(file);
+
+        assertEquals(Collections.singletonList(launch), read);
+        Rocket rocket = read.get(0).getLaunchVehicle();
+        assertNull(rocket.getManufacturer());
+        assertNull(rocket.getName());
+        assertEquals(Long.valueOf(3), rocket.getId());
+        assertEquals("7 t", rocket.getMassToLEO());
+        assertEquals(Collections.singleton(read.get(0)), rocket.getLaunches());
+    }
+
+    @Test
+    public void shouldAnswerQueriesLikeTheOriginalLaunches() throws IOException {
+        SnapshotFile.write(file, launches);
+        MiningSnapshot restored = new MiningSnapshot(SnapshotFile.read(file));
+        MiningSnapshot original = new MiningSnapshot(launches);
+        assertEquals(original.mostExpensiveLaunches(4), restored.mostExpensiveLaunches(4));
+        assertEquals(original.mostReliableLaunchServiceProviders(2), restored.mostReliableLaunchServiceProviders(2));
+        assertEquals(original.highestRevenueLaunchServiceProviders(2, 2018), restored.highestRevenueLaunchServiceProviders(2, 2018));
+    }
+
+    @Test
+    public void shouldReplaceAnExistingFile() throws IOException {
+        SnapshotFile.write(file, launches);
+        SnapshotFile.write(file, launches.subList(0, 1));
+        assertEquals(1, SnapshotFile.read(file).size());
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+
+    @Test
+    public void shouldThrowIOExceptionWhenTheFileIsCorrupt() throws IOException {
+        SnapshotFile.write(file, launches);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+
+    @Test
+    public void shouldThrowIOExceptionWhenTheFileIsNotASnapshot() throws IOException {
+        Files.write(file, new byte[0]);
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+}
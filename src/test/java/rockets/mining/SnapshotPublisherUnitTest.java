@@ -0,0 +1,226 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+import rockets.model.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SnapshotPublisherUnitTest {
+    private DAO dao;
+    private Queue<Runnable> tasks;
+    private SnapshotPublisher publisher;
+    private List<Launch> launches;
+    private long version;
+
+    @BeforeEach
+    public void setUp() {
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        Rocket falcon = new Rocket("Falcon 9", "USA", spacex);
+        launches = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Launch launch = new Launch();
+            launch.setId((long) i);
+            launch.setLaunchDate(LocalDate.of(2018, i + 1, 1));
+            launch.setLaunchVehicle(falcon);
+            launch.setLaunchServiceProvider(spacex);
+            launch.setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+            launch.setPrice(BigDecimal.valueOf(100 + i));
+            launches.add(launch);
+        }
+
+        dao = mock(DAO.class);
+        when(dao.loadAll(Launch.class)).thenAnswer(invocation -> new ArrayList<>(launches));
+        when(dao.load(eq(Launch.class), anyLong())).thenAnswer(invocation -> launches.stream()
+                .filter(launch -> invocation.getArgument(1).equals(launch.getId())).findFirst().orElse(null));
+        when(dao.getDataVersion()).thenAnswer(invocation -> version);
+        tasks = new ArrayDeque<>();
+        publisher = new SnapshotPublisher(dao, tasks::add);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    public void shouldBuildTheFirstSnapshotOnStartAndSubscribe() {
+        assertEquals(-1, publisher.getVersion());
+        MiningSnapshot snapshot = publisher.get();
+        assertEquals(3, snapshot.getLaunches().size());
+        assertSame(snapshot, publisher.get());
+        verify(dao, times(1)).loadAll(Launch.class);
+        verify(dao).addListener(publisher);
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void shouldCopyEntitiesSoWritesDoNotReachPublishedSnapshots() {
+        MiningSnapshot snapshot = publisher.get();
+        List<Launch> copies = snapshot.getLaunches();
+        Launch copy = copies.get(0);
+        assertNotSame(launches.get(0), copy);
+        assertEquals(launches.get(0), copy);
+        assertSame(copies.get(1).getLaunchVehicle(), copy.getLaunchVehicle());
+
+        launches.get(0).setPrice(BigDecimal.valueOf(1000));
+        launches.get(0).setLaunchOutcome(Launch.LaunchOutcome.FAILED);
+        assertEquals(BigDecimal.valueOf(100), copy.getPrice());
+        assertEquals(Arrays.asList(launches.get(2)), snapshot.mostExpensiveLaunches(1));
+    }
+
+    @Test
+    public void shouldLoadOnlyTheLaunchesQueriesReturn() {
+        MiningSnapshot snapshot = publisher.get();
+        verify(dao, never()).load(eq(Launch.class), anyLong());
+
+        assertEquals(Arrays.asList(launches.get(2)), snapshot.mostExpensiveLaunches(1));
+        verify(dao, times(1)).load(eq(Launch.class), anyLong());
+
+        launches.remove(2);
+        assertEquals(Arrays.asList(launches.get(1)), snapshot.mostExpensiveLaunches(2));
+    }
+
+    @Test
+    public void shouldKeepServingThePreviousSnapshotUntilTheRebuildIsPublished() {
+        MiningSnapshot first = publisher.get();
+        Launch launch = new Launch();
+        launch.setLaunchDate(LocalDate.of(2019, 1, 1));
+        launch.setLaunchVehicle(launches.get(0).getLaunchVehicle());
+        launch.setLaunchServiceProvider(launches.get(0).getLaunchServiceProvider());
+        launches.add(launch);
+        version = 1;
+
+        publisher.onSaved(launch);
+        assertSame(first, publisher.get());
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertNotSame(first, publisher.get());
+        assertEquals(4, publisher.get().getLaunches().size());
+        assertEquals(1, publisher.getVersion());
+        assertEquals(3, first.getLaunches().size());
+    }
+
+    @Test
+    public void shouldCoalesceWritesIntoOneRebuild() {
+        publisher.start();
+        publisher.onSaved(launches.get(0));
+        publisher.onSaved(launches.get(0).getLaunchVehicle());
+        publisher.onDeleted(launches.get(1));
+        assertEquals(1, tasks.size());
+        runTasks();
+        publisher.onSaved(launches.get(2));
+        assertEquals(1, tasks.size());
+        verify(dao, times(2)).loadAll(Launch.class);
+    }
+
+    @Test
+    public void shouldIgnoreWritesOfOtherEntities() {
+        publisher.start();
+        publisher.onSaved(new User());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void shouldKeepThePreviousSnapshotWhenARebuildFails() {
+        MiningSnapshot first = publisher.get();
+        when(dao.loadAll(Launch.class)).thenThrow(new IllegalStateException("Database unavailable"));
+        publisher.scheduleRebuild();
+        runTasks();
+        assertSame(first, publisher.get());
+    }
+
+    @Test
+    public void shouldStartFromTheSnapshotFileWithoutLoading() throws IOException {
+        Path file = Files.createTempFile("mining", ".snapshot");
+        try {
+            SnapshotFile.write(file, launches);
+            SnapshotPublisher restoring = new SnapshotPublisher(dao, tasks::add, file);
+
+            MiningSnapshot restored = restoring.get();
+            assertEquals(launches, restored.getLaunches());
+            assertEquals(-1, restoring.getVersion());
+            verify(dao, never()).loadAll(Launch.class);
+            assertEquals(1, tasks.size());
+
+            version = 3;
+            runTasks();
+            assertNotSame(restored, restoring.get());
+            assertEquals(3, restoring.getVersion());
+            verify(dao, times(1)).loadAll(Launch.class);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void shouldLoadWhenTheSnapshotFileCannotBeRead() throws IOException {
+        Path file = Files.createTempFile("mining", ".snapshot");
+        try {
+            Files.write(file, new byte[]{1, 2, 3});
+            SnapshotPublisher restoring = new SnapshotPublisher(dao, tasks::add, file);
+            assertEquals(3, restoring.get().getLaunches().size());
+            assertEquals(0, restoring.getVersion());
+            verify(dao, times(1)).loadAll(Launch.class);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void shouldSaveRebuiltSnapshotsAtMostOncePerPeriodAndOnClose() throws IOException {
+        Path file = Files.createTempFile("mining", ".snapshot");
+        Files.delete(file);
+        try {
+            SnapshotPublisher saving = new SnapshotPublisher(dao, tasks::add, file, 1, TimeUnit.HOURS);
+            saving.start();
+            assertFalse(Files.exists(file));
+
+            version = 1;
+            saving.scheduleRebuild();
+            runTasks();
+            assertEquals(3, SnapshotFile.read(file).size());
+
+            launches.remove(0);
+            version = 2;
+            saving.scheduleRebuild();
+            runTasks();
+            assertEquals(3, SnapshotFile.read(file).size());
+
+            saving.close();
+            assertEquals(2, SnapshotFile.read(file).size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void shouldThrowIllegalStateExceptionWhenSavingWithoutAFile() {
+        publisher.start();
+        assertThrows(IllegalStateException.class, () -> publisher.save());
+    }
+
+    @Test
+    public void shouldStopFollowingWritesWhenClosed() {
+        publisher.start();
+        publisher.close();
+        verify(dao).removeListener(publisher);
+    }
+}
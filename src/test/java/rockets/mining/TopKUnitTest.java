@@ -0,0 +1,57 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TopKUnitTest {
+    private List<Integer> numbers() {
+        Random random = new Random(5171);
+        return IntStream.range(0, 10000).mapToObj(i -> random.nextInt(500)).collect(Collectors.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 10, 100, 20000})
+    public void shouldKeepTheSameElementsAsAFullSort(int k) {
+        List<Integer> numbers = numbers();
+        List<Integer> expected = numbers.stream()
+                .sorted(Comparator.reverseOrder())
+                .limit(k)
+                .collect(Collectors.toList());
+        assertEquals(expected, numbers.stream().collect(TopK.topK(k, Comparator.reverseOrder())));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    public void shouldKeepEqualElementsInEncounterOrderInParallelStreams(int k) {
+        List<int[]> pairs = numbers().stream()
+                .map(n -> new int[]{n % 10, n})
+                .collect(Collectors.toList());
+        Comparator<int[]> byFirst = Comparator.comparingInt(pair -> pair[0]);
+
+        List<int[]> expected = pairs.stream().sorted(byFirst).limit(k).collect(Collectors.toList());
+        List<int[]> actual = pairs.parallelStream().collect(TopK.topK(k, byFirst));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldNeverHoldMoreThanKElements() {
+        TopK<Integer> top = new TopK<>(3, Comparator.naturalOrder());
+        numbers().forEach(top::offer);
+        assertEquals(3, top.size());
+        assertTrue(top.toList().stream().allMatch(n -> n == 0));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenKIsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new TopK<Integer>(-1, Comparator.naturalOrder()));
+    }
+}
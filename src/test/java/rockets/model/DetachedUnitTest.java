@@ -0,0 +1,69 @@
+package rockets.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DetachedUnitTest {
+    @Test
+    public void shouldCopyAConnectedGraphOnce() {
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        Rocket falcon = new Rocket("Falcon 9", "USA", spacex);
+        falcon.setMassToLEO("22.8 t");
+        spacex.getRockets().add(falcon);
+        Launch first = new Launch();
+        first.setId(1L);
+        first.setLaunchDate(LocalDate.of(2018, 1, 1));
+        first.setLaunchVehicle(falcon);
+        first.setLaunchServiceProvider(spacex);
+        first.setPayload(Collections.singleton("Zuma"));
+        first.setPrice(BigDecimal.TEN);
+        Launch second = new Launch();
+        second.setLaunchDate(LocalDate.of(2018, 2, 1));
+        second.setLaunchVehicle(falcon);
+        second.setLaunchServiceProvider(spacex);
+        falcon.getLaunches().addAll(Arrays.asList(first, second));
+
+        List<Launch> copies = Detached.copyOf(Arrays.asList(first, second, first));
+
+        Launch copy = copies.get(0);
+        assertNotSame(first, copy);
+        assertSame(copy, copies.get(2));
+        assertEquals(first, copy);
+        assertEquals(Long.valueOf(1), copy.getId());
+        assertEquals(first.getPayload(), copy.getPayload());
+        assertNotSame(first.getPayload(), copy.getPayload());
+        assertEquals(first.getPriceAsMoney(), copy.getPriceAsMoney());
+
+        Rocket rocket = copy.getLaunchVehicle();
+        assertNotSame(falcon, rocket);
+        assertSame(rocket, copies.get(1).getLaunchVehicle());
+        assertSame(copy.getLaunchServiceProvider(), rocket.getManufacturer());
+        assertEquals(22800, rocket.getKilogramsToLEO(), 1e-9);
+        assertEquals(2, rocket.getLaunches().size());
+        assertTrue(rocket.getLaunches().contains(copies.get(1)));
+        assertTrue(copy.getLaunchServiceProvider().getRockets().contains(rocket));
+        assertSame(rocket, copy.getLaunchServiceProvider().getRockets().iterator().next());
+    }
+
+    @Test
+    public void shouldNotReferenceEntitiesOutsideTheCopiedGraph() {
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        Rocket falcon = new Rocket("Falcon 9", "USA", spacex);
+        Rocket heavy = new Rocket("Falcon Heavy", "USA", spacex);
+        spacex.getRockets().addAll(Arrays.asList(falcon, heavy));
+        Launch launch = new Launch();
+        launch.setLaunchVehicle(falcon);
+        launch.setLaunchServiceProvider(spacex);
+
+        Launch copy = Detached.copyOf(Collections.singletonList(launch)).get(0);
+        assertEquals(Collections.singleton(copy.getLaunchVehicle()), copy.getLaunchServiceProvider().getRockets());
+        assertTrue(copy.getLaunchVehicle().getLaunches().isEmpty());
+    }
+}
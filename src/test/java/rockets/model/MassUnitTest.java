@@ -0,0 +1,57 @@
+package rockets.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MassUnitTest {
+    @ParameterizedTest
+    @CsvSource({
+            "'22800', 22800",
+            "'22,800 kg', 22800",
+            "'8300kg', 8300",
+            "'22.8 t', 22800",
+            "'1.5 tonnes', 1500",
+            "'1000 lb', 453.59237",
+            "' 450.5 KG ', 450.5"
+    })
+    public void shouldNormalizeMassesToKilograms(String description, double kilograms) {
+        Mass mass = Mass.parse(description);
+        assertTrue(mass.isKnown());
+        assertEquals(kilograms, mass.getKilograms(), 1e-9);
+        assertEquals(description, mass.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"unknown", "", "about 20 t", "1,00 kg", "20 furlongs"})
+    public void shouldKeepUnparseableMassesUnknown(String description) {
+        Mass mass = Mass.parse(description);
+        assertFalse(mass.isKnown());
+        assertTrue(Double.isNaN(mass.getKilograms()));
+    }
+
+    @Test
+    public void shouldParseRocketCapacitiesWhenSet() {
+        Rocket rocket = new Rocket("Falcon 9", "USA", new LaunchServiceProvider("SpaceX", 2002, "USA"));
+        assertTrue(Double.isNaN(rocket.getKilogramsToLEO()));
+        rocket.setMassToLEO("22.8 t");
+        rocket.setMassToGTO("8,300 kg");
+        rocket.setMassToOther("unknown");
+        assertEquals(22800, rocket.getKilogramsToLEO(), 1e-9);
+        assertEquals(8300, rocket.getKilogramsToGTO(), 1e-9);
+        assertTrue(Double.isNaN(rocket.getKilogramsToOther()));
+        rocket.setMassToLEO("22,800");
+        assertEquals(22800, rocket.getKilogramsToLEO(), 1e-9);
+    }
+
+    @Test
+    public void shouldParsePayloadMassWhenSet() {
+        Payload payload = new Payload("Dragon", "Cargo");
+        assertTrue(Double.isNaN(payload.getKilograms()));
+        payload.setMass("6 t");
+        assertEquals(6000, payload.getKilograms(), 1e-9);
+    }
+}
@@ -0,0 +1,70 @@
+package rockets.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyUnitTest {
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1.5", "1234567.89", "-3.25", "92233720368547758.07"})
+    public void shouldScaleAmountsThatFitALong(String amount) {
+        Money money = Money.of(new BigDecimal(amount));
+        assertTrue(money.isScaled());
+        assertEquals(new BigDecimal(amount).movePointRight(Money.SCALE).longValueExact(), money.scaled());
+        assertEquals(new BigDecimal(amount), money.toBigDecimal());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.001", "92233720368547758.08", "1e30"})
+    public void shouldKeepAmountsThatDoNotFitALongExact(String amount) {
+        Money money = Money.of(new BigDecimal(amount));
+        assertFalse(money.isScaled());
+        assertEquals(new BigDecimal(amount), money.toBigDecimal());
+    }
+
+    @Test
+    public void shouldFallBackToBigDecimalWhenASumOverflows() {
+        Money max = Money.ofScaled(Long.MAX_VALUE);
+        Money sum = max.add(Money.ofScaled(1));
+        assertFalse(sum.isScaled());
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE, Money.SCALE).add(new BigDecimal("0.01")), sum.toBigDecimal());
+        assertTrue(sum.compareTo(max) > 0);
+
+        Money back = sum.subtract(Money.ofScaled(1));
+        assertTrue(back.isScaled());
+        assertEquals(max, back);
+    }
+
+    @Test
+    public void shouldCompareAmountsWhateverTheirRepresentation() {
+        Money small = Money.of(new BigDecimal("0.001"));
+        Money cent = Money.ofScaled(1);
+        Money huge = Money.of(new BigDecimal("1e30"));
+        assertTrue(small.compareTo(cent) < 0);
+        assertTrue(cent.compareTo(huge) < 0);
+        assertTrue(huge.compareTo(small) > 0);
+        assertEquals(Money.of(new BigDecimal("1.5")), Money.of(new BigDecimal("1.50")));
+        assertEquals(Money.of(new BigDecimal("1.5")).hashCode(), Money.ofScaled(150).hashCode());
+    }
+
+    @Test
+    public void shouldFollowThePriceOfALaunch() {
+        Launch launch = new Launch();
+        assertNull(launch.getPriceAsMoney());
+        launch.setPrice(new BigDecimal("100.25"));
+        Money money = launch.getPriceAsMoney();
+        assertEquals(10025, money.scaled());
+        assertSame(money, launch.getPriceAsMoney());
+        launch.setPrice(new BigDecimal("7"));
+        assertEquals(700, launch.getPriceAsMoney().scaled());
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenAmountIsNull() {
+        assertThrows(NullPointerException.class, () -> Money.of(null));
+    }
+}